@@ -0,0 +1,143 @@
+package encoders;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import utils.ColorUtils;
+
+// Writes uncompressed 1-bit, 8-bit gray or 24-bit RGB BMP, the rows of BMP are stored from the bottom to the top,
+// so every row is written at its own position of the file
+public class BmpStreamWriter implements ImageStreamWriter {
+    private static final int FILE_HEADER_SIZE = 14;
+    private static final int INFO_HEADER_SIZE = 40;
+    // 72 DPI as ImageIO writes it by default
+    private static final int PIXELS_PER_METER = 2835;
+
+    private RandomAccessFile output;
+    private int width;
+    private int height;
+    private int imageType;
+    private long dataOffset;
+    private int stride;
+
+    private byte[] line;
+    private int writtenRows;
+
+    public BmpStreamWriter(File file, int width, int height, int imageType) throws IOException {
+        this.width = width;
+        this.height = height;
+        this.imageType = imageType;
+
+        int bitCount;
+        int paletteSize;
+        switch (imageType) {
+            case BufferedImage.TYPE_BYTE_BINARY:
+                bitCount = 1;
+                paletteSize = 2;
+                break;
+            case BufferedImage.TYPE_BYTE_GRAY:
+                bitCount = 8;
+                paletteSize = 256;
+                break;
+            case BufferedImage.TYPE_INT_RGB:
+                bitCount = 24;
+                paletteSize = 0;
+                break;
+            default:
+                throw new IllegalArgumentException("Image Type is not supported: " + imageType);
+        }
+
+        // Rows are aligned to 4 bytes
+        stride = (int) (((long) width * bitCount + 31) / 32 * 4);
+        line = new byte[stride];
+        dataOffset = FILE_HEADER_SIZE + INFO_HEADER_SIZE + paletteSize * 4;
+        long imageSize = (long) stride * height;
+        long fileSize = dataOffset + imageSize;
+        if (fileSize > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Image is too big for BMP: " + width + "x" + height);
+        }
+
+        output = new RandomAccessFile(file, "rw");
+        output.setLength(fileSize);
+
+        byte[] header = new byte[(int) dataOffset];
+        header[0] = 'B';
+        header[1] = 'M';
+        putInt(header, 2, (int) fileSize);
+        putInt(header, 10, (int) dataOffset);
+        putInt(header, 14, INFO_HEADER_SIZE);
+        putInt(header, 18, width);
+        putInt(header, 22, height);
+        putShort(header, 26, 1);
+        putShort(header, 28, bitCount);
+        putInt(header, 34, (int) imageSize);
+        putInt(header, 38, PIXELS_PER_METER);
+        putInt(header, 42, PIXELS_PER_METER);
+        putInt(header, 46, paletteSize);
+        putInt(header, 50, paletteSize);
+        // Palette of gray levels, black and white for 1-bit image
+        for (int i = 0; i < paletteSize; i++) {
+            int gray = paletteSize == 2 ? i * 255 : i;
+            putInt(header, FILE_HEADER_SIZE + INFO_HEADER_SIZE + i * 4, ColorUtils.getRGB(gray, gray, gray) & 0xFFFFFF);
+        }
+        output.write(header);
+    }
+
+    @Override
+    public void writeRow(int[] row) throws IOException {
+        if (writtenRows == height) {
+            throw new IOException("All " + height + " rows have already been written");
+        }
+
+        switch (imageType) {
+            case BufferedImage.TYPE_BYTE_BINARY:
+                for (int i = 0; i < (width + 7) / 8; i++) {
+                    int bits = 0;
+                    for (int x = i * 8; x < i * 8 + 8; x++) {
+                        bits = bits << 1 | (x < width && ColorUtils.getGray(row[x]) >= 128 ? 1 : 0);
+                    }
+                    line[i] = (byte) bits;
+                }
+                break;
+            case BufferedImage.TYPE_BYTE_GRAY:
+                for (int x = 0; x < width; x++) {
+                    line[x] = (byte) ColorUtils.getGray(row[x]);
+                }
+                break;
+            default:
+                // Pixels are stored as Blue, Green, Red
+                for (int x = 0; x < width; x++) {
+                    line[x * 3] = (byte) row[x];
+                    line[x * 3 + 1] = (byte) (row[x] >> 8);
+                    line[x * 3 + 2] = (byte) (row[x] >> 16);
+                }
+                break;
+        }
+
+        output.seek(dataOffset + (long) (height - 1 - writtenRows) * stride);
+        output.write(line);
+        writtenRows++;
+    }
+
+    private static void putInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >> 8);
+        data[offset + 2] = (byte) (value >> 16);
+        data[offset + 3] = (byte) (value >> 24);
+    }
+
+    private static void putShort(byte[] data, int offset, int value) {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >> 8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+        if (writtenRows < height) {
+            throw new IOException("Only " + writtenRows + " of " + height + " rows have been written");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package encoders;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Writes an image row by row from the top to the bottom, so the whole image is never kept in memory
+public interface ImageStreamWriter extends Closeable {
+
+    // Pixels of the row are RGB, they are converted to the type of the written image
+    void writeRow(int[] row) throws IOException;
+}
@@ -0,0 +1,715 @@
+package encoders;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+// Lossless transforms of baseline JPEG files by the quantized DCT coefficients, the pixels are never decoded.
+// Rotation by 180 degrees reverses the order of the blocks and negates the coefficients, which sum
+// of the horizontal and vertical frequencies is odd, then the coefficients are coded again by the optimal
+// Huffman tables. Partial MCUs at the right and bottom edges can not be moved, so such files are not supported,
+// unless the trim is asked, then the partial MCUs are trimmed as by jpegtran -trim. Progressive, arithmetic
+// coded, 12-bit and multi-scan files are not supported.
+public class JpegTransform {
+    // Natural order index of every coefficient in the zigzag order
+    private static final int[] ZIGZAG = { 0, 1, 8, 16, 9, 2, 3, 10, 17, 24, 32, 25, 18, 11, 4, 5, 12, 19, 26, 33,
+            40, 48, 41, 34, 27, 20, 13, 6, 7, 14, 21, 28, 35, 42, 49, 56, 57, 50, 43, 36, 29, 22, 15, 23, 30, 37,
+            44, 51, 58, 59, 52, 45, 38, 31, 39, 46, 53, 60, 61, 54, 47, 55, 62, 63 };
+    // Sign of every coefficient in the zigzag order after the rotation by 180 degrees
+    private static final int[] ROTATION_180_SIGNS = new int[64];
+
+    private static final int SOF0 = 0xC0;
+    private static final int SOF1 = 0xC1;
+    private static final int DHT = 0xC4;
+    private static final int RST0 = 0xD0;
+    private static final int SOI = 0xD8;
+    private static final int EOI = 0xD9;
+    private static final int SOS = 0xDA;
+    private static final int DRI = 0xDD;
+
+    static {
+        for (int k = 0; k < 64; k++) {
+            int u = ZIGZAG[k] % 8;
+            int v = ZIGZAG[k] / 8;
+            ROTATION_180_SIGNS[k] = (u + v) % 2 == 0 ? 1 : -1;
+        }
+    }
+
+    private byte[] data;
+    private int position;
+    private boolean trim;
+
+    // Segments before the scan, which are copied to the new file, the frame header is written with the new size
+    private ByteArrayOutputStream header = new ByteArrayOutputStream();
+    private int frameOffset = -1;
+    private byte[] scanHeader;
+    private HuffmanTable[] dcTables = new HuffmanTable[4];
+    private HuffmanTable[] acTables = new HuffmanTable[4];
+    private int restartInterval;
+
+    private int width;
+    private int height;
+    private Component[] components;
+    // Components in the order of the scan
+    private Component[] scanComponents;
+    private int mcusX;
+    private int mcusY;
+    // Size of the MCU in pixels, the rotated size is a multiple of it
+    private int mcuWidth;
+    private int mcuHeight;
+
+    private long bits;
+    private int bitCount;
+
+    private JpegTransform(byte[] data, boolean trim) {
+        this.data = data;
+        this.trim = trim;
+    }
+
+    // Returns false if the file is not supported, then nothing is written
+    public static boolean rotate180(File sourceFile, File outputFile) throws IOException {
+        boolean result = rotate180(sourceFile, outputFile, false);
+        return result;
+    }
+
+    // Trimmed file is smaller than the source by the partial MCUs
+    public static boolean rotate180(File sourceFile, File outputFile, boolean trim) throws IOException {
+        JpegTransform transform = new JpegTransform(Files.readAllBytes(sourceFile.toPath()), trim);
+        if (!transform.readFile()) {
+            return false;
+        }
+
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+            transform.writeRotated180(output);
+        }
+        return true;
+    }
+
+    private boolean readFile() throws IOException {
+        if (data.length < 4 || (data[0] & 0xFF) != 0xFF || (data[1] & 0xFF) != SOI) {
+            return false;
+        }
+        header.write(data, 0, 2);
+        position = 2;
+
+        while (true) {
+            int marker = readMarker();
+            if (marker == EOI || marker < 0) {
+                return false;
+            }
+
+            int start = position - 2;
+            int length = readUnsignedShort(position);
+            int end = position + length;
+            if (end > data.length) {
+                throw new IOException("JPEG segment is out of the file: " + Integer.toHexString(marker));
+            }
+
+            if (marker == SOS) {
+                if (!readScanHeader(position + 2)) {
+                    return false;
+                }
+                scanHeader = Arrays.copyOfRange(data, start, end);
+                position = end;
+                decodeScan();
+                // Only one scan with all the components is supported
+                return readMarker() == EOI;
+            }
+
+            if (marker == SOF0 || marker == SOF1) {
+                if (!readFrameHeader(position + 2)) {
+                    return false;
+                }
+                frameOffset = header.size();
+                header.write(data, start, end - start);
+            } else if (marker >= 0xC2 && marker <= 0xCF && marker != DHT && marker != 0xC8 && marker != 0xCC) {
+                // Progressive, lossless and arithmetic coded frames
+                return false;
+            } else if (marker == DHT) {
+                readHuffmanTables(position + 2, end);
+            } else if (marker == DRI) {
+                restartInterval = readUnsignedShort(position + 2);
+            } else {
+                header.write(data, start, end - start);
+            }
+            position = end;
+        }
+    }
+
+    // Skips the fill bytes before the marker, returns -1 at the end of the file
+    private int readMarker() {
+        while (position < data.length && (data[position] & 0xFF) != 0xFF) {
+            position++;
+        }
+        while (position < data.length && (data[position] & 0xFF) == 0xFF) {
+            position++;
+        }
+        if (position >= data.length) {
+            return -1;
+        }
+        int result = data[position++] & 0xFF;
+        return result;
+    }
+
+    private int readUnsignedShort(int offset) {
+        int result = (data[offset] & 0xFF) << 8 | data[offset + 1] & 0xFF;
+        return result;
+    }
+
+    private boolean readFrameHeader(int offset) {
+        int precision = data[offset] & 0xFF;
+        height = readUnsignedShort(offset + 1);
+        width = readUnsignedShort(offset + 3);
+        int count = data[offset + 5] & 0xFF;
+        // Height defined by the DNL marker after the scan is not supported
+        if (precision != 8 || height == 0 || width == 0 || count == 0) {
+            return false;
+        }
+
+        components = new Component[count];
+        for (int i = 0; i < count; i++) {
+            Component component = new Component();
+            component.id = data[offset + 6 + 3 * i] & 0xFF;
+            component.h = (data[offset + 7 + 3 * i] & 0xFF) >> 4;
+            component.v = data[offset + 7 + 3 * i] & 0x0F;
+            if (component.h < 1 || component.h > 4 || component.v < 1 || component.v > 4) {
+                return false;
+            }
+            components[i] = component;
+        }
+        return true;
+    }
+
+    private void readHuffmanTables(int offset, int end) throws IOException {
+        while (offset < end) {
+            int tableClass = (data[offset] & 0xFF) >> 4;
+            int id = data[offset] & 0x0F;
+            if (tableClass > 1 || id > 3) {
+                throw new IOException("JPEG Huffman table is not valid: " + (data[offset] & 0xFF));
+            }
+
+            int[] lengths = new int[17];
+            int count = 0;
+            for (int i = 1; i <= 16; i++) {
+                lengths[i] = data[offset + i] & 0xFF;
+                count += lengths[i];
+            }
+            int[] values = new int[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = data[offset + 17 + i] & 0xFF;
+            }
+
+            HuffmanTable table = new HuffmanTable(lengths, values);
+            if (tableClass == 0) {
+                dcTables[id] = table;
+            } else {
+                acTables[id] = table;
+            }
+            offset += 17 + count;
+        }
+    }
+
+    private boolean readScanHeader(int offset) throws IOException {
+        int count = data[offset] & 0xFF;
+        if (components == null || count != components.length) {
+            return false;
+        }
+
+        scanComponents = new Component[count];
+        for (int i = 0; i < count; i++) {
+            int id = data[offset + 1 + 2 * i] & 0xFF;
+            int tables = data[offset + 2 + 2 * i] & 0xFF;
+            for (Component component : components) {
+                if (component.id == id) {
+                    scanComponents[i] = component;
+                }
+            }
+            if (scanComponents[i] == null) {
+                throw new IOException("JPEG scan component is not in the frame: " + id);
+            }
+            scanComponents[i].dcTable = tables >> 4;
+            scanComponents[i].acTable = tables & 0x0F;
+            if (scanComponents[i].dcTable > 3 || scanComponents[i].acTable > 3
+                    || dcTables[scanComponents[i].dcTable] == null || acTables[scanComponents[i].acTable] == null) {
+                throw new IOException("JPEG Huffman table is not defined for the component: " + id);
+            }
+        }
+
+        int spectralStart = data[offset + 1 + 2 * count] & 0xFF;
+        int spectralEnd = data[offset + 2 + 2 * count] & 0xFF;
+        int approximation = data[offset + 3 + 2 * count] & 0xFF;
+        if (spectralStart != 0 || spectralEnd != 63 || approximation != 0) {
+            return false;
+        }
+
+        if (count == 1) {
+            // Blocks of the only component are not grouped into MCUs, whatever the sampling factors are
+            components[0].h = 1;
+            components[0].v = 1;
+            mcuWidth = 8;
+            mcuHeight = 8;
+        } else {
+            int maxH = Arrays.stream(components).mapToInt(component -> component.h).max().getAsInt();
+            int maxV = Arrays.stream(components).mapToInt(component -> component.v).max().getAsInt();
+            mcuWidth = 8 * maxH;
+            mcuHeight = 8 * maxV;
+        }
+        mcusX = (width + mcuWidth - 1) / mcuWidth;
+        mcusY = (height + mcuHeight - 1) / mcuHeight;
+
+        // Image smaller than one MCU has nothing left after the trim, the scan is not decoded in both cases
+        boolean aligned = width % mcuWidth == 0 && height % mcuHeight == 0;
+        if (!aligned && !trim || width < mcuWidth || height < mcuHeight) {
+            return false;
+        }
+
+        for (Component component : components) {
+            component.blocksX = mcusX * component.h;
+            component.blocksY = mcusY * component.v;
+            component.coefficients = new short[component.blocksX * component.blocksY * 64];
+        }
+        return true;
+    }
+
+    private void decodeScan() throws IOException {
+        bits = 0;
+        bitCount = 0;
+        int[] predictions = new int[scanComponents.length];
+        int restarts = 0;
+
+        for (int mcu = 0; mcu < mcusX * mcusY; mcu++) {
+            if (restartInterval > 0 && mcu > 0 && mcu % restartInterval == 0) {
+                readRestart(restarts++);
+                Arrays.fill(predictions, 0);
+            }
+
+            int mcuX = mcu % mcusX;
+            int mcuY = mcu / mcusX;
+            for (int i = 0; i < scanComponents.length; i++) {
+                Component component = scanComponents[i];
+                for (int v = 0; v < component.v; v++) {
+                    for (int h = 0; h < component.h; h++) {
+                        int block = (mcuY * component.v + v) * component.blocksX + mcuX * component.h + h;
+                        predictions[i] = decodeBlock(component, block * 64, predictions[i]);
+                    }
+                }
+            }
+        }
+
+        // Position is after the entropy coded data, the bytes, which have been read ahead, are not used
+        while (position < data.length && !isMarker(position)) {
+            position++;
+        }
+    }
+
+    private void readRestart(int restarts) throws IOException {
+        while (position < data.length && !isMarker(position)) {
+            position++;
+        }
+        int marker = position + 1 < data.length ? data[position + 1] & 0xFF : -1;
+        if (marker != RST0 + restarts % 8) {
+            throw new IOException("JPEG restart marker is missing: " + restarts);
+        }
+        position += 2;
+        bits = 0;
+        bitCount = 0;
+    }
+
+    private boolean isMarker(int offset) {
+        boolean result = (data[offset] & 0xFF) == 0xFF && offset + 1 < data.length
+                && (data[offset + 1] & 0xFF) != 0;
+        return result;
+    }
+
+    private int decodeBlock(Component component, int offset, int prediction) throws IOException {
+        short[] coefficients = component.coefficients;
+        int size = decodeSymbol(dcTables[component.dcTable]);
+        int dc = prediction + receive(size);
+        coefficients[offset] = (short) dc;
+
+        HuffmanTable acTable = acTables[component.acTable];
+        for (int k = 1; k < 64;) {
+            int symbol = decodeSymbol(acTable);
+            int run = symbol >> 4;
+            size = symbol & 0x0F;
+            if (size == 0) {
+                if (run != 15) {
+                    break;
+                }
+                k += 16;
+                continue;
+            }
+            k += run;
+            if (k > 63) {
+                throw new IOException("JPEG block has more than 64 coefficients");
+            }
+            coefficients[offset + k] = (short) receive(size);
+            k++;
+        }
+        return dc;
+    }
+
+    // Entropy coded bytes with the stuffed zeros removed, the bits after a marker are zeros
+    private void fillBits() {
+        while (bitCount <= 56) {
+            int value = 0;
+            if (position < data.length && !isMarker(position)) {
+                value = data[position] & 0xFF;
+                position += value == 0xFF ? 2 : 1;
+            }
+            bits |= (long) value << (56 - bitCount);
+            bitCount += 8;
+        }
+    }
+
+    private int decodeSymbol(HuffmanTable table) throws IOException {
+        if (bitCount < 16) {
+            fillBits();
+        }
+
+        int entry = table.lookup[(int) (bits >>> 56)];
+        if (entry != 0) {
+            skipBits(entry >> 8);
+            return entry & 0xFF;
+        }
+
+        for (int length = 9; length <= 16; length++) {
+            int code = (int) (bits >>> (64 - length));
+            if (code <= table.maxCodes[length]) {
+                skipBits(length);
+                return table.values[table.valueOffsets[length] + code - table.minCodes[length]];
+            }
+        }
+        throw new IOException("JPEG Huffman code is not valid");
+    }
+
+    // Value of the coefficient, which is coded by the given amount of bits
+    private int receive(int size) {
+        if (size == 0) {
+            return 0;
+        }
+        if (bitCount < size) {
+            fillBits();
+        }
+        int value = (int) (bits >>> (64 - size));
+        skipBits(size);
+        int result = value < 1 << (size - 1) ? value - (1 << size) + 1 : value;
+        return result;
+    }
+
+    private void skipBits(int count) {
+        bits <<= count;
+        bitCount -= count;
+    }
+
+    private void writeRotated180(OutputStream output) throws IOException {
+        int newWidth = width / mcuWidth * mcuWidth;
+        int newHeight = height / mcuHeight * mcuHeight;
+        byte[] headerBytes = header.toByteArray();
+        headerBytes[frameOffset + 5] = (byte) (newHeight >> 8);
+        headerBytes[frameOffset + 6] = (byte) newHeight;
+        headerBytes[frameOffset + 7] = (byte) (newWidth >> 8);
+        headerBytes[frameOffset + 8] = (byte) newWidth;
+        output.write(headerBytes);
+
+        // The first pass counts the symbols for the optimal tables, the second one writes them
+        int newMcusX = newWidth / mcuWidth;
+        int newMcusY = newHeight / mcuHeight;
+        HuffmanEncoder encoder = new HuffmanEncoder(null);
+        encodeRotated180(encoder, newMcusX, newMcusY);
+        HuffmanTable[] newDcTables = new HuffmanTable[4];
+        HuffmanTable[] newAcTables = new HuffmanTable[4];
+        ByteArrayOutputStream tables = new ByteArrayOutputStream();
+        for (int id = 0; id < 4; id++) {
+            newDcTables[id] = writeOptimalTable(tables, 0, id, encoder.dcFrequencies[id]);
+            newAcTables[id] = writeOptimalTable(tables, 1, id, encoder.acFrequencies[id]);
+        }
+        output.write(0xFF);
+        output.write(DHT);
+        output.write((tables.size() + 2) >> 8);
+        output.write(tables.size() + 2);
+        output.write(tables.toByteArray());
+        output.write(scanHeader);
+
+        encoder = new HuffmanEncoder(output);
+        encoder.dcTables = newDcTables;
+        encoder.acTables = newAcTables;
+        encodeRotated180(encoder, newMcusX, newMcusY);
+        encoder.flush();
+
+        output.write(0xFF);
+        output.write(EOI);
+    }
+
+    // New block (x, y) is the old block (blocksX - 1 - x, blocksY - 1 - y) of the trimmed grid
+    private void encodeRotated180(HuffmanEncoder encoder, int newMcusX, int newMcusY) throws IOException {
+        int[] predictions = new int[scanComponents.length];
+        for (int mcuY = 0; mcuY < newMcusY; mcuY++) {
+            for (int mcuX = 0; mcuX < newMcusX; mcuX++) {
+                for (int i = 0; i < scanComponents.length; i++) {
+                    Component component = scanComponents[i];
+                    int blocksX = newMcusX * component.h;
+                    int blocksY = newMcusY * component.v;
+                    for (int v = 0; v < component.v; v++) {
+                        for (int h = 0; h < component.h; h++) {
+                            int sourceX = blocksX - 1 - (mcuX * component.h + h);
+                            int sourceY = blocksY - 1 - (mcuY * component.v + v);
+                            int offset = (sourceY * component.blocksX + sourceX) * 64;
+                            predictions[i] = encoder.encodeBlock(component, component.coefficients, offset,
+                                    ROTATION_180_SIGNS, predictions[i]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Writes the table of the class and id if any symbol of it has been counted
+    private HuffmanTable writeOptimalTable(ByteArrayOutputStream output, int tableClass, int id, long[] frequencies) {
+        if (Arrays.stream(frequencies).allMatch(frequency -> frequency == 0)) {
+            return null;
+        }
+
+        HuffmanTable result = HuffmanTable.createOptimal(frequencies);
+        output.write(tableClass << 4 | id);
+        for (int i = 1; i <= 16; i++) {
+            output.write(result.lengths[i]);
+        }
+        for (int value : result.values) {
+            output.write(value);
+        }
+        return result;
+    }
+
+    private static class Component {
+        private int id;
+        // Blocks of the component in one MCU
+        private int h;
+        private int v;
+        private int dcTable;
+        private int acTable;
+        private int blocksX;
+        private int blocksY;
+        // Quantized coefficients of every block in the zigzag order
+        private short[] coefficients;
+    }
+
+    private static class HuffmanTable {
+        // Amount of codes of every length from 1 to 16
+        private int[] lengths;
+        private int[] values;
+
+        // Decoding: the first value and the smallest and biggest codes of every length and the codes
+        // up to 8 bits by their first 8 bits as (length << 8 | value)
+        private int[] valueOffsets = new int[18];
+        private int[] minCodes = new int[18];
+        private int[] maxCodes = new int[18];
+        private int[] lookup = new int[256];
+
+        // Encoding: code and its length of every value
+        private int[] codes = new int[256];
+        private int[] codeLengths = new int[256];
+
+        private HuffmanTable(int[] lengths, int[] values) {
+            this.lengths = lengths;
+            this.values = values;
+
+            int code = 0;
+            int index = 0;
+            for (int length = 1; length <= 16; length++) {
+                valueOffsets[length] = index;
+                minCodes[length] = code;
+                for (int i = 0; i < lengths[length]; i++) {
+                    int value = values[index];
+                    codes[value] = code;
+                    codeLengths[value] = length;
+                    if (length <= 8) {
+                        int shift = 8 - length;
+                        for (int j = 0; j < 1 << shift; j++) {
+                            lookup[code << shift | j] = length << 8 | value;
+                        }
+                    }
+                    code++;
+                    index++;
+                }
+                maxCodes[length] = lengths[length] == 0 ? -1 : code - 1;
+                code <<= 1;
+            }
+        }
+
+        // Code lengths by the Huffman tree of the frequencies, limited to 16 bits, as in the annex K.2
+        // of the JPEG specification, the reserved symbol 256 keeps the codes of all ones out of the table
+        private static HuffmanTable createOptimal(long[] symbolFrequencies) {
+            long[] frequencies = Arrays.copyOf(symbolFrequencies, 257);
+            frequencies[256] = 1;
+            int[] codeSizes = new int[257];
+            int[] others = new int[257];
+            Arrays.fill(others, -1);
+
+            while (true) {
+                int first = findLeastFrequent(frequencies, -1);
+                int second = findLeastFrequent(frequencies, first);
+                if (second < 0) {
+                    break;
+                }
+
+                frequencies[first] += frequencies[second];
+                frequencies[second] = 0;
+                codeSizes[first]++;
+                while (others[first] >= 0) {
+                    first = others[first];
+                    codeSizes[first]++;
+                }
+                others[first] = second;
+                codeSizes[second]++;
+                while (others[second] >= 0) {
+                    second = others[second];
+                    codeSizes[second]++;
+                }
+            }
+
+            int[] counts = new int[33];
+            for (int codeSize : codeSizes) {
+                if (codeSize > 0) {
+                    counts[codeSize]++;
+                }
+            }
+            for (int i = 32; i > 16; i--) {
+                while (counts[i] > 0) {
+                    int j = i - 2;
+                    while (counts[j] == 0) {
+                        j--;
+                    }
+                    counts[i] -= 2;
+                    counts[i - 1]++;
+                    counts[j + 1] += 2;
+                    counts[j]--;
+                }
+            }
+            // Code of the reserved symbol is the longest one
+            int longest = 16;
+            while (counts[longest] == 0) {
+                longest--;
+            }
+            counts[longest]--;
+
+            int[] values = new int[(int) Arrays.stream(codeSizes).filter(codeSize -> codeSize > 0).count() - 1];
+            int index = 0;
+            for (int length = 1; length <= 32; length++) {
+                for (int value = 0; value < 256; value++) {
+                    if (codeSizes[value] == length) {
+                        values[index++] = value;
+                    }
+                }
+            }
+            return new HuffmanTable(Arrays.copyOf(counts, 17), values);
+        }
+
+        // Of the same frequencies the biggest symbol is taken
+        private static int findLeastFrequent(long[] frequencies, int excluded) {
+            int result = -1;
+            long frequency = Long.MAX_VALUE;
+            for (int i = 0; i < frequencies.length; i++) {
+                if (frequencies[i] > 0 && frequencies[i] <= frequency && i != excluded) {
+                    frequency = frequencies[i];
+                    result = i;
+                }
+            }
+            return result;
+        }
+    }
+
+    // Counts the symbols without the output, otherwise writes them with the stuffed zeros
+    private static class HuffmanEncoder {
+        private OutputStream output;
+        private long[][] dcFrequencies = new long[4][256];
+        private long[][] acFrequencies = new long[4][256];
+        private HuffmanTable[] dcTables;
+        private HuffmanTable[] acTables;
+
+        private long bits;
+        private int bitCount;
+
+        private HuffmanEncoder(OutputStream output) {
+            this.output = output;
+        }
+
+        private int encodeBlock(Component component, short[] coefficients, int offset, int[] signs,
+                int prediction) throws IOException {
+            int dc = coefficients[offset];
+            int diff = dc - prediction;
+            int size = getSize(diff);
+            writeSymbol(dcFrequencies[component.dcTable], output == null ? null : dcTables[component.dcTable],
+                    size);
+            writeValue(diff, size);
+
+            long[] frequencies = acFrequencies[component.acTable];
+            HuffmanTable table = output == null ? null : acTables[component.acTable];
+            int run = 0;
+            for (int k = 1; k < 64; k++) {
+                int value = coefficients[offset + k] * signs[k];
+                if (value == 0) {
+                    run++;
+                    continue;
+                }
+                while (run > 15) {
+                    writeSymbol(frequencies, table, 0xF0);
+                    run -= 16;
+                }
+                size = getSize(value);
+                writeSymbol(frequencies, table, run << 4 | size);
+                writeValue(value, size);
+                run = 0;
+            }
+            if (run > 0) {
+                writeSymbol(frequencies, table, 0);
+            }
+            return dc;
+        }
+
+        private static int getSize(int value) {
+            int result = 32 - Integer.numberOfLeadingZeros(Math.abs(value));
+            return result;
+        }
+
+        private void writeSymbol(long[] frequencies, HuffmanTable table, int symbol) throws IOException {
+            if (output == null) {
+                frequencies[symbol]++;
+            } else {
+                writeBits(table.codes[symbol], table.codeLengths[symbol]);
+            }
+        }
+
+        // Negative values are written as value - 1 in the given amount of bits
+        private void writeValue(int value, int size) throws IOException {
+            if (output != null && size > 0) {
+                writeBits(value < 0 ? value - 1 : value, size);
+            }
+        }
+
+        private void writeBits(int value, int size) throws IOException {
+            bits = bits << size | value & ((1L << size) - 1);
+            bitCount += size;
+            while (bitCount >= 8) {
+                int b = (int) (bits >> (bitCount - 8)) & 0xFF;
+                output.write(b);
+                if (b == 0xFF) {
+                    output.write(0);
+                }
+                bitCount -= 8;
+            }
+        }
+
+        // The last byte is padded by ones
+        private void flush() throws IOException {
+            if (bitCount > 0) {
+                writeBits(0x7F, 8 - bitCount);
+            }
+        }
+    }
+}
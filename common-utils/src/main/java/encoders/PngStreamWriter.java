@@ -0,0 +1,254 @@
+package encoders;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import utils.ColorUtils;
+
+// Writes 1-bit black and white, 8-bit gray or 8-bit RGB PNG, compressed data is flushed in IDAT chunks
+public class PngStreamWriter implements ImageStreamWriter {
+    private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int COLOR_TYPE_GRAY = 0;
+    private static final int COLOR_TYPE_RGB = 2;
+
+    private static final int FILTER_NONE = 0;
+    private static final int FILTER_SUB = 1;
+    private static final int FILTER_UP = 2;
+    private static final int FILTER_AVERAGE = 3;
+    private static final int FILTER_PAETH = 4;
+
+    private DataOutputStream output;
+    private int width;
+    private int height;
+    private int imageType;
+    // Distance in bytes to the same channel of the previous pixel, PNG filters use at least 1
+    private int bytesPerPixel;
+
+    private byte[] line;
+    private byte[] previousLine;
+    private byte[][] filteredLines;
+
+    private Deflater deflater;
+    private byte[] deflaterBuffer;
+    private ByteArrayOutputStream chunkData;
+    private int writtenRows;
+
+    public PngStreamWriter(File file, int width, int height, int imageType) throws IOException {
+        this.width = width;
+        this.height = height;
+        this.imageType = imageType;
+
+        int bitDepth;
+        int colorType;
+        int lineLength;
+        switch (imageType) {
+            case BufferedImage.TYPE_BYTE_BINARY:
+                bitDepth = 1;
+                colorType = COLOR_TYPE_GRAY;
+                bytesPerPixel = 1;
+                lineLength = (width + 7) / 8;
+                break;
+            case BufferedImage.TYPE_BYTE_GRAY:
+                bitDepth = 8;
+                colorType = COLOR_TYPE_GRAY;
+                bytesPerPixel = 1;
+                lineLength = width;
+                break;
+            case BufferedImage.TYPE_INT_RGB:
+                bitDepth = 8;
+                colorType = COLOR_TYPE_RGB;
+                bytesPerPixel = 3;
+                lineLength = width * 3;
+                break;
+            default:
+                throw new IllegalArgumentException("Image Type is not supported: " + imageType);
+        }
+
+        line = new byte[lineLength];
+        previousLine = new byte[lineLength];
+        // Filter type byte and the filtered line for every filter
+        filteredLines = new byte[FILTER_PAETH + 1][lineLength + 1];
+
+        deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        deflaterBuffer = new byte[CHUNK_SIZE];
+        chunkData = new ByteArrayOutputStream(CHUNK_SIZE * 2);
+
+        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        output.write(SIGNATURE);
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOutput = new DataOutputStream(header);
+        headerOutput.writeInt(width);
+        headerOutput.writeInt(height);
+        headerOutput.writeByte(bitDepth);
+        headerOutput.writeByte(colorType);
+        // Compression, filter and interlace methods
+        headerOutput.writeByte(0);
+        headerOutput.writeByte(0);
+        headerOutput.writeByte(0);
+        writeChunk("IHDR", header.toByteArray(), header.size());
+    }
+
+    @Override
+    public void writeRow(int[] row) throws IOException {
+        if (writtenRows == height) {
+            throw new IOException("All " + height + " rows have already been written");
+        }
+
+        fillLine(row);
+        byte[] filteredLine = filterLine();
+        deflater.setInput(filteredLine);
+        while (!deflater.needsInput()) {
+            deflate();
+        }
+
+        byte[] temp = previousLine;
+        previousLine = line;
+        line = temp;
+        writtenRows++;
+    }
+
+    private void fillLine(int[] row) {
+        switch (imageType) {
+            case BufferedImage.TYPE_BYTE_BINARY:
+                // White is 1, the last byte is padded with zeros
+                for (int i = 0; i < line.length; i++) {
+                    int bits = 0;
+                    for (int x = i * 8; x < i * 8 + 8; x++) {
+                        bits = bits << 1 | (x < width && ColorUtils.getGray(row[x]) >= 128 ? 1 : 0);
+                    }
+                    line[i] = (byte) bits;
+                }
+                break;
+            case BufferedImage.TYPE_BYTE_GRAY:
+                for (int x = 0; x < width; x++) {
+                    line[x] = (byte) ColorUtils.getGray(row[x]);
+                }
+                break;
+            default:
+                for (int x = 0; x < width; x++) {
+                    line[x * 3] = (byte) (row[x] >> 16);
+                    line[x * 3 + 1] = (byte) (row[x] >> 8);
+                    line[x * 3 + 2] = (byte) row[x];
+                }
+                break;
+        }
+    }
+
+    // Filter with the minimal sum of absolute values of the filtered bytes is chosen for every line,
+    // black and white lines are not filtered
+    private byte[] filterLine() {
+        if (imageType == BufferedImage.TYPE_BYTE_BINARY) {
+            byte[] result = filteredLines[FILTER_NONE];
+            System.arraycopy(line, 0, result, 1, line.length);
+            return result;
+        }
+
+        byte[] result = null;
+        long minSum = Long.MAX_VALUE;
+        for (int filter = FILTER_NONE; filter <= FILTER_PAETH; filter++) {
+            byte[] filteredLine = filteredLines[filter];
+            filteredLine[0] = (byte) filter;
+            long sum = 0;
+            for (int i = 0; i < line.length; i++) {
+                int left = i >= bytesPerPixel ? line[i - bytesPerPixel] & 0xFF : 0;
+                int up = previousLine[i] & 0xFF;
+                int upLeft = i >= bytesPerPixel ? previousLine[i - bytesPerPixel] & 0xFF : 0;
+                int value = line[i] & 0xFF;
+
+                int predictor;
+                switch (filter) {
+                    case FILTER_NONE:
+                        predictor = 0;
+                        break;
+                    case FILTER_SUB:
+                        predictor = left;
+                        break;
+                    case FILTER_UP:
+                        predictor = up;
+                        break;
+                    case FILTER_AVERAGE:
+                        predictor = (left + up) >> 1;
+                        break;
+                    default:
+                        predictor = paethPredictor(left, up, upLeft);
+                        break;
+                }
+
+                byte filtered = (byte) (value - predictor);
+                filteredLine[i + 1] = filtered;
+                sum += Math.abs(filtered);
+            }
+
+            if (sum < minSum) {
+                minSum = sum;
+                result = filteredLine;
+            }
+        }
+
+        return result;
+    }
+
+    private static int paethPredictor(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int distanceLeft = Math.abs(estimate - left);
+        int distanceUp = Math.abs(estimate - up);
+        int distanceUpLeft = Math.abs(estimate - upLeft);
+        if (distanceLeft <= distanceUp && distanceLeft <= distanceUpLeft) {
+            return left;
+        }
+        return distanceUp <= distanceUpLeft ? up : upLeft;
+    }
+
+    private void deflate() throws IOException {
+        int length = deflater.deflate(deflaterBuffer);
+        chunkData.write(deflaterBuffer, 0, length);
+        if (chunkData.size() >= CHUNK_SIZE) {
+            writeChunk("IDAT", chunkData.toByteArray(), chunkData.size());
+            chunkData.reset();
+        }
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+
+        output.writeInt(length);
+        output.write(typeBytes);
+        output.write(data, 0, length);
+        output.writeInt((int) crc.getValue());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (writtenRows < height) {
+                throw new IOException("Only " + writtenRows + " of " + height + " rows have been written");
+            }
+
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate();
+            }
+            if (chunkData.size() > 0) {
+                writeChunk("IDAT", chunkData.toByteArray(), chunkData.size());
+            }
+            writeChunk("IEND", new byte[0], 0);
+        } finally {
+            deflater.end();
+            output.close();
+        }
+    }
+}
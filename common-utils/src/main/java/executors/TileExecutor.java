@@ -0,0 +1,162 @@
+package executors;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BinaryOperator;
+
+public class TileExecutor {
+    public static final int DEFAULT_BAND_HEIGHT = 64;
+    public static final int DEFAULT_TILE_WIDTH = 256;
+
+    private static TileExecutor defaultExecutor = new TileExecutor(Runtime.getRuntime().availableProcessors());
+
+    private ForkJoinPool pool;
+    private int parallelism;
+    private int bandHeight = DEFAULT_BAND_HEIGHT;
+    private int tileWidth = DEFAULT_TILE_WIDTH;
+
+    public TileExecutor(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be positive: " + parallelism);
+        }
+
+        this.parallelism = parallelism;
+        // Single thread executor works in the caller thread
+        if (parallelism > 1) {
+            pool = new ForkJoinPool(parallelism);
+        }
+    }
+
+    public static TileExecutor getDefault() {
+        return defaultExecutor;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getBandHeight() {
+        return bandHeight;
+    }
+
+    public void setBandHeight(int bandHeight) {
+        this.bandHeight = bandHeight;
+    }
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    public void setTileWidth(int tileWidth) {
+        this.tileWidth = tileWidth;
+    }
+
+    // Splits rows [0, height) into bands of bandHeight rows, every band is processed by one thread
+    public void forEachBand(int height, RangeTask task) {
+        forEachRange(height, bandHeight, task);
+    }
+
+    // Splits columns [0, width) into strips of tileWidth columns
+    public void forEachStrip(int width, RangeTask task) {
+        forEachRange(width, tileWidth, task);
+    }
+
+    public void forEachTile(int width, int height, TileTask task) {
+        int stripCount = getChunkCount(width, tileWidth);
+        int bandCount = getChunkCount(height, bandHeight);
+        run(stripCount * bandCount, tile -> {
+            int startX = tile % stripCount * tileWidth;
+            int startY = tile / stripCount * bandHeight;
+            task.process(startX, startY, Math.min(startX + tileWidth, width), Math.min(startY + bandHeight, height));
+        });
+    }
+
+    // Every band produces its own result, results are combined in the order of the bands,
+    // so the outcome does not depend on the thread scheduling
+    @SuppressWarnings("unchecked")
+    public <T> T reduceBands(int height, BandFunction<T> function, BinaryOperator<T> combiner) {
+        int bandCount = getChunkCount(height, bandHeight);
+        Object[] results = new Object[bandCount];
+        run(bandCount, band -> {
+            int startY = band * bandHeight;
+            results[band] = function.process(startY, Math.min(startY + bandHeight, height));
+        });
+
+        T result = null;
+        for (int i = 0; i < bandCount; i++) {
+            result = i == 0 ? (T) results[i] : combiner.apply(result, (T) results[i]);
+        }
+        return result;
+    }
+
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private void forEachRange(int size, int chunkSize, RangeTask task) {
+        int chunkCount = getChunkCount(size, chunkSize);
+        run(chunkCount, chunk -> {
+            int start = chunk * chunkSize;
+            task.process(start, Math.min(start + chunkSize, size));
+        });
+    }
+
+    private void run(int count, ChunkTask task) {
+        if (pool == null || count < 2) {
+            for (int i = 0; i < count; i++) {
+                task.process(i);
+            }
+        } else {
+            pool.invoke(new ChunkAction(task, 0, count));
+        }
+    }
+
+    private int getChunkCount(int size, int chunkSize) {
+        int count = (size + chunkSize - 1) / chunkSize;
+        return count;
+    }
+
+    public interface RangeTask {
+        void process(int start, int end);
+    }
+
+    public interface TileTask {
+        void process(int startX, int startY, int endX, int endY);
+    }
+
+    public interface BandFunction<T> {
+        T process(int startY, int endY);
+    }
+
+    private interface ChunkTask {
+        void process(int chunk);
+    }
+
+    // Halves the range of chunks until a single chunk is left
+    private static class ChunkAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private ChunkTask task;
+        private int start;
+        private int end;
+
+        private ChunkAction(ChunkTask task, int start, int end) {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                task.process(start);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new ChunkAction(task, start, middle), new ChunkAction(task, middle, end));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package kernels;
+
+// Per-pixel loops over the rows of packed RGB pixels. These are the scalar versions, on JDK 17 and newer
+// the versions by the Vector API are picked at startup if the module jdk.incubator.vector is added,
+// unless the system property "kernels.vector" is false. Both versions give exactly the same results.
+public class PixelKernels {
+    private static final String VECTOR_KERNELS = "kernels.VectorPixelKernels";
+
+    private static PixelKernels defaultKernels = createDefault();
+
+    public static PixelKernels getDefault() {
+        return defaultKernels;
+    }
+
+    // Vector classes are in the Java 17 part of the multi-release jar, they fail to load without the module
+    private static PixelKernels createDefault() {
+        PixelKernels result = new PixelKernels();
+        if (!Boolean.parseBoolean(System.getProperty("kernels.vector", "true"))) {
+            return result;
+        }
+
+        try {
+            result = (PixelKernels) Class.forName(VECTOR_KERNELS).newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Scalar kernels are used on Java 8 or without the module
+        }
+        return result;
+    }
+
+    public boolean isVectorized() {
+        return false;
+    }
+
+    // Luminance with 8-bit weights, the same as ColorUtils.getGray
+    public void toGray(int[] row, int length, byte[] gray, int grayOffset) {
+        scalarToGray(row, 0, length, gray, grayOffset);
+    }
+
+    // Scalar loops go over the pixels from start to end, the vector kernels leave them the rest of the row,
+    // which is shorter than the vector
+    protected void scalarToGray(int[] row, int start, int end, byte[] gray, int grayOffset) {
+        for (int i = start; i < end; i++) {
+            int color = row[i];
+            gray[grayOffset + i] = (byte) ((77 * (color >> 16 & 0xFF) + 150 * (color >> 8 & 0xFF)
+                    + 29 * (color & 0xFF) + 128) >> 8);
+        }
+    }
+
+    // Pixels are replaced by white if the sum of the squared weighted channels is greater or equal
+    // to the threshold and by black otherwise, the weights are small enough for the sum to fit into int
+    public void binarize(int[] row, int offset, int length, int weightRed, int weightGreen, int weightBlue,
+            int threshold, int white, int black) {
+        scalarBinarize(row, offset, offset + length, weightRed, weightGreen, weightBlue, threshold, white, black);
+    }
+
+    protected void scalarBinarize(int[] row, int start, int end, int weightRed, int weightGreen, int weightBlue,
+            int threshold, int white, int black) {
+        int squareRed = weightRed * weightRed;
+        int squareGreen = weightGreen * weightGreen;
+        int squareBlue = weightBlue * weightBlue;
+        for (int i = start; i < end; i++) {
+            int value = getSquaredValue(row[i], squareRed, squareGreen, squareBlue);
+            row[i] = value >= threshold ? white : black;
+        }
+    }
+
+    // Sum of the squared weighted channels compared by binarize, the weights are squared by the caller
+    public static int getSquaredValue(int color, int squareRed, int squareGreen, int squareBlue) {
+        int r = color >> 16 & 0xFF;
+        int g = color >> 8 & 0xFF;
+        int b = color & 0xFF;
+        int result = r * r * squareRed + g * g * squareGreen + b * b * squareBlue;
+        return result;
+    }
+
+    // Sets the value for every pixel, which channels are in the ranges, the other values are not changed,
+    // so the ranges checked one after another leave the value of the last matched range
+    public void matchRange(int[] row, int length, int minRed, int maxRed, int minGreen, int maxGreen,
+            int minBlue, int maxBlue, int[] matches, int value) {
+        scalarMatchRange(row, 0, length, minRed, maxRed, minGreen, maxGreen, minBlue, maxBlue, matches, value);
+    }
+
+    protected void scalarMatchRange(int[] row, int start, int end, int minRed, int maxRed, int minGreen,
+            int maxGreen, int minBlue, int maxBlue, int[] matches, int value) {
+        for (int i = start; i < end; i++) {
+            int color = row[i];
+            int r = color >> 16 & 0xFF;
+            int g = color >> 8 & 0xFF;
+            int b = color & 0xFF;
+            if (r >= minRed && r <= maxRed && g >= minGreen && g <= maxGreen && b >= minBlue && b <= maxBlue) {
+                matches[i] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package structures;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+public class ImageRaster {
+    private enum Layout {
+        IntRGB, IntARGB, ByteBGR, ByteGray, Binary, Generic
+    }
+
+    private BufferedImage image;
+    private Layout layout;
+
+    private int[] intData;
+    private byte[] byteData;
+    private int dataOffset;
+    private int scanlineStride;
+    private int pixelStride;
+    private int redOffset;
+    private int greenOffset;
+    private int blueOffset;
+    private int[] grayColors;
+    private int bitOffset;
+    private int[] binaryColors;
+
+    public ImageRaster(BufferedImage image) {
+        this(image, false);
+    }
+
+    // Gray images of the processing store the display gray levels, the samples of the decoded gray images
+    // are in the linear gray ColorSpace, so they are read through the color model as by getRGB
+    public ImageRaster(BufferedImage image, boolean decoded) {
+        this.image = image;
+        layout = Layout.Generic;
+
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB:
+                initIntData(Layout.IntRGB);
+                break;
+            case BufferedImage.TYPE_INT_ARGB:
+                initIntData(Layout.IntARGB);
+                break;
+            case BufferedImage.TYPE_3BYTE_BGR:
+                initByteData(Layout.ByteBGR);
+                break;
+            case BufferedImage.TYPE_BYTE_GRAY:
+                initByteData(Layout.ByteGray);
+                initGrayColors(decoded);
+                break;
+            case BufferedImage.TYPE_BYTE_BINARY:
+                initBinaryData();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void initIntData(Layout intLayout) {
+        Raster raster = image.getRaster();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        if (!(raster.getSampleModel() instanceof SinglePixelPackedSampleModel) || dataBuffer.getNumBanks() != 1) {
+            return;
+        }
+
+        SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+        intData = ((DataBufferInt) dataBuffer).getData();
+        scanlineStride = sampleModel.getScanlineStride();
+        pixelStride = 1;
+        // Sub-images share the parent buffer, the translation points to their origin in it
+        dataOffset = dataBuffer.getOffset() - raster.getSampleModelTranslateX()
+                - raster.getSampleModelTranslateY() * scanlineStride;
+        layout = intLayout;
+    }
+
+    private void initByteData(Layout byteLayout) {
+        Raster raster = image.getRaster();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        if (!(raster.getSampleModel() instanceof ComponentSampleModel) || dataBuffer.getNumBanks() != 1) {
+            return;
+        }
+
+        ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+        byteData = ((DataBufferByte) dataBuffer).getData();
+        scanlineStride = sampleModel.getScanlineStride();
+        pixelStride = sampleModel.getPixelStride();
+        dataOffset = dataBuffer.getOffset() - raster.getSampleModelTranslateX() * pixelStride
+                - raster.getSampleModelTranslateY() * scanlineStride;
+
+        int[] bandOffsets = sampleModel.getBandOffsets();
+        redOffset = bandOffsets[0];
+        greenOffset = bandOffsets.length > 1 ? bandOffsets[1] : bandOffsets[0];
+        blueOffset = bandOffsets.length > 2 ? bandOffsets[2] : bandOffsets[0];
+        layout = byteLayout;
+    }
+
+    // Pixels of 1 bit are packed from the most significant bit, the colors of 0 and 1 are taken from the palette
+    private void initBinaryData() {
+        Raster raster = image.getRaster();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        if (!(raster.getSampleModel() instanceof MultiPixelPackedSampleModel) || dataBuffer.getNumBanks() != 1) {
+            return;
+        }
+
+        MultiPixelPackedSampleModel sampleModel = (MultiPixelPackedSampleModel) raster.getSampleModel();
+        if (sampleModel.getPixelBitStride() != 1) {
+            return;
+        }
+        byteData = ((DataBufferByte) dataBuffer).getData();
+        scanlineStride = sampleModel.getScanlineStride();
+        bitOffset = dataBuffer.getOffset() * 8 + sampleModel.getDataBitOffset() - raster.getSampleModelTranslateX()
+                - raster.getSampleModelTranslateY() * scanlineStride * 8;
+        binaryColors = new int[] { image.getColorModel().getRGB(0), image.getColorModel().getRGB(1) };
+        layout = Layout.Binary;
+    }
+
+    private void initGrayColors(boolean decoded) {
+        grayColors = new int[256];
+        for (int sample = 0; sample < grayColors.length; sample++) {
+            // Pixel of the data elements is converted exactly as by getRGB, the int pixel may be rounded differently
+            grayColors[sample] = decoded ? image.getColorModel().getRGB(new byte[] { (byte) sample })
+                    : 0xFF000000 | sample * 0x010101;
+        }
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    public boolean isDirect() {
+        return layout != Layout.Generic;
+    }
+
+    public void getRGBRow(int x, int y, int length, int[] row) {
+        for (int i = 0; i < length; i++) {
+            row[i] = getRGB(x + i, y);
+        }
+    }
+
+    // Coordinates are not checked, the caller is responsible to stay inside of the image
+    public int getRGB(int x, int y) {
+        int index;
+        int result;
+        switch (layout) {
+            case IntRGB:
+                result = 0xFF000000 | intData[dataOffset + y * scanlineStride + x];
+                break;
+            case IntARGB:
+                result = intData[dataOffset + y * scanlineStride + x];
+                break;
+            case ByteBGR:
+                index = dataOffset + y * scanlineStride + x * pixelStride;
+                result = 0xFF000000 | (byteData[index + redOffset] & 0xFF) << 16
+                        | (byteData[index + greenOffset] & 0xFF) << 8 | (byteData[index + blueOffset] & 0xFF);
+                break;
+            case ByteGray:
+                result = grayColors[byteData[dataOffset + y * scanlineStride + x * pixelStride] & 0xFF];
+                break;
+            case Binary:
+                index = bitOffset + y * scanlineStride * 8 + x;
+                result = binaryColors[byteData[index >> 3] >> (7 - (index & 7)) & 1];
+                break;
+            default:
+                result = image.getRGB(x, y);
+                break;
+        }
+        return result;
+    }
+}
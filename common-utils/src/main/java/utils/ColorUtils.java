@@ -3,7 +3,6 @@ package utils;
 import structures.RGB;
 
 public class ColorUtils {
-
     public static int getRGB(int r, int g, int b) {
         int a = 255;
         int rgb = ((a & 0xFF) << 24) | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | ((b & 0xFF) << 0);
@@ -11,11 +10,16 @@ public class ColorUtils {
     }
 
     public static int getRGB(RGB rgb) {
-        int r = Math.min((int) Math.round(rgb.r), 255);
-        int g = Math.min((int) Math.round(rgb.g), 255);
-        int b = Math.min((int) Math.round(rgb.b), 255);
+        int result = getRGB(rgb.r, rgb.g, rgb.b);
+        return result;
+    }
 
-        int result = getRGB(r, g, b);
+    public static int getRGB(double r, double g, double b) {
+        int intR = Math.min((int) Math.round(r), 255);
+        int intG = Math.min((int) Math.round(g), 255);
+        int intB = Math.min((int) Math.round(b), 255);
+
+        int result = getRGB(intR, intG, intB);
 
         return result;
     }
@@ -30,6 +34,12 @@ public class ColorUtils {
         return resultRGB;
     }
 
+    // Luminance with 8-bit weights (0.299, 0.587, 0.114), exact for gray colors
+    public static int getGray(int color) {
+        int gray = (77 * (color >> 16 & 0xFF) + 150 * (color >> 8 & 0xFF) + 29 * (color & 0xFF) + 128) >> 8;
+        return gray;
+    }
+
     public static int getRed(int color) {
         int red = color >> 16 & 0xFF;
         return red;
@@ -45,4 +45,15 @@ public class FileUtils {
     public static void copyFiles(File sourceFile, File destinationFile) throws IOException {
         Files.copy(sourceFile.toPath(), destinationFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
     }
+
+    // Hard link shares the bytes with the source, so the destination must be replaced and never written in place,
+    // the file is copied if the file system does not support links or the files are on different file systems
+    public static void linkOrCopyFiles(File sourceFile, File destinationFile) throws IOException {
+        Files.deleteIfExists(destinationFile.toPath());
+        try {
+            Files.createLink(destinationFile.toPath(), sourceFile.toPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            copyFiles(sourceFile, destinationFile);
+        }
+    }
 }
@@ -1,16 +1,367 @@
 package utils;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import kernels.PixelKernels;
+import structures.ImageRaster;
 
 public class ImageUtils {
 
     public static BufferedImage createFilledBufferedImage(int width, int height, Color color) {
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics = image.createGraphics();
-        graphics.setPaint(color);
-        graphics.fillRect(0, 0, width, height);
+        BufferedImage image = createFilledBufferedImage(width, height, BufferedImage.TYPE_INT_RGB, color);
+        return image;
+    }
+
+    public static BufferedImage createFilledBufferedImage(int width, int height, int imageType, Color color) {
+        BufferedImage image = new BufferedImage(width, height, imageType);
+        fillRect(image, 0, 0, width, height, color);
+        return image;
+    }
+
+    // Fills the rectangle with the color converted the same way as by setRGBRow,
+    // the rows of the plain images are filled in their buffers directly
+    public static void fillRect(BufferedImage image, int x, int y, int width, int height, Color color) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        int rgb = color.getRGB();
+        if (isPlainIntRGB(image)) {
+            int[] data = getIntData(image);
+            for (int row = y; row < y + height; row++) {
+                Arrays.fill(data, row * image.getWidth() + x, row * image.getWidth() + x + width, rgb);
+            }
+        } else if (isPlainGray(image)) {
+            byte[] data = getByteData(image);
+            byte gray = (byte) ColorUtils.getGray(rgb);
+            for (int row = y; row < y + height; row++) {
+                Arrays.fill(data, row * image.getWidth() + x, row * image.getWidth() + x + width, gray);
+            }
+        } else if (isPackedBinary(image)) {
+            byte[] data = getByteData(image);
+            int stride = getBinaryScanlineStride(image);
+            boolean white = ColorUtils.getGray(rgb) >= 128;
+            for (int row = y; row < y + height; row++) {
+                fillBits(data, row * stride * 8 + x, width, white);
+            }
+        } else if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            int[] samples = new int[width * height];
+            Arrays.fill(samples, ColorUtils.getGray(rgb));
+            image.getRaster().setSamples(x, y, width, height, 0, samples);
+        } else {
+            Graphics2D graphics = image.createGraphics();
+            graphics.setPaint(color);
+            graphics.fillRect(x, y, width, height);
+            graphics.dispose();
+        }
+    }
+
+    // Reads only the header of the file, the pixels are not decoded
+    public static Dimension readImageSize(File file) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = getImageReader(file, stream);
+            try {
+                reader.setInput(stream, true, true);
+                Dimension result = new Dimension(reader.getWidth(0), reader.getHeight(0));
+                return result;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Decodes only the region of the image, the region must be inside of the image
+    public static BufferedImage readImage(File file, Rectangle region) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = getImageReader(file, stream);
+            try {
+                reader.setInput(stream, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(region);
+                BufferedImage result = reader.read(0, param);
+                return result;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public static ImageReader getImageReader(File file, ImageInputStream stream) throws IOException {
+        Iterator<ImageReader> readers = stream == null ? null : ImageIO.getImageReaders(stream);
+        if (readers == null || !readers.hasNext()) {
+            throw new IOException("Image format is not supported: " + file);
+        }
+        return readers.next();
+    }
+
+    // Type of the image to store results of processing of the given image: 8-bit gray stays gray, other are RGB
+    public static int getCompatibleImageType(BufferedImage image) {
+        int imageType = image.getType() == BufferedImage.TYPE_BYTE_GRAY ? BufferedImage.TYPE_BYTE_GRAY
+                : BufferedImage.TYPE_INT_RGB;
+        return imageType;
+    }
+
+    // Samples of the decoded gray image are replaced in place by the gray levels of their colors by getRGB,
+    // which the gray images of the processing store, other images are returned as they are
+    public static BufferedImage convertDecodedGray(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_BYTE_GRAY) {
+            return image;
+        }
+
+        int width = image.getWidth();
+        ImageRaster raster = new ImageRaster(image, true);
+        int[] row = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            raster.getRGBRow(0, y, width, row);
+            setRGBRow(image, y, row);
+        }
         return image;
     }
+
+    public static BufferedImage convertToGray(BufferedImage image) {
+        if (isPlainGray(image)) {
+            return image;
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage grayImage = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+
+        ImageRaster raster = new ImageRaster(image);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            raster.getRGBRow(0, y, width, row);
+            setRGBRow(grayImage, y, row);
+        }
+
+        return grayImage;
+    }
+
+    public static void setRGBRow(BufferedImage image, int y, int[] row) {
+        setRGBRow(image, 0, y, row, image.getWidth());
+    }
+
+    public static void setRGBRow(BufferedImage image, int x, int y, int[] row, int length) {
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB) {
+            // Packed int rasters store the ARGB value as is, so the whole row goes without ColorModel conversion
+            image.getRaster().setDataElements(x, y, length, 1, row);
+        } else if (isPlainGray(image)) {
+            setGrayRow(image, x, y, row, length);
+        } else if (isPackedBinary(image)) {
+            setBinaryRow(image, x, y, row, length);
+        } else if (type == BufferedImage.TYPE_BYTE_GRAY) {
+            // Gray levels are stored as they are, setRGB would convert them to the linear gray ColorSpace
+            byte[] grayRow = new byte[length];
+            PixelKernels.getDefault().toGray(row, length, grayRow, 0);
+            image.getRaster().setDataElements(x, y, length, 1, grayRow);
+        } else {
+            image.setRGB(x, y, length, 1, row, 0, length);
+        }
+    }
+
+    // Copies the whole source image into the destination with the top left corner at (x, y)
+    public static void copyImage(BufferedImage source, BufferedImage destination, int x, int y) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        if (isPackedBinary(source) && isPackedBinary(destination)) {
+            byte[] sourceData = getByteData(source);
+            byte[] destinationData = getByteData(destination);
+            int sourceStride = getBinaryScanlineStride(source);
+            int destinationStride = getBinaryScanlineStride(destination);
+            for (int row = 0; row < height; row++) {
+                copyBits(sourceData, row * sourceStride * 8, destinationData,
+                        (y + row) * destinationStride * 8 + x, width);
+            }
+            return;
+        }
+
+        if (isPlainIntRGB(source) && isPlainIntRGB(destination)) {
+            int[] sourceData = getIntData(source);
+            int[] destinationData = getIntData(destination);
+            int destinationWidth = destination.getWidth();
+            for (int row = 0; row < height; row++) {
+                System.arraycopy(sourceData, row * width, destinationData, (y + row) * destinationWidth + x, width);
+            }
+            return;
+        }
+
+        if (isPlainGray(source) && isPlainGray(destination)) {
+            byte[] sourceData = getByteData(source);
+            byte[] destinationData = getByteData(destination);
+            int destinationWidth = destination.getWidth();
+            for (int row = 0; row < height; row++) {
+                System.arraycopy(sourceData, row * width, destinationData, (y + row) * destinationWidth + x, width);
+            }
+            return;
+        }
+
+        ImageRaster raster = new ImageRaster(source);
+        int[] rowData = new int[width];
+        for (int row = 0; row < height; row++) {
+            raster.getRGBRow(0, row, width, rowData);
+            setRGBRow(destination, x, y + row, rowData, width);
+        }
+    }
+
+    // RGB image with its own buffer, one int per pixel without gaps
+    public static boolean isPlainIntRGB(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            return false;
+        }
+
+        Raster raster = image.getRaster();
+        if (!(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)) {
+            return false;
+        }
+
+        SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+        boolean result = sampleModel.getScanlineStride() == image.getWidth()
+                && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+                && raster.getDataBuffer().getOffset() == 0;
+        return result;
+    }
+
+    // 8-bit gray image with its own buffer, one byte per pixel without gaps
+    public static boolean isPlainGray(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_BYTE_GRAY) {
+            return false;
+        }
+
+        Raster raster = image.getRaster();
+        if (!(raster.getSampleModel() instanceof ComponentSampleModel)) {
+            return false;
+        }
+
+        ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+        boolean result = sampleModel.getPixelStride() == 1 && sampleModel.getScanlineStride() == image.getWidth()
+                && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+                && raster.getDataBuffer().getOffset() == 0;
+        return result;
+    }
+
+    // 1 bit per pixel image with its own buffer, where 0 is black and 1 is white
+    public static boolean isPackedBinary(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_BYTE_BINARY) {
+            return false;
+        }
+
+        Raster raster = image.getRaster();
+        if (!(raster.getSampleModel() instanceof MultiPixelPackedSampleModel)) {
+            return false;
+        }
+
+        MultiPixelPackedSampleModel sampleModel = (MultiPixelPackedSampleModel) raster.getSampleModel();
+        boolean result = sampleModel.getPixelBitStride() == 1 && sampleModel.getDataBitOffset() == 0
+                && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+                && raster.getDataBuffer().getOffset() == 0;
+        return result;
+    }
+
+    private static void setGrayRow(BufferedImage image, int x, int y, int[] row, int length) {
+        byte[] data = getByteData(image);
+        int index = y * image.getWidth() + x;
+        PixelKernels.getDefault().toGray(row, length, data, index);
+    }
+
+    private static void setBinaryRow(BufferedImage image, int x, int y, int[] row, int length) {
+        byte[] data = getByteData(image);
+        int rowBit = y * getBinaryScanlineStride(image) * 8;
+
+        int i = 0;
+        // Single pixels up to the byte boundary, then 8 pixels per byte
+        for (; i < length && (x + i & 7) != 0; i++) {
+            setBit(data, rowBit + x + i, ColorUtils.getGray(row[i]) >= 128);
+        }
+        for (; i + 8 <= length; i += 8) {
+            int bits = 0;
+            for (int j = i; j < i + 8; j++) {
+                bits = bits << 1 | (ColorUtils.getGray(row[j]) >= 128 ? 1 : 0);
+            }
+            data[rowBit + x + i >> 3] = (byte) bits;
+        }
+        for (; i < length; i++) {
+            setBit(data, rowBit + x + i, ColorUtils.getGray(row[i]) >= 128);
+        }
+    }
+
+    private static void setBit(byte[] data, int bit, boolean value) {
+        int mask = 0x80 >> (bit & 7);
+        if (value) {
+            data[bit >> 3] |= mask;
+        } else {
+            data[bit >> 3] &= ~mask;
+        }
+    }
+
+    private static void fillBits(byte[] data, int bit, int length, boolean value) {
+        int end = bit + length;
+        // Single bits up to the byte boundaries, whole bytes between them
+        for (; bit < end && (bit & 7) != 0; bit++) {
+            setBit(data, bit, value);
+        }
+        Arrays.fill(data, bit >> 3, end >> 3, (byte) (value ? 0xFF : 0));
+        for (bit = Math.max(bit, end & ~7); bit < end; bit++) {
+            setBit(data, bit, value);
+        }
+    }
+
+    private static int[] getIntData(BufferedImage image) {
+        int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        return data;
+    }
+
+    private static byte[] getByteData(BufferedImage image) {
+        byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        return data;
+    }
+
+    private static int getBinaryScanlineStride(BufferedImage image) {
+        int stride = ((MultiPixelPackedSampleModel) image.getRaster().getSampleModel()).getScanlineStride();
+        return stride;
+    }
+
+    // Bits are numbered from the most significant bit of the first byte, up to 8 bits are moved per iteration
+    private static void copyBits(byte[] source, int sourceBit, byte[] destination, int destinationBit, int length) {
+        while (length > 0) {
+            int destinationShift = destinationBit & 7;
+            int count = Math.min(8 - destinationShift, length);
+
+            int sourceIndex = sourceBit >> 3;
+            int word = (source[sourceIndex] & 0xFF) << 8;
+            if (sourceIndex + 1 < source.length) {
+                word |= source[sourceIndex + 1] & 0xFF;
+            }
+            int bits = word >> (16 - (sourceBit & 7) - count) & ((1 << count) - 1);
+
+            int shift = 8 - destinationShift - count;
+            int mask = ((1 << count) - 1) << shift;
+            int destinationIndex = destinationBit >> 3;
+            destination[destinationIndex] = (byte) (destination[destinationIndex] & ~mask | bits << shift);
+
+            sourceBit += count;
+            destinationBit += count;
+            length -= count;
+        }
+    }
 }
@@ -0,0 +1,85 @@
+package kernels;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+// Same arithmetic as the scalar kernels, lanes of the preferred width of the processor at once,
+// the rest of the row, which is shorter than the vector, goes through the scalar loops
+public class VectorPixelKernels extends PixelKernels {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    // Gray bytes of one int vector, there is no byte shape for 128-bit int vectors
+    private static final VectorSpecies<Byte> GRAY_SPECIES = SPECIES.vectorBitSize() >= 256
+            ? VectorSpecies.of(byte.class, VectorShape.forBitSize(SPECIES.vectorBitSize() / 4))
+            : null;
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    public void toGray(int[] row, int length, byte[] gray, int grayOffset) {
+        int i = 0;
+        if (GRAY_SPECIES != null) {
+            for (; i < SPECIES.loopBound(length); i += SPECIES.length()) {
+                IntVector color = IntVector.fromArray(SPECIES, row, i);
+                IntVector value = getChannel(color, 16).mul(77)
+                        .add(getChannel(color, 8).mul(150))
+                        .add(getChannel(color, 0).mul(29))
+                        .add(128)
+                        .lanewise(VectorOperators.ASHR, 8);
+                ((ByteVector) value.castShape(GRAY_SPECIES, 0)).intoArray(gray, grayOffset + i);
+            }
+        }
+        scalarToGray(row, i, length, gray, grayOffset);
+    }
+
+    @Override
+    public void binarize(int[] row, int offset, int length, int weightRed, int weightGreen, int weightBlue,
+            int threshold, int white, int black) {
+        IntVector whiteVector = IntVector.broadcast(SPECIES, white);
+        IntVector blackVector = IntVector.broadcast(SPECIES, black);
+        int i = offset;
+        for (; i < offset + SPECIES.loopBound(length); i += SPECIES.length()) {
+            IntVector color = IntVector.fromArray(SPECIES, row, i);
+            IntVector r = getChannel(color, 16);
+            IntVector g = getChannel(color, 8);
+            IntVector b = getChannel(color, 0);
+            IntVector value = r.mul(r).mul(weightRed * weightRed)
+                    .add(g.mul(g).mul(weightGreen * weightGreen))
+                    .add(b.mul(b).mul(weightBlue * weightBlue));
+            blackVector.blend(whiteVector, value.compare(VectorOperators.GE, threshold)).intoArray(row, i);
+        }
+        scalarBinarize(row, i, offset + length, weightRed, weightGreen, weightBlue, threshold, white, black);
+    }
+
+    @Override
+    public void matchRange(int[] row, int length, int minRed, int maxRed, int minGreen, int maxGreen,
+            int minBlue, int maxBlue, int[] matches, int value) {
+        IntVector valueVector = IntVector.broadcast(SPECIES, value);
+        int i = 0;
+        for (; i < SPECIES.loopBound(length); i += SPECIES.length()) {
+            IntVector color = IntVector.fromArray(SPECIES, row, i);
+            IntVector r = getChannel(color, 16);
+            IntVector g = getChannel(color, 8);
+            IntVector b = getChannel(color, 0);
+            IntVector.fromArray(SPECIES, matches, i)
+                    .blend(valueVector, r.compare(VectorOperators.GE, minRed)
+                            .and(r.compare(VectorOperators.LE, maxRed))
+                            .and(g.compare(VectorOperators.GE, minGreen))
+                            .and(g.compare(VectorOperators.LE, maxGreen))
+                            .and(b.compare(VectorOperators.GE, minBlue))
+                            .and(b.compare(VectorOperators.LE, maxBlue)))
+                    .intoArray(matches, i);
+        }
+        scalarMatchRange(row, i, length, minRed, maxRed, minGreen, maxGreen, minBlue, maxBlue, matches, value);
+    }
+
+    private static IntVector getChannel(IntVector color, int shift) {
+        IntVector result = color.lanewise(VectorOperators.LSHR, shift).and(0xFF);
+        return result;
+    }
+}
@@ -0,0 +1,95 @@
+package encoders;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import structures.ImageRaster;
+
+public class ImageStreamWriterTest {
+    private static final int[] IMAGE_TYPES = { BufferedImage.TYPE_BYTE_BINARY, BufferedImage.TYPE_BYTE_GRAY,
+            BufferedImage.TYPE_INT_RGB };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testPng() throws Exception {
+        for (int imageType : IMAGE_TYPES) {
+            // Width is not a multiple of 8 to check padding of the black and white rows
+            BufferedImage image = createImage(45, 31, imageType);
+            File file = temporaryFolder.newFile("image" + imageType + ".png");
+            try (ImageStreamWriter writer = new PngStreamWriter(file, image.getWidth(), image.getHeight(),
+                    imageType)) {
+                writeImage(image, writer);
+            }
+            checkImage(image, file);
+        }
+    }
+
+    @Test
+    public void testBmp() throws Exception {
+        for (int imageType : IMAGE_TYPES) {
+            BufferedImage image = createImage(45, 31, imageType);
+            File file = temporaryFolder.newFile("image" + imageType + ".bmp");
+            try (ImageStreamWriter writer = new BmpStreamWriter(file, image.getWidth(), image.getHeight(),
+                    imageType)) {
+                writeImage(image, writer);
+            }
+            checkImage(image, file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAllRows() throws Exception {
+        File file = temporaryFolder.newFile("image.png");
+        try (ImageStreamWriter writer = new PngStreamWriter(file, 10, 2, BufferedImage.TYPE_INT_RGB)) {
+            writer.writeRow(new int[10]);
+        }
+    }
+
+    private BufferedImage createImage(int width, int height, int imageType) {
+        BufferedImage image = new BufferedImage(width, height, imageType);
+        Random random = new Random(imageType);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // Smooth gradient with noise, so all PNG filters are chosen at some rows
+                int value = y < height / 2 ? (x * 5 + y * 3) & 0xFF : random.nextInt(256);
+                image.setRGB(x, y, value << 16 | (255 - value) << 8 | (value * 7 & 0xFF));
+            }
+        }
+        return image;
+    }
+
+    private void writeImage(BufferedImage image, ImageStreamWriter writer) throws IOException {
+        ImageRaster raster = new ImageRaster(image);
+        int[] row = new int[image.getWidth()];
+        for (int y = 0; y < image.getHeight(); y++) {
+            raster.getRGBRow(0, y, row.length, row);
+            writer.writeRow(row);
+        }
+    }
+
+    private void checkImage(BufferedImage expected, File file) throws IOException {
+        BufferedImage actual = ImageIO.read(file);
+        ImageRaster expectedRaster = new ImageRaster(expected);
+        ImageRaster actualRaster = new ImageRaster(actual);
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                String message = file.getName() + ", pixel " + x + ", " + y;
+                assertEquals(message, expectedRaster.getRGB(x, y) & 0xFFFFFF, actualRaster.getRGB(x, y) & 0xFFFFFF);
+            }
+        }
+    }
+}
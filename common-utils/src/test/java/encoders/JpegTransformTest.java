@@ -0,0 +1,152 @@
+package encoders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Random;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+public class JpegTransformTest {
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+    private static final int[] IMAGE_TYPES = { BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_INT_RGB };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // Coefficients rotated twice are the source ones, so the decoded pixels are exactly the same
+    @Test
+    public void testRotate180Twice() throws Exception {
+        for (int imageType : IMAGE_TYPES) {
+            File file = createJpeg(64, 48, imageType);
+            File rotatedFile = temporaryFolder.newFile("rotated" + imageType + ".jpg");
+            File twiceRotatedFile = temporaryFolder.newFile("twice" + imageType + ".jpg");
+
+            assertTrue(JpegTransform.rotate180(file, rotatedFile));
+            assertTrue(JpegTransform.rotate180(rotatedFile, twiceRotatedFile));
+
+            BufferedImage image = ImageIO.read(file);
+            BufferedImage twiceRotatedImage = ImageIO.read(twiceRotatedFile);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    assertEquals("Pixel " + x + ", " + y, image.getRGB(x, y), twiceRotatedImage.getRGB(x, y));
+                }
+            }
+        }
+    }
+
+    // Partial MCUs are trimmed, 16x16 pixels of the subsampled colors, 8x8 pixels of gray, the pixels differ
+    // from the rotated ones only by the rounding of the inverse DCT, except the edges of the subsampled colors
+    @Test
+    public void testRotate180() throws Exception {
+        for (int imageType : IMAGE_TYPES) {
+            File file = createJpeg(203, 117, imageType);
+            File rotatedFile = temporaryFolder.newFile("rotated" + imageType + ".jpg");
+            assertTrue(JpegTransform.rotate180(file, rotatedFile, true));
+
+            BufferedImage image = ImageIO.read(file);
+            BufferedImage rotatedImage = ImageIO.read(rotatedFile);
+            int width = imageType == BufferedImage.TYPE_BYTE_GRAY ? 200 : 192;
+            int height = 112;
+            assertEquals(width, rotatedImage.getWidth());
+            assertEquals(height, rotatedImage.getHeight());
+
+            for (int y = 2; y < height - 2; y++) {
+                for (int x = 2; x < width - 2; x++) {
+                    int expected = image.getRGB(width - 1 - x, height - 1 - y);
+                    int actual = rotatedImage.getRGB(x, y);
+                    for (int shift = 0; shift < 24; shift += 8) {
+                        int difference = Math.abs((expected >> shift & 0xFF) - (actual >> shift & 0xFF));
+                        assertTrue("Pixel " + x + ", " + y + ": " + difference, difference <= 4);
+                    }
+                }
+            }
+        }
+    }
+
+    // Without the trim the partial MCUs are not supported, the pixels have to be rotated
+    @Test
+    public void testNotAligned() throws Exception {
+        for (int imageType : IMAGE_TYPES) {
+            File file = createJpeg(64, 117, imageType);
+            File outputFile = new File(temporaryFolder.getRoot(), "rotated" + imageType + ".jpg");
+
+            assertFalse(JpegTransform.rotate180(file, outputFile));
+            assertFalse(outputFile.exists());
+        }
+    }
+
+    // Predictions of DC are reset at the restart markers of the source, the rotated file has no restart markers
+    @Test
+    public void testRestartInterval() throws Exception {
+        BufferedImage image = ImageIO.read(createJpeg(96, 64, BufferedImage.TYPE_INT_RGB));
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        IIOMetadata metadata = writer.getDefaultImageMetadata(new ImageTypeSpecifier(image), param);
+        Element tree = (Element) metadata.getAsTree(JPEG_METADATA_FORMAT);
+        Node markers = tree.getElementsByTagName("markerSequence").item(0);
+        IIOMetadataNode restartInterval = new IIOMetadataNode("dri");
+        restartInterval.setAttribute("interval", "5");
+        markers.insertBefore(restartInterval, tree.getElementsByTagName("sos").item(0));
+        metadata.setFromTree(JPEG_METADATA_FORMAT, tree);
+
+        File file = temporaryFolder.newFile("restarts.jpg");
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, metadata), param);
+        }
+        writer.dispose();
+
+        File rotatedFile = temporaryFolder.newFile("rotated.jpg");
+        File twiceRotatedFile = temporaryFolder.newFile("twice.jpg");
+        assertTrue(JpegTransform.rotate180(file, rotatedFile));
+        assertTrue(JpegTransform.rotate180(rotatedFile, twiceRotatedFile));
+
+        BufferedImage sourceImage = ImageIO.read(file);
+        BufferedImage twiceRotatedImage = ImageIO.read(twiceRotatedFile);
+        for (int y = 0; y < sourceImage.getHeight(); y++) {
+            for (int x = 0; x < sourceImage.getWidth(); x++) {
+                assertEquals("Pixel " + x + ", " + y, sourceImage.getRGB(x, y), twiceRotatedImage.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testNotSupported() throws Exception {
+        File file = temporaryFolder.newFile("image.png");
+        ImageIO.write(new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB), "png", file);
+        File outputFile = new File(temporaryFolder.getRoot(), "rotated.jpg");
+
+        assertFalse(JpegTransform.rotate180(file, outputFile));
+        assertFalse(outputFile.exists());
+    }
+
+    private File createJpeg(int width, int height, int imageType) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, imageType);
+        Random random = new Random(width * height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 3 + y & 0xFF) << 16 | (x * y / 7 & 0xFF) << 8 | random.nextInt(40) + y % 64);
+            }
+        }
+        File result = temporaryFolder.newFile("image" + imageType + ".jpg");
+        ImageIO.write(image, "jpg", result);
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+public class TileExecutorTest {
+
+    @Test
+    public void testForEachBandCoversAllRowsOnce() {
+        TileExecutor executor = new TileExecutor(4);
+        executor.setBandHeight(7);
+
+        int height = 100;
+        AtomicIntegerArray counters = new AtomicIntegerArray(height);
+        executor.forEachBand(height, (startY, endY) -> {
+            assertEquals(0, startY % 7);
+            for (int y = startY; y < endY; y++) {
+                counters.incrementAndGet(y);
+            }
+        });
+        executor.shutdown();
+
+        for (int y = 0; y < height; y++) {
+            assertEquals("Row " + y, 1, counters.get(y));
+        }
+    }
+
+    @Test
+    public void testForEachTileCoversAllPixelsOnce() {
+        TileExecutor executor = new TileExecutor(3);
+        executor.setBandHeight(16);
+        executor.setTileWidth(10);
+
+        int width = 45;
+        int height = 37;
+        AtomicIntegerArray counters = new AtomicIntegerArray(width * height);
+        executor.forEachTile(width, height, (startX, startY, endX, endY) -> {
+            for (int y = startY; y < endY; y++) {
+                for (int x = startX; x < endX; x++) {
+                    counters.incrementAndGet(y * width + x);
+                }
+            }
+        });
+        executor.shutdown();
+
+        for (int i = 0; i < width * height; i++) {
+            assertEquals("Pixel " + i, 1, counters.get(i));
+        }
+    }
+
+    @Test
+    public void testReduceBandsKeepsOrderOfBands() {
+        TileExecutor executor = new TileExecutor(4);
+        executor.setBandHeight(3);
+
+        String result = executor.reduceBands(20, (startY, endY) -> startY + "-" + endY + ";",
+                (result1, result2) -> result1 + result2);
+        executor.shutdown();
+
+        assertEquals("0-3;3-6;6-9;9-12;12-15;15-18;18-20;", result);
+    }
+
+    @Test
+    public void testSingleThreadIsSameAsParallel() {
+        int height = 500;
+        long[] sequential = fillRows(new TileExecutor(1), height);
+        long[] parallel = fillRows(new TileExecutor(8), height);
+        assertArrayEquals(sequential, parallel);
+    }
+
+    private long[] fillRows(TileExecutor executor, int height) {
+        long[] rows = new long[height];
+        executor.forEachBand(height, (startY, endY) -> {
+            for (int y = startY; y < endY; y++) {
+                rows[y] = (long) y * y * 31 + 7;
+            }
+        });
+        executor.shutdown();
+        return rows;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroParallelism() {
+        new TileExecutor(0);
+    }
+}
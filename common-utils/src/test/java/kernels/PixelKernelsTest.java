@@ -0,0 +1,78 @@
+package kernels;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import utils.ColorUtils;
+
+// Default kernels are the vector ones when the tests run with the module jdk.incubator.vector,
+// they are compared with the scalar kernels on the rows, which lengths are not multiples of the vector lanes
+public class PixelKernelsTest {
+    private static final int[] LENGTHS = { 0, 1, 7, 8, 15, 33, 100 };
+
+    private PixelKernels scalar = new PixelKernels();
+    private PixelKernels kernels = PixelKernels.getDefault();
+    private Random random = new Random(5);
+
+    @Test
+    public void testToGray() {
+        for (int length : LENGTHS) {
+            int[] row = createRow(length);
+            byte[] expected = new byte[length + 3];
+            byte[] actual = new byte[length + 3];
+            scalar.toGray(row, length, expected, 2);
+            kernels.toGray(row, length, actual, 2);
+
+            assertArrayEquals(expected, actual);
+            for (int i = 0; i < length; i++) {
+                assertEquals(ColorUtils.getGray(row[i]), expected[2 + i] & 0xFF);
+            }
+        }
+    }
+
+    @Test
+    public void testBinarize() {
+        for (int length : LENGTHS) {
+            int[] expected = createRow(length + 3);
+            int[] actual = expected.clone();
+            // Biggest weights, which still fit into int
+            scalar.binarize(expected, 3, length, 104, -7, 0, 85 * 5 * 1000, 1, 2);
+            kernels.binarize(actual, 3, length, 104, -7, 0, 85 * 5 * 1000, 1, 2);
+
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testMatchRange() {
+        for (int length : LENGTHS) {
+            int[] row = createRow(length);
+            int[] expected = new int[length];
+            int[] actual = new int[length];
+            for (int value = 1; value <= 3; value++) {
+                scalar.matchRange(row, length, 0, 200, 50, 255, 10 * value, 100 * value, expected, value);
+                kernels.matchRange(row, length, 0, 200, 50, 255, 10 * value, 100 * value, actual, value);
+            }
+
+            assertArrayEquals(expected, actual);
+            for (int i = 0; i < length; i++) {
+                int blue = row[i] & 0xFF;
+                int green = row[i] >> 8 & 0xFF;
+                boolean matched = (row[i] >> 16 & 0xFF) <= 200 && green >= 50 && blue >= 10 && blue <= 300;
+                assertEquals(matched, expected[i] != 0);
+            }
+        }
+    }
+
+    private int[] createRow(int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = 0xFF000000 | random.nextInt(1 << 24);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,101 @@
+package structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+public class ImageRasterTest {
+    private static final int WIDTH = 7;
+    private static final int HEIGHT = 5;
+
+    @Test
+    public void testIntRGB() {
+        assertSameAsBufferedImage(createImage(BufferedImage.TYPE_INT_RGB));
+    }
+
+    @Test
+    public void testIntARGB() {
+        assertSameAsBufferedImage(createImage(BufferedImage.TYPE_INT_ARGB));
+    }
+
+    @Test
+    public void test3ByteBGR() {
+        assertSameAsBufferedImage(createImage(BufferedImage.TYPE_3BYTE_BGR));
+    }
+
+    @Test
+    public void testGenericFallback() {
+        BufferedImage image = createImage(BufferedImage.TYPE_USHORT_565_RGB);
+        assertFalse(new ImageRaster(image).isDirect());
+        assertSameAsBufferedImage(image);
+    }
+
+    @Test
+    public void testSubimage() {
+        BufferedImage image = createImage(BufferedImage.TYPE_INT_RGB).getSubimage(2, 1, 4, 3);
+        assertSameAsBufferedImage(image);
+
+        image = createImage(BufferedImage.TYPE_3BYTE_BGR).getSubimage(1, 2, 5, 2);
+        assertSameAsBufferedImage(image);
+    }
+
+    @Test
+    public void testByteGray() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.getRaster().setSample(x, y, 0, x * 30 + y);
+            }
+        }
+
+        // Gray images of the processing store the gray levels, the decoded samples are converted
+        // from the linear gray ColorSpace the same way as by getRGB
+        BufferedImage subimage = image.getSubimage(1, 1, 5, 3);
+        ImageRaster raster = new ImageRaster(subimage);
+        ImageRaster decodedRaster = new ImageRaster(subimage, true);
+        assertTrue(raster.isDirect());
+        assertTrue(decodedRaster.isDirect());
+        for (int y = 0; y < subimage.getHeight(); y++) {
+            for (int x = 0; x < subimage.getWidth(); x++) {
+                int sample = subimage.getRaster().getSample(x, y, 0);
+                assertEquals(0xFF000000 | sample << 16 | sample << 8 | sample, raster.getRGB(x, y));
+                assertEquals(subimage.getRGB(x, y), decodedRaster.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testByteBinary() {
+        BufferedImage image = createImage(BufferedImage.TYPE_BYTE_BINARY);
+        assertTrue(new ImageRaster(image).isDirect());
+        assertSameAsBufferedImage(image);
+
+        // Subimage starts inside of a byte of the rows
+        BufferedImage subimage = image.getSubimage(3, 1, 4, 3);
+        assertTrue(new ImageRaster(subimage).isDirect());
+        assertSameAsBufferedImage(subimage);
+    }
+
+    private BufferedImage createImage(int type) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, 0xFF000000 | (x * 37) << 16 | (y * 51) << 8 | (x * y * 5));
+            }
+        }
+        return image;
+    }
+
+    private void assertSameAsBufferedImage(BufferedImage image) {
+        ImageRaster raster = new ImageRaster(image);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals(image.getRGB(x, y), raster.getRGB(x, y));
+            }
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package utils;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class FileUtilsTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
     @Test
     public void testGetFileExtension() {
@@ -30,4 +39,22 @@ public class FileUtilsTest {
     public void testGetFileNameWithNoName() {
         assertEquals("", FileUtils.getFileName(".txt"));
     }
+
+    @Test
+    public void testLinkOrCopyFiles() throws Exception {
+        File sourceFile = temporaryFolder.newFile("source.txt");
+        Files.write(sourceFile.toPath(), "source".getBytes(StandardCharsets.UTF_8));
+        File destinationFile = temporaryFolder.newFile("destination.txt");
+        Files.write(destinationFile.toPath(), "old destination".getBytes(StandardCharsets.UTF_8));
+
+        FileUtils.linkOrCopyFiles(sourceFile, destinationFile);
+        assertArrayEquals(Files.readAllBytes(sourceFile.toPath()), Files.readAllBytes(destinationFile.toPath()));
+
+        // Destination is replaced again, not written through the link
+        File otherFile = temporaryFolder.newFile("other.txt");
+        Files.write(otherFile.toPath(), "other".getBytes(StandardCharsets.UTF_8));
+        FileUtils.linkOrCopyFiles(otherFile, destinationFile);
+        assertEquals("source", new String(Files.readAllBytes(sourceFile.toPath()), StandardCharsets.UTF_8));
+        assertEquals("other", new String(Files.readAllBytes(destinationFile.toPath()), StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,196 @@
+package utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.File;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+public class ImageUtilsTest {
+
+    @Test
+    public void testSetRGBRowBinary() {
+        int width = 13;
+        BufferedImage image = new BufferedImage(width, 2, BufferedImage.TYPE_BYTE_BINARY);
+        assertTrue(ImageUtils.isPackedBinary(image));
+
+        int[] row = new int[width];
+        for (int x = 0; x < width; x++) {
+            row[x] = x % 3 == 0 ? Color.BLACK.getRGB() : Color.WHITE.getRGB();
+        }
+        ImageUtils.setRGBRow(image, 1, row);
+
+        for (int x = 0; x < width; x++) {
+            assertEquals(Color.BLACK.getRGB(), image.getRGB(x, 0));
+            assertEquals(row[x], image.getRGB(x, 1));
+        }
+    }
+
+    @Test
+    public void testCopyBinaryImage() {
+        BufferedImage source = createBinaryImage(19, 5);
+        BufferedImage destination = ImageUtils.createFilledBufferedImage(40, 9, BufferedImage.TYPE_BYTE_BINARY,
+                Color.WHITE);
+
+        ImageUtils.copyImage(source, destination, 11, 3);
+
+        for (int y = 0; y < destination.getHeight(); y++) {
+            for (int x = 0; x < destination.getWidth(); x++) {
+                boolean inside = x >= 11 && x < 30 && y >= 3 && y < 8;
+                int expected = inside ? source.getRGB(x - 11, y - 3) : Color.WHITE.getRGB();
+                assertEquals("Pixel " + x + ", " + y, expected, destination.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testCopyImage() {
+        BufferedImage source = createBinaryImage(7, 4);
+        BufferedImage destination = ImageUtils.createFilledBufferedImage(10, 6, Color.RED);
+
+        ImageUtils.copyImage(source, destination, 2, 1);
+
+        assertEquals(Color.RED.getRGB(), destination.getRGB(1, 1));
+        assertEquals(source.getRGB(0, 0), destination.getRGB(2, 1));
+        assertEquals(source.getRGB(6, 3), destination.getRGB(8, 4));
+        assertEquals(Color.RED.getRGB(), destination.getRGB(9, 5));
+    }
+
+    @Test
+    public void testFillRect() {
+        int[] imageTypes = { BufferedImage.TYPE_BYTE_BINARY, BufferedImage.TYPE_BYTE_GRAY,
+                BufferedImage.TYPE_INT_RGB };
+        for (int imageType : imageTypes) {
+            BufferedImage image = new BufferedImage(37, 5, imageType);
+            // Rectangles start and end inside of the bytes of the binary rows, one of them inside of one byte
+            ImageUtils.fillRect(image, 3, 1, 30, 3, Color.WHITE);
+            ImageUtils.fillRect(image, 9, 2, 5, 1, Color.BLACK);
+
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    boolean white = x >= 3 && x < 33 && y >= 1 && y < 4 && !(x >= 9 && x < 14 && y == 2);
+                    int expected = white ? Color.WHITE.getRGB() : Color.BLACK.getRGB();
+                    assertEquals("Type " + imageType + ", pixel " + x + ", " + y, expected, image.getRGB(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSetRGBRowBinaryWithOffset() {
+        BufferedImage image = ImageUtils.createFilledBufferedImage(30, 1, BufferedImage.TYPE_BYTE_BINARY,
+                Color.WHITE);
+
+        int[] row = new int[19];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = i % 2 == 0 ? Color.BLACK.getRGB() : Color.WHITE.getRGB();
+        }
+        ImageUtils.setRGBRow(image, 5, 0, row, row.length);
+
+        for (int x = 0; x < image.getWidth(); x++) {
+            int expected = x >= 5 && x < 24 ? row[x - 5] : Color.WHITE.getRGB();
+            assertEquals("Pixel " + x, expected, image.getRGB(x, 0));
+        }
+    }
+
+    @Test
+    public void testConvertToGray() {
+        BufferedImage image = new BufferedImage(3, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0x000000);
+        image.setRGB(1, 0, 0xFF8000);
+        image.setRGB(2, 0, 0xFFFFFF);
+
+        BufferedImage grayImage = ImageUtils.convertToGray(image);
+        assertTrue(ImageUtils.isPlainGray(grayImage));
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, ImageUtils.getCompatibleImageType(grayImage));
+
+        // Gray levels are stored as they are, without the conversion to the linear gray ColorSpace
+        byte[] data = ((DataBufferByte) grayImage.getRaster().getDataBuffer()).getData();
+        assertEquals(0, data[0] & 0xFF);
+        assertEquals(ColorUtils.getGray(0xFF8000), data[1] & 0xFF);
+        assertEquals(255, data[2] & 0xFF);
+
+        assertSame(grayImage, ImageUtils.convertToGray(grayImage));
+    }
+
+    // Decoded samples get the gray levels of their colors by getRGB, the image is converted in place
+    @Test
+    public void testConvertDecodedGray() {
+        BufferedImage image = new BufferedImage(256, 1, BufferedImage.TYPE_BYTE_GRAY);
+        int[] expected = new int[256];
+        for (int x = 0; x < 256; x++) {
+            image.getRaster().setSample(x, 0, 0, x);
+            expected[x] = ColorUtils.getGray(image.getRGB(x, 0));
+        }
+
+        assertSame(image, ImageUtils.convertDecodedGray(image));
+        for (int x = 0; x < 256; x++) {
+            assertEquals(expected[x], image.getRaster().getSample(x, 0, 0));
+        }
+    }
+
+    @Test
+    public void testCopyGrayImage() {
+        BufferedImage source = new BufferedImage(5, 3, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] sourceData = ((DataBufferByte) source.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < sourceData.length; i++) {
+            sourceData[i] = (byte) (i * 17);
+        }
+        BufferedImage destination = ImageUtils.createFilledBufferedImage(9, 5, BufferedImage.TYPE_BYTE_GRAY,
+                Color.WHITE);
+
+        ImageUtils.copyImage(source, destination, 3, 1);
+
+        byte[] destinationData = ((DataBufferByte) destination.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < destination.getHeight(); y++) {
+            for (int x = 0; x < destination.getWidth(); x++) {
+                boolean inside = x >= 3 && x < 8 && y >= 1 && y < 4;
+                int expected = inside ? sourceData[(y - 1) * 5 + x - 3] & 0xFF : 255;
+                assertEquals("Pixel " + x + ", " + y, expected, destinationData[y * 9 + x] & 0xFF);
+            }
+        }
+    }
+
+    @Test
+    public void testReadImageRegion() throws Exception {
+        BufferedImage image = new BufferedImage(31, 17, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, x * 8 << 16 | y * 15 << 8 | (x + y) * 5);
+            }
+        }
+        File file = File.createTempFile("region", ".png");
+        file.deleteOnExit();
+        ImageIO.write(image, "png", file);
+
+        assertEquals(new Dimension(31, 17), ImageUtils.readImageSize(file));
+
+        BufferedImage region = ImageUtils.readImage(file, new Rectangle(5, 3, 20, 10));
+        assertEquals(20, region.getWidth());
+        assertEquals(10, region.getHeight());
+        for (int y = 0; y < region.getHeight(); y++) {
+            for (int x = 0; x < region.getWidth(); x++) {
+                assertEquals(image.getRGB(x + 5, y + 3), region.getRGB(x, y));
+            }
+        }
+    }
+
+    private BufferedImage createBinaryImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 3 + y * 5) % 7 < 3 ? Color.BLACK.getRGB() : Color.WHITE.getRGB());
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,97 @@
+package process;
+
+import java.io.File;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import process.processing.render.RenderPipeline;
+import process.processing.render.RenderSettings;
+import utils.JSONUtils;
+
+// Renders folders with the same processors as Render Images on the UI, but without JavaFX:
+// BatchRenderApp <job.json> <folder> [<folder> ...]
+// The job file contains fields of RenderSettings, missing fields keep their default values.
+public class BatchRenderApp {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: BatchRenderApp <job.json> <folder> [<folder> ...]");
+            System.exit(1);
+        }
+
+        RenderSettings settings = JSONUtils.loadFromDisk(new File(args[0]), new TypeReference<RenderSettings>() {});
+
+        Statistics total = new Statistics();
+        for (int i = 1; i < args.length; i++) {
+            File inputFolder = new File(args[i]);
+            Statistics statistics = renderFolder(settings, inputFolder);
+            statistics.print(inputFolder.getPath());
+            total.add(statistics);
+        }
+
+        if (args.length > 2) {
+            total.print("Total");
+        }
+    }
+
+    private static Statistics renderFolder(RenderSettings settings, File inputFolder) throws Exception {
+        File outputFolder = new File(inputFolder, "rendered");
+        outputFolder.mkdir();
+
+        MarkupStorage markupStorage = new MarkupStorage(null, inputFolder);
+        RenderPipeline pipeline = new RenderPipeline(settings, markupStorage::getSelectionBoundaries,
+                new ConsoleListener(inputFolder));
+
+        long startTime = System.nanoTime();
+        pipeline.render(inputFolder, outputFolder);
+
+        Statistics statistics = new Statistics();
+        statistics.pages = pipeline.getRenderedPages();
+        statistics.files = pipeline.getWrittenFiles();
+        statistics.skippedFiles = pipeline.getSkippedFiles();
+        statistics.pixels = pipeline.getDecodedPixels();
+        statistics.nanoseconds = System.nanoTime() - startTime;
+        return statistics;
+    }
+
+    private static class ConsoleListener implements RenderPipeline.Listener {
+        private File folder;
+
+        private ConsoleListener(File folder) {
+            this.folder = folder;
+        }
+
+        @Override
+        public void onProgress(double progress) {
+            // Only the statistics at the end are printed
+        }
+
+        @Override
+        public void onWarning(String message) {
+            System.err.println(folder.getPath() + ": " + message);
+        }
+    }
+
+    private static class Statistics {
+        private int pages;
+        private int files;
+        private int skippedFiles;
+        private long pixels;
+        private long nanoseconds;
+
+        private void add(Statistics statistics) {
+            pages += statistics.pages;
+            files += statistics.files;
+            skippedFiles += statistics.skippedFiles;
+            pixels += statistics.pixels;
+            nanoseconds += statistics.nanoseconds;
+        }
+
+        private void print(String title) {
+            double seconds = nanoseconds / 1e9;
+            System.out.println(String.format("%s: %d pages, %d files (%d unchanged), %.1f megapixels in %.1f s"
+                    + " (%.2f pages/s, %.1f megapixels/s)", title, pages, files, skippedFiles, pixels / 1e6,
+                    seconds, pages / seconds, pixels / 1e6 / seconds));
+        }
+    }
+}
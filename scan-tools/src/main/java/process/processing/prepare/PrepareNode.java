@@ -3,6 +3,7 @@ package process.processing.prepare;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 
 import javax.imageio.ImageIO;
 
@@ -109,16 +110,26 @@ public class PrepareNode extends AbstractNode {
                 }
 
                 File sourceFile = files[sourceIndex];
-                BufferedImage image = ImageIO.read(sourceFile);
-
-                if (needRotation) {
-                    image = rotator.rotateImage(image, destinationIndex);
-                }
-
                 String outputFileName = files[destinationIndex].getName();
                 File outputFile = new File(outputFolder, outputFileName);
+                // Output of the previous run may be a link to a source, so it is never written in place
+                Files.deleteIfExists(outputFile.toPath());
+
+                boolean rotation = needRotation && rotator.isRotationNeeded(destinationIndex);
                 String formatName = FileUtils.getFileExtension(outputFileName);
-                ImageIO.write(image, formatName, outputFile);
+                if (!rotation && formatName.equalsIgnoreCase(FileUtils.getFileExtension(sourceFile.getName()))) {
+                    // Pixels are not changed, the source file gets the new name without decoding
+                    FileUtils.linkOrCopyFiles(sourceFile, outputFile);
+                } else if (!rotation || !rotator.rotateFile(sourceFile, outputFile, destinationIndex)) {
+                    // JPEG is rotated without decoding and encoding again, other files go through the pixels
+                    BufferedImage image = ImageIO.read(sourceFile);
+
+                    if (rotation) {
+                        image = rotator.rotateImage(image, destinationIndex);
+                    }
+
+                    ImageIO.write(image, formatName, outputFile);
+                }
 
                 progress = (double) (i + 1) / amountOfImages;
                 Platform.runLater(new UpdateProgressTask());
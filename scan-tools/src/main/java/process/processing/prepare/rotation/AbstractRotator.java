@@ -1,7 +1,26 @@
 package process.processing.prepare.rotation;
 
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import executors.TileExecutor;
 
 public abstract class AbstractRotator {
+    protected TileExecutor executor = TileExecutor.getDefault();
+
     public abstract BufferedImage rotateImage(BufferedImage image, int index);
+
+    // Pages, which are not rotated, are left as they are
+    public abstract boolean isRotationNeeded(int index);
+
+    // Rotates the file without decoding the pixels, returns false if it is not supported for the file,
+    // then the image is decoded and rotated by rotateImage
+    public boolean rotateFile(File sourceFile, File outputFile, int index) throws IOException {
+        return false;
+    }
+
+    public void setExecutor(TileExecutor executor) {
+        this.executor = executor;
+    }
 }
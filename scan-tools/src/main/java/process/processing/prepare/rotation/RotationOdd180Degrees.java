@@ -1,13 +1,24 @@
 package process.processing.prepare.rotation;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+
+import encoders.JpegTransform;
+import utils.FileUtils;
 
 public class RotationOdd180Degrees extends AbstractRotator {
 
+    // Rotating Odd pages based human numbering (1, 2, 3, etc)
+    @Override
+    public boolean isRotationNeeded(int index) {
+        return index % 2 == 0;
+    }
+
     @Override
     public BufferedImage rotateImage(BufferedImage image, int index) {
-        // Rotating Odd pages based human numbering (1, 2, 3, etc)
-        if (index % 2 == 1) {
+        if (!isRotationNeeded(index)) {
             return image;
         }
 
@@ -15,14 +26,35 @@ public class RotationOdd180Degrees extends AbstractRotator {
         int height = image.getHeight();
 
         BufferedImage rotatedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] data = ((DataBufferInt) rotatedImage.getRaster().getDataBuffer()).getData();
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int rgb = image.getRGB(x, y);
-                rotatedImage.setRGB(width - x - 1, height - y - 1, rgb);
+        // Source row y becomes reversed row (height - y - 1), the alpha is dropped as by setRGB on the int RGB image
+        executor.forEachBand(height, (startY, endY) -> {
+            int[] row = new int[width];
+            for (int y = startY; y < endY; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                int offset = (height - y) * width - 1;
+                for (int x = 0; x < width; x++) {
+                    data[offset - x] = row[x] & 0xFFFFFF;
+                }
             }
-        }
+        });
 
         return rotatedImage;
     }
+
+    // JPEG is rotated losslessly by the DCT coefficients if it has no partial blocks at the right and bottom edges,
+    // otherwise the pixels are rotated, so the page keeps its size
+    @Override
+    public boolean rotateFile(File sourceFile, File outputFile, int index) throws IOException {
+        boolean result = isRotationNeeded(index) && isJpeg(sourceFile) && isJpeg(outputFile)
+                && JpegTransform.rotate180(sourceFile, outputFile);
+        return result;
+    }
+
+    private boolean isJpeg(File file) {
+        String extension = FileUtils.getFileExtension(file.getName());
+        boolean result = "jpg".equalsIgnoreCase(extension) || "jpeg".equalsIgnoreCase(extension);
+        return result;
+    }
 }
@@ -0,0 +1,33 @@
+package process.processing.render;
+
+import process.processing.render.binarization.AdaptiveImageBinarization;
+
+public enum BinarizationMethods {
+    GlobalThreshold("Global threshold", false, null),
+    OtsuThreshold("Global threshold, auto (Otsu)", true, null),
+    Sauvola("Sauvola, adaptive", false, AdaptiveImageBinarization.Methods.Sauvola),
+    Niblack("Niblack, adaptive", false, AdaptiveImageBinarization.Methods.Niblack);
+
+    private String text;
+    private boolean autoThreshold;
+    private AdaptiveImageBinarization.Methods adaptiveMethod;
+
+    private BinarizationMethods(String text, boolean autoThreshold,
+            AdaptiveImageBinarization.Methods adaptiveMethod) {
+        this.text = text;
+        this.autoThreshold = autoThreshold;
+        this.adaptiveMethod = adaptiveMethod;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isAutoThreshold() {
+        return autoThreshold;
+    }
+
+    public AdaptiveImageBinarization.Methods getAdaptiveMethod() {
+        return adaptiveMethod;
+    }
+}
@@ -0,0 +1,26 @@
+package process.processing.render;
+
+import process.processing.render.crop.AbstractImageCrop;
+import process.processing.render.crop.RotationImageCrop;
+import process.processing.render.crop.SimpleCrop;
+
+public enum ImageCrops {
+    RotationImageCrop("Rotate and crop", RotationImageCrop.class),
+    SimpleImageCrop("Simple crop", SimpleCrop.class);
+
+    private String text;
+    private Class<? extends AbstractImageCrop> cl;
+
+    private ImageCrops(String text, Class<? extends AbstractImageCrop> cl) {
+        this.text = text;
+        this.cl = cl;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Class<? extends AbstractImageCrop> getCl() {
+        return cl;
+    }
+}
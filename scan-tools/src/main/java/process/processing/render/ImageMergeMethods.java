@@ -0,0 +1,16 @@
+package process.processing.render;
+
+public enum ImageMergeMethods {
+    Method1ImageOnFirstPage("1 Image"),
+    Method2ImagesOnFirstPage("2 Images");
+
+    private String text;
+
+    private ImageMergeMethods(String text) {
+        this.text = text;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
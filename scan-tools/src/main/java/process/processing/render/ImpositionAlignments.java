@@ -0,0 +1,17 @@
+package process.processing.render;
+
+public enum ImpositionAlignments {
+    Start("Left or top"),
+    Center("Center"),
+    End("Right or bottom");
+
+    private String text;
+
+    private ImpositionAlignments(String text) {
+        this.text = text;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
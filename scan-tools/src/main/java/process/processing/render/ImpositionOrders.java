@@ -0,0 +1,18 @@
+package process.processing.render;
+
+public enum ImpositionOrders {
+    Rows("Rows, left to right"),
+    Columns("Columns, top to bottom"),
+    // Spreads of a saddle-stitched booklet, two columns per spread
+    Booklet("Booklet");
+
+    private String text;
+
+    private ImpositionOrders(String text) {
+        this.text = text;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
@@ -0,0 +1,38 @@
+package process.processing.render;
+
+// Admits work in order of the tickets while the estimated bytes of the admitted work fit into the budget.
+// Work, which does not fit into the budget alone, is admitted when nothing else is in work,
+// so it is done without any other work at the same time instead of never.
+public class MemoryBudget {
+    private long budget;
+    private long usedBytes;
+    private int nextTicket;
+
+    public MemoryBudget(long budget) {
+        this.budget = budget;
+    }
+
+    // Tickets are 0, 1, 2, ... and every ticket has to be acquired exactly once
+    public synchronized void acquire(int ticket, long bytes) throws InterruptedException {
+        while (ticket != nextTicket || (usedBytes > 0 && usedBytes + bytes > budget)) {
+            wait();
+        }
+
+        usedBytes += bytes;
+        nextTicket++;
+        notifyAll();
+    }
+
+    public synchronized void release(long bytes) {
+        usedBytes -= bytes;
+        notifyAll();
+    }
+
+    public boolean fits(long bytes) {
+        return bytes <= budget;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+}
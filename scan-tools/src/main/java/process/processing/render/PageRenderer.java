@@ -0,0 +1,240 @@
+package process.processing.render;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.function.Supplier;
+
+import executors.TileExecutor;
+import process.dto.Point;
+import process.processing.render.binarization.AbstractImageBinarization;
+import process.processing.render.binarization.AdaptiveImageBinarization;
+import process.processing.render.binarization.ImageBinarization;
+import process.processing.render.crop.AbstractImageCrop;
+import process.processing.render.crop.RotationImageCrop;
+import process.processing.render.crop.SimpleCrop;
+import process.processing.render.filters.BinarizationFilter;
+import process.processing.render.filters.ImageFilter;
+import process.processing.render.graph.AdaptiveBinarizationNode;
+import process.processing.render.graph.BinarizationNode;
+import process.processing.render.graph.ImageNode;
+import process.processing.render.graph.MergeNode;
+import process.processing.render.graph.RegionNode;
+import process.processing.render.graph.ResizeNode;
+import process.processing.render.graph.SamplingNode;
+import process.processing.render.graph.TileNode;
+import process.processing.render.merge.ImageMerge;
+import process.processing.render.merge.Imposition;
+import process.processing.render.resize.ImageResize;
+import process.processing.render.resize.SeparableImageResize;
+
+// Processors keep the state of the current image, so every worker thread needs its own PageRenderer
+public class PageRenderer {
+    private RenderSettings settings;
+    private TileExecutor executor;
+    private AbstractImageCrop imageCrop;
+    private ImageResize resize;
+    private SeparableImageResize separableResize;
+    // Rotation crop of a marked up page samples the source straight into the resized image
+    private boolean cropWithResize;
+    private AbstractImageBinarization binarization;
+    private ImageMerge merge;
+
+    public PageRenderer(RenderSettings settings, TileExecutor executor) throws Exception {
+        this.settings = settings;
+        this.executor = executor;
+
+        // Crop and Resize need separate filters, because a filter holds the image it is sampling
+        if (settings.isCrop()) {
+            imageCrop = settings.getImageCrop().getCl().newInstance();
+            imageCrop.setSmoothFilter(createSmoothFilter(settings));
+            imageCrop.setExecutor(executor);
+        }
+
+        if (settings.isResize() && settings.getResizeMethod().getKernel() == null) {
+            resize = new ImageResize();
+            resize.setSmoothFilter(createSmoothFilter(settings));
+            resize.setExecutor(executor);
+            resize.setSourceDPI(settings.getSourceDPI());
+            resize.setTargetDPI(settings.getTargetDPI());
+        } else if (settings.isResize()) {
+            separableResize = createSeparableResize(settings);
+            separableResize.setExecutor(executor);
+        }
+
+        if (imageCrop instanceof RotationImageCrop && resize != null && settings.isFusedCropResize()) {
+            double scale = (double) settings.getTargetDPI() / settings.getSourceDPI();
+            ((RotationImageCrop) imageCrop).setScale(scale);
+            cropWithResize = true;
+        }
+
+        if (settings.isBinarization()) {
+            binarization = createBinarization(settings);
+            binarization.setExecutor(executor);
+        }
+
+        if (settings.isMerge()) {
+            merge = new ImageMerge();
+            merge.setImposition(createImposition(settings));
+        }
+    }
+
+    static Imposition createImposition(RenderSettings settings) {
+        Imposition imposition = new Imposition();
+        imposition.setColumns(settings.getMergeColumns());
+        imposition.setRows(settings.getMergeRows());
+        imposition.setGutter(settings.getMergeGutter());
+        imposition.setOrder(settings.getMergeOrder());
+        imposition.setHorizontalAlignment(settings.getMergeHorizontalAlignment());
+        imposition.setVerticalAlignment(settings.getMergeVerticalAlignment());
+
+        // With 1 image the first sheet has an empty place before the first page
+        ImageMergeMethods mergeMethod = settings.getMergeMethod();
+        switch (mergeMethod) {
+            case Method1ImageOnFirstPage:
+                imposition.setEmptyPlaces(1);
+                break;
+            case Method2ImagesOnFirstPage:
+                imposition.setEmptyPlaces(0);
+                break;
+            default:
+                throw new IllegalArgumentException("Merge Method is not supported: " + mergeMethod);
+        }
+        return imposition;
+    }
+
+    static ImageFilter createSmoothFilter(RenderSettings settings) throws Exception {
+        ImageFilter smoothFilter = settings.getSmoothFilter().getCl().newInstance();
+        return smoothFilter;
+    }
+
+    static SeparableImageResize createSeparableResize(RenderSettings settings) {
+        SeparableImageResize separableResize = new SeparableImageResize();
+        separableResize.setKernel(settings.getResizeMethod().getKernel());
+        separableResize.setSourceDPI(settings.getSourceDPI());
+        separableResize.setTargetDPI(settings.getTargetDPI());
+        return separableResize;
+    }
+
+    static AbstractImageBinarization createBinarization(RenderSettings settings) {
+        double weightRed = settings.getWeightRed();
+        double weightGreen = settings.getWeightGreen();
+        double weightBlue = settings.getWeightBlue();
+        BinarizationMethods binarizationMethod = settings.getBinarizationMethod();
+
+        if (binarizationMethod.getAdaptiveMethod() == null) {
+            BinarizationFilter binarizationFilter = new BinarizationFilter();
+            binarizationFilter.setWeightRed(weightRed);
+            binarizationFilter.setWeightGreen(weightGreen);
+            binarizationFilter.setWeightBlue(weightBlue);
+            double threshold = settings.getThreshold() * (weightRed + weightGreen + weightBlue);
+            binarizationFilter.setThreshold(threshold);
+
+            ImageBinarization imageBinarization = new ImageBinarization();
+            imageBinarization.setColorFilter(binarizationFilter);
+            imageBinarization.setAutoThreshold(binarizationMethod.isAutoThreshold());
+            return imageBinarization;
+        }
+
+        AdaptiveImageBinarization adaptiveBinarization = new AdaptiveImageBinarization();
+        adaptiveBinarization.setMethod(binarizationMethod.getAdaptiveMethod());
+        adaptiveBinarization.setWeightRed(weightRed);
+        adaptiveBinarization.setWeightGreen(weightGreen);
+        adaptiveBinarization.setWeightBlue(weightBlue);
+        return adaptiveBinarization;
+    }
+
+    // Boundaries are null if the page is not marked up, such page is not cropped
+    public BufferedImage renderPage(BufferedImage image, List<Point> boundaries) {
+        BufferedImage result = renderPage(image, 0, 0, boundaries);
+        return result;
+    }
+
+    // Image is a region of the source page at the offset, the boundaries are in coordinates of the page
+    public BufferedImage renderPage(BufferedImage image, int offsetX, int offsetY, List<Point> boundaries) {
+        // Crop
+        boolean cropped = false;
+        if (imageCrop != null && boundaries != null) {
+            imageCrop.setSourceOffset(offsetX, offsetY);
+            image = imageCrop.processImage(image, boundaries);
+            cropped = true;
+        }
+
+        // Resize, unless it has been done by the crop
+        if (resize != null && !(cropped && cropWithResize)) {
+            image = resize.processImage(image);
+        } else if (separableResize != null) {
+            image = separableResize.processImage(image);
+        }
+
+        // Binarization
+        if (binarization != null) {
+            image = binarization.processImage(image);
+        }
+
+        return image;
+    }
+
+    // Pages in the order of the places on the sheet, null is an empty place
+    public BufferedImage mergePages(BufferedImage... images) {
+        BufferedImage image = merge.mergeImages(images);
+        return image;
+    }
+
+    // Same stages as renderPage, but as the nodes of the lazy graph, which are evaluated by the sink.
+    // The nodes do not share the state with this renderer, so the graph may be evaluated in other threads.
+    public TileNode createPageNode(BufferedImage image, int offsetX, int offsetY, List<Point> boundaries) {
+        TileNode node = new ImageNode(image);
+
+        // Crop
+        boolean cropped = false;
+        if (imageCrop != null && boundaries != null) {
+            imageCrop.setSourceOffset(offsetX, offsetY);
+            if (imageCrop instanceof RotationImageCrop) {
+                RotationImageCrop.Transform transform = ((RotationImageCrop) imageCrop).calculateTransform(boundaries);
+                node = new SamplingNode(node, createFilterFactory(), transform.originX, transform.originY,
+                        transform.cos, transform.sin, transform.scale, transform.width, transform.height);
+            } else if (imageCrop instanceof SimpleCrop) {
+                node = new RegionNode(node, ((SimpleCrop) imageCrop).calculateRegion(boundaries));
+            } else {
+                throw new IllegalArgumentException("Image Crop is not supported by the tile graph: "
+                        + imageCrop.getClass().getSimpleName());
+            }
+            cropped = true;
+        }
+
+        // Resize, unless it has been done by the crop
+        if (resize != null && !(cropped && cropWithResize)) {
+            node = new SamplingNode(node, createFilterFactory(), 0, 0, 1, 0, resize.getFactor(),
+                    resize.getNewSize(node.getWidth()), resize.getNewSize(node.getHeight()));
+        } else if (separableResize != null) {
+            node = new ResizeNode(node, separableResize);
+        }
+
+        // Binarization, the threshold of the automatic binarization belongs to the page
+        if (binarization instanceof ImageBinarization) {
+            ImageBinarization pageBinarization = (ImageBinarization) createBinarization(settings);
+            pageBinarization.setExecutor(executor);
+            node = new BinarizationNode(node, pageBinarization, executor);
+        } else if (binarization instanceof AdaptiveImageBinarization) {
+            // Every band of the source is pulled once for the summed-area tables of the page
+            node = new AdaptiveBinarizationNode(node, (AdaptiveImageBinarization) binarization, executor);
+        }
+
+        return node;
+    }
+
+    public TileNode createMergeNode(TileNode... pages) {
+        TileNode node = new MergeNode(pages, merge.getImposition());
+        return node;
+    }
+
+    private Supplier<ImageFilter> createFilterFactory() {
+        return () -> {
+            try {
+                return createSmoothFilter(settings);
+            } catch (Exception e) {
+                throw new IllegalStateException("Smooth Filter can not be created: " + settings.getSmoothFilter(), e);
+            }
+        };
+    }
+}
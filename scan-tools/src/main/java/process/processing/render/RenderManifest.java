@@ -0,0 +1,68 @@
+package process.processing.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import utils.JSONUtils;
+
+// Hashes of everything an output file was rendered from, by the name of the output file.
+// It is saved after every written file, so an interrupted render continues from the first missing file.
+public class RenderManifest {
+    private static final String MANIFEST_FILENAME = "render-manifest.json";
+
+    private File manifestFile;
+    private Map<String, String> hashes;
+
+    public RenderManifest(File outputFolder) {
+        manifestFile = new File(outputFolder, MANIFEST_FILENAME);
+        hashes = new TreeMap<>();
+        loadData();
+    }
+
+    private void loadData() {
+        if (!manifestFile.exists()) {
+            return;
+        }
+
+        try {
+            TypeReference<Map<String, String>> typeReference = new TypeReference<Map<String, String>>() {};
+            Map<String, String> data = JSONUtils.loadFromDisk(manifestFile, typeReference);
+            hashes.putAll(data);
+        } catch (Exception e) {
+            // Broken manifest only means that all the files are rendered again
+            hashes.clear();
+        }
+    }
+
+    public synchronized boolean isUpToDate(File outputFile, String hash) {
+        boolean result = outputFile.exists() && hash.equals(hashes.get(outputFile.getName()));
+        return result;
+    }
+
+    public synchronized void saveHash(String outputFileName, String hash) throws IOException {
+        hashes.put(outputFileName, hash);
+        JSONUtils.saveToDisk(hashes, manifestFile);
+    }
+
+    public static String createHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder sb = new StringBuilder();
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
@@ -1,13 +1,8 @@
 package process.processing.render;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.List;
 
-import javax.imageio.ImageIO;
-
-import filters.FilenameFilterImages;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
@@ -19,19 +14,7 @@ import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
 import process.ApplicationContext;
-import process.dto.Point;
 import process.processing.AbstractNode;
-import process.processing.render.binarization.ImageBinarization;
-import process.processing.render.crop.AbstractImageCrop;
-import process.processing.render.crop.RotationImageCrop;
-import process.processing.render.crop.SimpleCrop;
-import process.processing.render.filters.AbstractImageFilter;
-import process.processing.render.filters.BilinearFilter;
-import process.processing.render.filters.BinarizationFilter;
-import process.processing.render.filters.ImageFilter;
-import process.processing.render.filters.RoughFilter;
-import process.processing.render.merge.ImageMerge;
-import process.processing.render.resize.ImageResize;
 import utils.FileUtils;
 import utils.ThreadUtils;
 
@@ -44,6 +27,8 @@ public class RenderNode extends AbstractNode {
     private static final String DEFAULT_BINARIZATION_WEIGHT_GREEN = "1";
     private static final String DEFAULT_BINARIZATION_WEIGHT_BLUE = "1";
 
+    private static final long BYTES_IN_MB = 1024 * 1024;
+
     private ApplicationContext applicationContext;
 
     @FXML
@@ -52,6 +37,10 @@ public class RenderNode extends AbstractNode {
     @FXML
     private ComboBox<SmoothFilters> smoothFilterComboBox;
 
+    @FXML
+    private CheckBox grayscaleCheckBox;
+    @FXML
+    private CheckBox incrementalCheckBox;
     @FXML
     private CheckBox imageCropCheckBox;
     @FXML
@@ -63,10 +52,14 @@ public class RenderNode extends AbstractNode {
     private TextField sourceDPITextField;
     @FXML
     private TextField targetDPITextField;
+    @FXML
+    private ComboBox<ResizeMethods> resizeMethodComboBox;
 
     @FXML
     private CheckBox imageBinarizationCheckBox;
     @FXML
+    private ComboBox<BinarizationMethods> binarizationMethodComboBox;
+    @FXML
     private TextField thresholdTextField;
     @FXML
     private TextField weightRedTextField;
@@ -79,6 +72,29 @@ public class RenderNode extends AbstractNode {
     private CheckBox imageMergeCheckBox;
     @FXML
     private ComboBox<ImageMergeMethods> imageMergeComboBox;
+    @FXML
+    private TextField mergeColumnsTextField;
+    @FXML
+    private TextField mergeRowsTextField;
+    @FXML
+    private TextField mergeGutterTextField;
+    @FXML
+    private ComboBox<ImpositionOrders> mergeOrderComboBox;
+    @FXML
+    private ComboBox<ImpositionAlignments> mergeHorizontalAlignmentComboBox;
+    @FXML
+    private ComboBox<ImpositionAlignments> mergeVerticalAlignmentComboBox;
+
+    @FXML
+    private TextField threadsTextField;
+    @FXML
+    private TextField decodeWorkersTextField;
+    @FXML
+    private TextField transformWorkersTextField;
+    @FXML
+    private TextField encodeWorkersTextField;
+    @FXML
+    private TextField memoryBudgetTextField;
 
     @FXML
     private ProgressBar progressBar;
@@ -97,13 +113,32 @@ public class RenderNode extends AbstractNode {
 
         sourceDPITextField.setText(DEFAULT_RESIZE_SOURCE_DPI);
         targetDPITextField.setText(DEFAULT_RESIZE_TARGET_DPI);
+        initComboBox(resizeMethodComboBox, ResizeMethodListCell.class, ResizeMethods.values());
 
+        initComboBox(binarizationMethodComboBox, BinarizationMethodListCell.class, BinarizationMethods.values());
         thresholdTextField.setText(DEFAULT_BINARIZATION_THRESHOLD);
         weightRedTextField.setText(DEFAULT_BINARIZATION_WEIGHT_RED);
         weightGreenTextField.setText(DEFAULT_BINARIZATION_WEIGHT_GREEN);
         weightBlueTextField.setText(DEFAULT_BINARIZATION_WEIGHT_BLUE);
 
+        RenderSettings defaultSettings = new RenderSettings();
         initComboBox(imageMergeComboBox, ImageMergeListCell.class, ImageMergeMethods.values());
+        mergeColumnsTextField.setText(String.valueOf(defaultSettings.getMergeColumns()));
+        mergeRowsTextField.setText(String.valueOf(defaultSettings.getMergeRows()));
+        mergeGutterTextField.setText(String.valueOf(defaultSettings.getMergeGutter()));
+        initComboBox(mergeOrderComboBox, ImpositionOrderListCell.class, ImpositionOrders.values());
+        initComboBox(mergeHorizontalAlignmentComboBox, ImpositionAlignmentListCell.class,
+                ImpositionAlignments.values());
+        mergeHorizontalAlignmentComboBox.getSelectionModel().select(defaultSettings.getMergeHorizontalAlignment());
+        initComboBox(mergeVerticalAlignmentComboBox, ImpositionAlignmentListCell.class,
+                ImpositionAlignments.values());
+        mergeVerticalAlignmentComboBox.getSelectionModel().select(defaultSettings.getMergeVerticalAlignment());
+
+        threadsTextField.setText(String.valueOf(defaultSettings.getThreadsPerPage()));
+        decodeWorkersTextField.setText(String.valueOf(defaultSettings.getDecodeWorkers()));
+        transformWorkersTextField.setText(String.valueOf(defaultSettings.getTransformWorkers()));
+        encodeWorkersTextField.setText(String.valueOf(defaultSettings.getEncodeWorkers()));
+        memoryBudgetTextField.setText(String.valueOf(defaultSettings.getMemoryBudget() / BYTES_IN_MB));
     }
 
     @FXML
@@ -127,156 +162,69 @@ public class RenderNode extends AbstractNode {
         }
 
         private void runWithExceptions() throws Exception {
-            boolean needCrop = imageCropCheckBox.isSelected();
-            boolean needResize = imageResizeCheckBox.isSelected();
-            boolean needBinarization = imageBinarizationCheckBox.isSelected();
-            boolean needMerge = imageMergeCheckBox.isSelected();
-
             File inputFolder = applicationContext.getWorkFolder();
             File outputFolder = new File(inputFolder, "rendered");
             outputFolder.mkdir();
 
             applicationContext.reloadSelectionBoundaries(applicationContext.getWorkFolder());
 
-            SmoothFilters selectedSmoothFilter = smoothFilterComboBox.getSelectionModel().getSelectedItem();
-            ImageCrops selectedImageCrop = imageCropComboBox.getSelectionModel().getSelectedItem();
-
-            // Preparing processors
-            ImageFilter smoothFilter = selectedSmoothFilter.cl.newInstance();
-
-            AbstractImageCrop imageCrop = null;
-            if (needCrop) {
-                imageCrop = selectedImageCrop.cl.newInstance();
-                imageCrop.setSmoothFilter(smoothFilter);
-            }
-
-            ImageResize resize = null;
-            if (needResize) {
-                resize = new ImageResize();
-                resize.setSmoothFilter(smoothFilter);
-                int sourceDPI = Integer.parseInt(sourceDPITextField.getText());
-                resize.setSourceDPI(sourceDPI);
-                int targetDPI = Integer.parseInt(targetDPITextField.getText());
-                resize.setTargetDPI(targetDPI);
-            }
-
-            ImageBinarization binarization = null;
-            if (needBinarization) {
-                BinarizationFilter binarizationFilter = new BinarizationFilter();
-                double weightRed = Double.parseDouble(weightRedTextField.getText());
-                binarizationFilter.setWeightRed(weightRed);
-                double weightGreen = Double.parseDouble(weightGreenTextField.getText());
-                binarizationFilter.setWeightGreen(weightGreen);
-                double weightBlue = Double.parseDouble(weightBlueTextField.getText());
-                binarizationFilter.setWeightBlue(weightBlue);
-                double threshold = Double.parseDouble(thresholdTextField.getText());
-                threshold *= weightRed + weightGreen + weightBlue;
-                binarizationFilter.setThreshold(threshold);
-
-                binarization = new ImageBinarization();
-                binarization.setColorFilter(binarizationFilter);
-            }
-
-            ImageMerge merge = null;
-            if (needMerge) {
-                merge = new ImageMerge();
-                ImageMergeMethods mergeMethod = imageMergeComboBox.getSelectionModel().getSelectedItem();
-                merge.setMergeMethod(mergeMethod);
-            }
-
-            File[] files = inputFolder.listFiles(new FilenameFilterImages());
-            int amountOfImages = files.length;
-            if (amountOfImages == 0) {
-                applicationContext.showWarning("There is no images to render", null);
-                return;
-            }
-
-            BufferedImage previousImage = null;
-            int mergeCounter = 1;
-            String fileNameBase = createFileNameBase(files[0].getName());
-            boolean sentNoBoundariesWarning = false;
-            progress = 0;
-            ThreadUtils.runLater(new UpdateProgressTask());
-            for (int i = 0; i < amountOfImages; i++) {
-                File inputFile = files[i];
-                BufferedImage image = ImageIO.read(inputFile);
-
-                // Crop
-                String fileName = inputFile.getName();
-                if (needCrop) {
-                    List<Point> boundaries = applicationContext.getSelectionBoundaries(inputFolder, fileName);
-                    if (boundaries == null) {
-                        if (!sentNoBoundariesWarning) {
-                            applicationContext.showWarning("Not all Images has been Marked Up", null);
-                        }
-                    } else {
-                        image = imageCrop.processImage(image, boundaries);
-                    }
-                }
-
-                // Resize
-                if (needResize) {
-                    image = resize.processImage(image);
-                }
-
-                // Binarization
-                if (needBinarization) {
-                    image = binarization.processImage(image);
-                }
-
-                // Merge Images
-                if (needMerge) {
-                    int remainder;
-                    switch (merge.getMergeMethod()) {
-                        case Method1ImageOnFirstPage:
-                            remainder = 0;
-                            break;
-                        case Method2ImagesOnFirstPage:
-                            remainder = 1;
-                            break;
-                        default:
-                            throw new IllegalArgumentException("Merge Method is not supported: " + merge.getMergeMethod());
-                    }
-
-                    if (i % 2 == remainder) {
-                        image = merge.mergeImages(previousImage, image);
-                        saveMergedImage(image, outputFolder, fileNameBase, mergeCounter++);
-                        previousImage = null;
-                    } else {
-                        previousImage = image;
-                    }
-                } else {
-                    // TODO Ask User on the UI
-                    String formatName = needBinarization ? "png" : "bmp";
-                    String outputFileName = FileUtils.getFileName(fileName) + "." + formatName;
-                    File outputFile = new File(outputFolder, outputFileName );
-                    ImageIO.write(image, formatName, outputFile);
-                }
-
-                // Update Progress
-                progress = (double) (i + 1) / amountOfImages;
-                ThreadUtils.runLater(new UpdateProgressTask());
-            }
+            RenderSettings settings = createSettings();
+            RenderPipeline pipeline = new RenderPipeline(settings,
+                    fileName -> applicationContext.getSelectionBoundaries(inputFolder, fileName),
+                    new RenderListener());
+            pipeline.render(inputFolder, outputFolder);
+        }
 
-            if (needMerge && previousImage != null) {
-                BufferedImage image = merge.mergeImages(previousImage, null);
-                saveMergedImage(image, outputFolder, fileNameBase, mergeCounter++);
-            }
+        private RenderSettings createSettings() {
+            RenderSettings settings = new RenderSettings();
+            settings.setGrayscale(grayscaleCheckBox.isSelected());
+            settings.setIncremental(incrementalCheckBox.isSelected());
+            settings.setSmoothFilter(smoothFilterComboBox.getSelectionModel().getSelectedItem());
+
+            settings.setCrop(imageCropCheckBox.isSelected());
+            settings.setImageCrop(imageCropComboBox.getSelectionModel().getSelectedItem());
+
+            settings.setResize(imageResizeCheckBox.isSelected());
+            settings.setSourceDPI(Integer.parseInt(sourceDPITextField.getText()));
+            settings.setTargetDPI(Integer.parseInt(targetDPITextField.getText()));
+            settings.setResizeMethod(resizeMethodComboBox.getSelectionModel().getSelectedItem());
+
+            settings.setBinarization(imageBinarizationCheckBox.isSelected());
+            settings.setBinarizationMethod(binarizationMethodComboBox.getSelectionModel().getSelectedItem());
+            settings.setThreshold(Double.parseDouble(thresholdTextField.getText()));
+            settings.setWeightRed(Double.parseDouble(weightRedTextField.getText()));
+            settings.setWeightGreen(Double.parseDouble(weightGreenTextField.getText()));
+            settings.setWeightBlue(Double.parseDouble(weightBlueTextField.getText()));
+
+            settings.setMerge(imageMergeCheckBox.isSelected());
+            settings.setMergeMethod(imageMergeComboBox.getSelectionModel().getSelectedItem());
+            settings.setMergeColumns(Integer.parseInt(mergeColumnsTextField.getText()));
+            settings.setMergeRows(Integer.parseInt(mergeRowsTextField.getText()));
+            settings.setMergeGutter(Integer.parseInt(mergeGutterTextField.getText()));
+            settings.setMergeOrder(mergeOrderComboBox.getSelectionModel().getSelectedItem());
+            settings.setMergeHorizontalAlignment(
+                    mergeHorizontalAlignmentComboBox.getSelectionModel().getSelectedItem());
+            settings.setMergeVerticalAlignment(mergeVerticalAlignmentComboBox.getSelectionModel().getSelectedItem());
+
+            settings.setThreadsPerPage(Integer.parseInt(threadsTextField.getText()));
+            settings.setDecodeWorkers(Integer.parseInt(decodeWorkersTextField.getText()));
+            settings.setTransformWorkers(Integer.parseInt(transformWorkersTextField.getText()));
+            settings.setEncodeWorkers(Integer.parseInt(encodeWorkersTextField.getText()));
+            settings.setMemoryBudget(Long.parseLong(memoryBudgetTextField.getText()) * BYTES_IN_MB);
+            return settings;
         }
+    }
 
-        private String createFileNameBase(String fileName) {
-            String base = FileUtils.getFileName(fileName);
-            base = base.replaceAll("[0-9]+$", "");
-            return base;
+    private class RenderListener implements RenderPipeline.Listener {
+        @Override
+        public void onProgress(double progress) {
+            RenderNode.this.progress = progress;
+            ThreadUtils.runLater(new UpdateProgressTask());
         }
 
-        private void saveMergedImage(BufferedImage image, File outputFolder, String fileNameBase, int counter)
-                throws IOException {
-            // TODO Ask User on UI for the output format
-            String formatName = "png";
-            String mergedFileName = fileNameBase + String.format("%04d", counter) + "." + formatName;
-            File outputFile = new File(outputFolder, mergedFileName);
-            ImageIO.write(image, formatName, outputFile);
+        @Override
+        public void onWarning(String message) {
+            Platform.runLater(() -> applicationContext.showWarning(message, null));
         }
     }
 
@@ -289,82 +237,57 @@ public class RenderNode extends AbstractNode {
         }
     }
 
-    public static enum SmoothFilters {
-        BilinearFilter("Bilinear Filter", BilinearFilter.class),
-        RoughFilter("Rough Filter", RoughFilter.class);
-
-        private String text;
-        private Class<? extends AbstractImageFilter> cl;
-
-        private SmoothFilters(String text, Class<? extends AbstractImageFilter> cl) {
-            this.text = text;
-            this.cl = cl;
-        }
-
-        public String getText() {
-            return text;
-        }
-
-        public Class<? extends AbstractImageFilter> getCl() {
-            return cl;
+    public static class SmoothFilterListCell extends ListCell<SmoothFilters> {
+        @Override
+        protected void updateItem(SmoothFilters item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(item == null ? null : item.getText());
         }
     }
 
-    public static enum ImageCrops {
-        RotationImageCrop("Rotate and crop", RotationImageCrop.class),
-        SimpleImageCrop("Simple crop", SimpleCrop.class);
-
-        private String text;
-        private Class<? extends AbstractImageCrop> cl;
-
-        private ImageCrops(String text, Class<? extends AbstractImageCrop> cl) {
-            this.text = text;
-            this.cl = cl;
-        }
-
-        public String getText() {
-            return text;
-        }
-
-        public Class<? extends AbstractImageCrop> getCl() {
-            return cl;
+    public static class ImageCropListCell extends ListCell<ImageCrops> {
+        @Override
+        protected void updateItem(ImageCrops item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(item == null ? null : item.getText());
         }
     }
 
-    public static enum ImageMergeMethods {
-        Method1ImageOnFirstPage("1 Image"),
-        Method2ImagesOnFirstPage("2 Images");
-
-        private String text;
-
-        private ImageMergeMethods(String text) {
-            this.text = text;
+    public static class ResizeMethodListCell extends ListCell<ResizeMethods> {
+        @Override
+        protected void updateItem(ResizeMethods item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(item == null ? null : item.getText());
         }
+    }
 
-        public String getText() {
-            return text;
+    public static class BinarizationMethodListCell extends ListCell<BinarizationMethods> {
+        @Override
+        protected void updateItem(BinarizationMethods item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(item == null ? null : item.getText());
         }
     }
 
-    public static class SmoothFilterListCell extends ListCell<SmoothFilters> {
+    public static class ImageMergeListCell extends ListCell<ImageMergeMethods> {
         @Override
-        protected void updateItem(SmoothFilters item, boolean empty) {
+        protected void updateItem(ImageMergeMethods item, boolean empty) {
             super.updateItem(item, empty);
             setText(item == null ? null : item.getText());
         }
     }
 
-    public static class ImageCropListCell extends ListCell<ImageCrops> {
+    public static class ImpositionOrderListCell extends ListCell<ImpositionOrders> {
         @Override
-        protected void updateItem(ImageCrops item, boolean empty) {
+        protected void updateItem(ImpositionOrders item, boolean empty) {
             super.updateItem(item, empty);
             setText(item == null ? null : item.getText());
         }
     }
 
-    public static class ImageMergeListCell extends ListCell<ImageMergeMethods> {
+    public static class ImpositionAlignmentListCell extends ListCell<ImpositionAlignments> {
         @Override
-        protected void updateItem(ImageMergeMethods item, boolean empty) {
+        protected void updateItem(ImpositionAlignments item, boolean empty) {
             super.updateItem(item, empty);
             setText(item == null ? null : item.getText());
         }
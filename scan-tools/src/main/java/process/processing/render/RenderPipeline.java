@@ -0,0 +1,614 @@
+package process.processing.render;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.imageio.ImageIO;
+
+import encoders.ImageStreamWriter;
+import executors.TileExecutor;
+import filters.FilenameFilterImages;
+import process.dto.Point;
+import process.processing.render.graph.TileGraph;
+import process.processing.render.graph.TileNode;
+import utils.FileUtils;
+import utils.ImageUtils;
+
+// Pages go through 3 stages connected by bounded queues: decode, transform (crop, resize, binarize, merge)
+// and encode. Every stage has its own workers, so pages may finish out of order, but pages of merged sheets
+// and names of output files are planned before the start and do not depend on it.
+// Sheets, which are rendered from the same sources, markups and settings as the existing output files,
+// are skipped, the hashes of them are kept in the RenderManifest of the output folder.
+// Sheets are admitted to the pipeline by the MemoryBudget, the bytes of a sheet are estimated by the sizes
+// of the pages from the headers of the files and by the enabled stages. A page, which does not fit into the budget
+// even by the marked up region, is rendered by the decoder in strips, if the StripRenderer supports its stages.
+// With the tile graph the transform stage only builds the graph of the sheet and the encoder evaluates it.
+public class RenderPipeline {
+    // Pixels around the markup of the decoded region, so the smooth filter samples the same pixels
+    // as on the whole page
+    private static final int REGION_MARGIN = 4;
+
+    private RenderSettings settings;
+    private Function<String, List<Point>> boundariesProvider;
+    private Listener listener;
+
+    private File inputFolder;
+    private File outputFolder;
+    private File[] files;
+    private List<Sheet> sheets;
+    // Sheet and position on the sheet of every page
+    private Sheet[] sheetOfPage;
+    private int[] positionOfPage;
+    private List<Sheet> sheetsToRender;
+    private int pagesToRender;
+    private RenderManifest manifest;
+
+    private TileExecutor executor;
+    private BlockingQueue<DecodedPage> decodedPages;
+    private BlockingQueue<Sheet> renderedSheets;
+    private MemoryBudget memoryBudget;
+    private AtomicInteger nextSheet;
+    private AtomicInteger activeDecoders;
+    private AtomicInteger activeTransformers;
+    private AtomicInteger renderedPages;
+    private AtomicInteger writtenFiles;
+    private AtomicInteger skippedFiles;
+    private AtomicLong decodedPixels;
+    private AtomicBoolean sentNoBoundariesWarning;
+    private List<Thread> threads;
+    private volatile Exception error;
+
+    public RenderPipeline(RenderSettings settings, Function<String, List<Point>> boundariesProvider,
+            Listener listener) {
+        this.settings = settings;
+        this.boundariesProvider = boundariesProvider;
+        this.listener = listener;
+    }
+
+    public void render(File inputFolder, File outputFolder) throws Exception {
+        this.inputFolder = inputFolder;
+        this.outputFolder = outputFolder;
+        files = inputFolder.listFiles(new FilenameFilterImages());
+        // Pages of merged sheets depend on the order of the files, it is the order of names as on NTFS
+        Arrays.sort(files);
+        if (files.length == 0) {
+            listener.onWarning("There is no images to render");
+            return;
+        }
+
+        planSheets();
+        selectSheetsToRender();
+        if (sheetsToRender.isEmpty()) {
+            listener.onProgress(1);
+            return;
+        }
+
+        executor = new TileExecutor(settings.getThreadsPerPage());
+        decodedPages = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        renderedSheets = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        memoryBudget = new MemoryBudget(settings.getMemoryBudget());
+        nextSheet = new AtomicInteger();
+        activeDecoders = new AtomicInteger(settings.getDecodeWorkers());
+        activeTransformers = new AtomicInteger(settings.getTransformWorkers());
+        renderedPages = new AtomicInteger();
+        writtenFiles = new AtomicInteger();
+        decodedPixels = new AtomicLong();
+        sentNoBoundariesWarning = new AtomicBoolean();
+        error = null;
+        listener.onProgress(0);
+
+        threads = new ArrayList<>();
+        for (int i = 0; i < settings.getDecodeWorkers(); i++) {
+            threads.add(new Thread(this::decode, "Render Decoder " + i));
+        }
+        for (int i = 0; i < settings.getTransformWorkers(); i++) {
+            PageRenderer pageRenderer = new PageRenderer(settings, executor);
+            threads.add(new Thread(() -> transform(pageRenderer), "Render Transformer " + i));
+        }
+        for (int i = 0; i < settings.getEncodeWorkers(); i++) {
+            threads.add(new Thread(this::encode, "Render Encoder " + i));
+        }
+
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        executor.shutdown();
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void planSheets() {
+        sheets = new ArrayList<>();
+        sheetOfPage = new Sheet[files.length];
+        positionOfPage = new int[files.length];
+
+        if (!settings.isMerge()) {
+            // TODO Ask User on the UI
+            String formatName = settings.getOutputFormat();
+            if (formatName == null) {
+                formatName = settings.isBinarization() || settings.isGrayscale() ? "png" : "bmp";
+            }
+            for (int i = 0; i < files.length; i++) {
+                String outputFileName = FileUtils.getFileName(files[i].getName()) + "." + formatName;
+                addSheet(new int[] { i }, outputFileName, formatName);
+            }
+            return;
+        }
+
+        // Pages of every sheet are planned by the imposition, the last sheet may have empty places
+        String formatName = settings.getOutputFormat() == null ? "png" : settings.getOutputFormat();
+        String fileNameBase = createFileNameBase(files[0].getName());
+        int counter = 1;
+        for (int[] pages : PageRenderer.createImposition(settings).planSheets(files.length)) {
+            String mergedFileName = createMergedFileName(fileNameBase, counter++, formatName);
+            addSheet(pages, mergedFileName, formatName);
+        }
+    }
+
+    private void addSheet(int[] pages, String outputFileName, String formatName) {
+        Sheet sheet = new Sheet(pages, outputFileName, formatName);
+        sheets.add(sheet);
+        for (int position = 0; position < pages.length; position++) {
+            if (pages[position] >= 0) {
+                sheetOfPage[pages[position]] = sheet;
+                positionOfPage[pages[position]] = position;
+                sheet.remainingPages++;
+            }
+        }
+    }
+
+    private void selectSheetsToRender() throws Exception {
+        manifest = new RenderManifest(outputFolder);
+        skippedFiles = new AtomicInteger();
+
+        sheetsToRender = new ArrayList<>();
+        pagesToRender = 0;
+        for (Sheet sheet : sheets) {
+            if (settings.isCrop()) {
+                for (int position = 0; position < sheet.pages.length; position++) {
+                    if (sheet.pages[position] >= 0) {
+                        sheet.boundaries.set(position, boundariesProvider.apply(files[sheet.pages[position]].getName()));
+                    }
+                }
+            }
+
+            sheet.hash = createSheetHash(sheet);
+            File outputFile = new File(outputFolder, sheet.outputFileName);
+            if (settings.isIncremental() && manifest.isUpToDate(outputFile, sheet.hash)) {
+                skippedFiles.incrementAndGet();
+                continue;
+            }
+
+            // Merged pages are always rendered together, because they are one output file
+            sheetsToRender.add(sheet);
+            pagesToRender += sheet.remainingPages;
+        }
+    }
+
+    private String createSheetHash(Sheet sheet) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(settings.getImageSettingsKey()).append('\n');
+        for (int position = 0; position < sheet.pages.length; position++) {
+            if (sheet.pages[position] < 0) {
+                sb.append("empty\n");
+                continue;
+            }
+
+            File file = files[sheet.pages[position]];
+            sb.append(file.getName()).append(", size=").append(file.length());
+            sb.append(", modified=").append(file.lastModified());
+            if (settings.isCrop()) {
+                sb.append(", markup=").append(sheet.boundaries.get(position));
+            }
+            sb.append('\n');
+        }
+
+        String result = RenderManifest.createHash(sb.toString());
+        return result;
+    }
+
+    // Estimates memory of the sheet, if it does not fit into the budget alone,
+    // only the marked up regions of the pages are decoded
+    private void estimateSheetMemory(Sheet sheet) throws IOException {
+        for (int position = 0; position < sheet.pages.length; position++) {
+            if (sheet.pages[position] >= 0) {
+                sheet.sizes[position] = ImageUtils.readImageSize(files[sheet.pages[position]]);
+            }
+        }
+
+        sheet.bytes = estimateSheetBytes(sheet);
+        if (memoryBudget.fits(sheet.bytes)) {
+            return;
+        }
+
+        for (int position = 0; position < sheet.pages.length; position++) {
+            List<Point> boundaries = sheet.boundaries.get(position);
+            if (sheet.pages[position] >= 0 && boundaries != null) {
+                sheet.regions[position] = createRegion(sheet.sizes[position], boundaries);
+            }
+        }
+        sheet.bytes = estimateSheetBytes(sheet);
+    }
+
+    private long estimateSheetBytes(Sheet sheet) {
+        // Images of the stages are 1 byte per pixel for grayscale and 4 bytes per pixel for the other ones
+        int bytesPerPixel = settings.isGrayscale() ? 1 : 4;
+        long result = 0;
+        long maxOutputBytes = 0;
+        for (int position = 0; position < sheet.pages.length; position++) {
+            if (sheet.pages[position] < 0) {
+                continue;
+            }
+
+            Rectangle region = sheet.regions[position];
+            Dimension size = region == null ? sheet.sizes[position] : region.getSize();
+            long pixels = (long) size.width * size.height;
+            // Decoded image has up to 4 bytes per pixel and it is converted to gray after decoding
+            result += pixels * (settings.isGrayscale() ? 5 : 4);
+
+            List<Point> boundaries = sheet.boundaries.get(position);
+            if (settings.isCrop() && boundaries != null) {
+                Rectangle bounds = getBounds(boundaries);
+                pixels = (long) bounds.width * bounds.height;
+                result += pixels * bytesPerPixel;
+            }
+
+            if (settings.isResize()) {
+                double scale = (double) settings.getTargetDPI() / settings.getSourceDPI();
+                // Separable resize keeps the source rows resized in width, 4 bytes per pixel
+                if (settings.getResizeMethod().getKernel() != null) {
+                    result += (long) Math.ceil(pixels * scale) * 4;
+                }
+                pixels = (long) Math.ceil(pixels * scale * scale);
+                result += pixels * bytesPerPixel;
+            }
+
+            long outputBytes = pixels * bytesPerPixel;
+            if (settings.isBinarization()) {
+                outputBytes = pixels / 8 + 1;
+                result += outputBytes;
+            }
+            maxOutputBytes = Math.max(maxOutputBytes, outputBytes);
+        }
+
+        // Merged image has a place for every page, also for the empty one
+        if (settings.isMerge()) {
+            result += maxOutputBytes * sheet.pages.length;
+        }
+
+        return result;
+    }
+
+    private Rectangle createRegion(Dimension size, List<Point> boundaries) {
+        Rectangle bounds = getBounds(boundaries);
+        bounds.grow(REGION_MARGIN, REGION_MARGIN);
+        Rectangle result = bounds.intersection(new Rectangle(size));
+        return result.isEmpty() ? null : result;
+    }
+
+    private Rectangle getBounds(List<Point> boundaries) {
+        int minX = (int) Math.floor(boundaries.stream().mapToDouble(point -> point.x).min().getAsDouble());
+        int maxX = (int) Math.ceil(boundaries.stream().mapToDouble(point -> point.x).max().getAsDouble());
+        int minY = (int) Math.floor(boundaries.stream().mapToDouble(point -> point.y).min().getAsDouble());
+        int maxY = (int) Math.ceil(boundaries.stream().mapToDouble(point -> point.y).max().getAsDouble());
+        Rectangle result = new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+        return result;
+    }
+
+    private String createFileNameBase(String fileName) {
+        String base = FileUtils.getFileName(fileName);
+        base = base.replaceAll("[0-9]+$", "");
+        return base;
+    }
+
+    private String createMergedFileName(String fileNameBase, int counter, String formatName) {
+        String mergedFileName = fileNameBase + String.format("%04d", counter) + "." + formatName;
+        return mergedFileName;
+    }
+
+    private void decode() {
+        try {
+            StripRenderer stripRenderer = null;
+            int next;
+            while ((next = nextSheet.getAndIncrement()) < sheetsToRender.size() && error == null) {
+                Sheet sheet = sheetsToRender.get(next);
+                estimateSheetMemory(sheet);
+                boolean renderInStrips = !memoryBudget.fits(sheet.bytes)
+                        && StripRenderer.isSupported(settings, sheet.boundaries.get(0), sheet.formatName);
+                if (renderInStrips) {
+                    if (stripRenderer == null) {
+                        stripRenderer = new StripRenderer(settings, executor);
+                    }
+                    sheet.bytes = stripRenderer.estimateBytes(sheet.sizes[0]);
+                }
+
+                // Sheets are admitted in order, so a big sheet is not overtaken by the following small ones
+                memoryBudget.acquire(next, sheet.bytes);
+                if (renderInStrips) {
+                    renderInStrips(stripRenderer, sheet);
+                    continue;
+                }
+
+                for (int position = 0; position < sheet.pages.length; position++) {
+                    int index = sheet.pages[position];
+                    if (index < 0) {
+                        continue;
+                    }
+
+                    Rectangle region = sheet.regions[position];
+                    BufferedImage image = region == null ? ImageIO.read(files[index])
+                            : ImageUtils.readImage(files[index], region);
+                    image = ImageUtils.convertDecodedGray(image);
+                    decodedPixels.addAndGet((long) image.getWidth() * image.getHeight());
+                    // All following stages keep 8-bit gray images gray
+                    if (settings.isGrayscale()) {
+                        image = ImageUtils.convertToGray(image);
+                    }
+                    decodedPages.put(new DecodedPage(index, image, region));
+                }
+            }
+
+            // The last decoder tells the transformers that there are no more pages
+            if (activeDecoders.decrementAndGet() == 0) {
+                for (int i = 0; i < settings.getTransformWorkers(); i++) {
+                    decodedPages.put(DecodedPage.END);
+                }
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    // Sheet is not merged, so it has only one page
+    private void renderInStrips(StripRenderer stripRenderer, Sheet sheet) throws Exception {
+        List<Point> boundaries = sheet.boundaries.get(0);
+        checkBoundaries(boundaries);
+
+        File temporaryFile = getTemporaryFile(sheet);
+        try {
+            long pixels = stripRenderer.renderPage(files[sheet.pages[0]], boundaries, temporaryFile,
+                    sheet.formatName);
+            decodedPixels.addAndGet(pixels);
+            completeOutput(sheet, temporaryFile);
+        } finally {
+            // Temporary file is left only by a failed write, it has been moved otherwise
+            temporaryFile.delete();
+        }
+
+        listener.onProgress((double) renderedPages.incrementAndGet() / pagesToRender);
+    }
+
+    private void checkBoundaries(List<Point> boundaries) {
+        if (settings.isCrop() && boundaries == null && sentNoBoundariesWarning.compareAndSet(false, true)) {
+            listener.onWarning("Not all Images has been Marked Up");
+        }
+    }
+
+    private void transform(PageRenderer pageRenderer) {
+        try {
+            DecodedPage page;
+            while ((page = decodedPages.take()) != DecodedPage.END) {
+                Sheet sheet = sheetOfPage[page.index];
+                List<Point> boundaries = sheet.boundaries.get(positionOfPage[page.index]);
+                checkBoundaries(boundaries);
+
+                if (settings.isTileGraph()) {
+                    addPageNode(pageRenderer, sheet, page, boundaries);
+                } else {
+                    addPageImage(pageRenderer, sheet, page, boundaries);
+                }
+
+                listener.onProgress((double) renderedPages.incrementAndGet() / pagesToRender);
+            }
+
+            if (activeTransformers.decrementAndGet() == 0) {
+                for (int i = 0; i < settings.getEncodeWorkers(); i++) {
+                    renderedSheets.put(Sheet.END);
+                }
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private void addPageImage(PageRenderer pageRenderer, Sheet sheet, DecodedPage page, List<Point> boundaries)
+            throws InterruptedException {
+        BufferedImage image = page.region == null ? pageRenderer.renderPage(page.image, boundaries)
+                : pageRenderer.renderPage(page.image, page.region.x, page.region.y, boundaries);
+
+        if (sheet.addPage(positionOfPage[page.index], image)) {
+            if (settings.isMerge()) {
+                sheet.image = pageRenderer.mergePages(sheet.images);
+                sheet.images = null;
+            } else {
+                sheet.image = sheet.images[0];
+            }
+            renderedSheets.put(sheet);
+        }
+    }
+
+    // Only the graph of the stages is built here, the stages are evaluated by the encoder, when it pulls the rows
+    private void addPageNode(PageRenderer pageRenderer, Sheet sheet, DecodedPage page, List<Point> boundaries)
+            throws InterruptedException {
+        int offsetX = page.region == null ? 0 : page.region.x;
+        int offsetY = page.region == null ? 0 : page.region.y;
+        TileNode node = pageRenderer.createPageNode(page.image, offsetX, offsetY, boundaries);
+
+        if (sheet.addPage(positionOfPage[page.index], node)) {
+            if (settings.isMerge()) {
+                sheet.node = pageRenderer.createMergeNode(sheet.nodes);
+            } else {
+                sheet.node = sheet.nodes[0];
+            }
+            sheet.nodes = null;
+            renderedSheets.put(sheet);
+        }
+    }
+
+    private void encode() {
+        try {
+            Sheet sheet;
+            while ((sheet = renderedSheets.take()) != Sheet.END) {
+                File temporaryFile = getTemporaryFile(sheet);
+                try {
+                    if (sheet.node != null) {
+                        writeNode(sheet.node, sheet.formatName, temporaryFile);
+                        sheet.node = null;
+                    } else {
+                        ImageIO.write(sheet.image, sheet.formatName, temporaryFile);
+                        sheet.image = null;
+                    }
+                    completeOutput(sheet, temporaryFile);
+                } finally {
+                    // Temporary file is left only by a failed write, it has been moved otherwise
+                    temporaryFile.delete();
+                }
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    // Formats, which are written by rows, get the rows straight from the graph, the others get the whole image
+    private void writeNode(TileNode node, String formatName, File file) throws IOException {
+        if (StripRenderer.isFormatSupported(formatName)) {
+            try (ImageStreamWriter writer = StripRenderer.createStreamWriter(file, formatName, node.getWidth(),
+                    node.getHeight(), TileGraph.getOutputImageType(node))) {
+                TileGraph.write(node, writer, executor);
+            }
+        } else {
+            ImageIO.write(TileGraph.toImage(node, executor), formatName, file);
+        }
+    }
+
+    // Output file is replaced only when it is completely written, the temporary file of a failed write
+    // is deleted, so an interrupted render does not leave broken files behind
+    private File getTemporaryFile(Sheet sheet) {
+        File result = new File(outputFolder, sheet.outputFileName + ".part");
+        return result;
+    }
+
+    private void completeOutput(Sheet sheet, File temporaryFile) throws IOException {
+        File outputFile = new File(outputFolder, sheet.outputFileName);
+        Files.move(temporaryFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        memoryBudget.release(sheet.bytes);
+        manifest.saveHash(sheet.outputFileName, sheet.hash);
+        writtenFiles.incrementAndGet();
+    }
+
+    // The first error stops all the workers, even if they are waiting on the queues
+    private synchronized void fail(Exception e) {
+        if (error != null) {
+            return;
+        }
+
+        if (e instanceof InterruptedException) {
+            e = new IllegalStateException("Render of " + inputFolder + " has been interrupted", e);
+        }
+        error = e;
+        threads.forEach(Thread::interrupt);
+    }
+
+    public int getRenderedPages() {
+        return renderedPages == null ? 0 : renderedPages.get();
+    }
+
+    public int getWrittenFiles() {
+        return writtenFiles == null ? 0 : writtenFiles.get();
+    }
+
+    public int getSkippedFiles() {
+        return skippedFiles == null ? 0 : skippedFiles.get();
+    }
+
+    public long getDecodedPixels() {
+        return decodedPixels == null ? 0 : decodedPixels.get();
+    }
+
+    public interface Listener {
+        void onProgress(double progress);
+
+        void onWarning(String message);
+    }
+
+    private static class DecodedPage {
+        private static final DecodedPage END = new DecodedPage(-1, null, null);
+
+        private int index;
+        private BufferedImage image;
+        // Decoded region of the page, null if the whole page has been decoded
+        private Rectangle region;
+
+        private DecodedPage(int index, BufferedImage image, Rectangle region) {
+            this.index = index;
+            this.image = image;
+            this.region = region;
+        }
+    }
+
+    private static class Sheet {
+        private static final Sheet END = new Sheet(new int[0], null, null);
+
+        // Indices of the source pages, -1 is an empty place
+        private int[] pages;
+        private String outputFileName;
+        private String formatName;
+        // Markups of the pages, null if the page is not marked up or crop is disabled
+        private List<List<Point>> boundaries;
+        // Hash of the sources, markups and settings of the sheet
+        private String hash;
+        private Dimension[] sizes;
+        private Rectangle[] regions;
+        // Estimated bytes of all images of the sheet from decoding to merging
+        private long bytes;
+
+        private BufferedImage[] images;
+        private int remainingPages;
+        private BufferedImage image;
+        // Pages and the sheet as the nodes of the lazy graph, when the stages are evaluated by the encoder
+        private TileNode[] nodes;
+        private TileNode node;
+
+        private Sheet(int[] pages, String outputFileName, String formatName) {
+            this.pages = pages;
+            this.outputFileName = outputFileName;
+            this.formatName = formatName;
+            this.images = new BufferedImage[pages.length];
+            this.nodes = new TileNode[pages.length];
+            this.boundaries = new ArrayList<>(Collections.nCopies(pages.length, null));
+            this.sizes = new Dimension[pages.length];
+            this.regions = new Rectangle[pages.length];
+        }
+
+        // Returns true, when the last page of the sheet is added
+        private synchronized boolean addPage(int position, BufferedImage image) {
+            images[position] = image;
+            remainingPages--;
+            return remainingPages == 0;
+        }
+
+        private synchronized boolean addPage(int position, TileNode node) {
+            nodes[position] = node;
+            remainingPages--;
+            return remainingPages == 0;
+        }
+    }
+}
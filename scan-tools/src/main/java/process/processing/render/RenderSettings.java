@@ -0,0 +1,340 @@
+package process.processing.render;
+
+public class RenderSettings {
+    private boolean grayscale;
+
+    private SmoothFilters smoothFilter = SmoothFilters.values()[0];
+
+    private boolean crop = true;
+    private ImageCrops imageCrop = ImageCrops.values()[0];
+
+    private boolean resize = true;
+    private int sourceDPI = 600;
+    private int targetDPI = 400;
+    // Separable resize methods sample all the source pixels under the new pixel instead of the smooth filter
+    private ResizeMethods resizeMethod = ResizeMethods.values()[0];
+    // Rotation crop and resize are done by one sampling of the source image
+    private boolean fusedCropResize = true;
+
+    private boolean binarization = true;
+    private BinarizationMethods binarizationMethod = BinarizationMethods.values()[0];
+    // Threshold per unit of the weights, it is multiplied by the sum of the weights
+    private double threshold = 100000;
+    private double weightRed = 3;
+    private double weightGreen = 1;
+    private double weightBlue = 1;
+
+    private boolean merge = true;
+    private ImageMergeMethods mergeMethod = ImageMergeMethods.values()[0];
+    // Grid of the pages on a merged sheet, the gutters between them are in pixels of the output image
+    private int mergeColumns = 2;
+    private int mergeRows = 1;
+    private int mergeGutter = 0;
+    private ImpositionOrders mergeOrder = ImpositionOrders.Rows;
+    private ImpositionAlignments mergeHorizontalAlignment = ImpositionAlignments.Center;
+    private ImpositionAlignments mergeVerticalAlignment = ImpositionAlignments.Center;
+
+    // ImageIO format name of the output files, by default png for binarized, grayscale and merged images
+    // and bmp for the other ones
+    private String outputFormat;
+
+    // Outputs with unchanged sources, markups and settings are not rendered again
+    private boolean incremental = true;
+
+    // Threads processing pixels of one page
+    private int threadsPerPage = Runtime.getRuntime().availableProcessors();
+    // Workers of the pipeline stages, each transform worker has its own set of processors
+    private int decodeWorkers = 1;
+    private int transformWorkers = 2;
+    private int encodeWorkers = 1;
+    // Capacity of the queues between the stages, bounds amount of decoded pages in memory
+    private int queueCapacity = 2;
+    // Rows of the output image in one strip, when a page is rendered in strips
+    private int stripHeight = 256;
+    // Bytes of the heap for the images of the sheets in work, a sheet which does not fit into the budget alone
+    // is rendered without any other sheet at the same time and only the marked up regions of it are decoded
+    private long memoryBudget = Runtime.getRuntime().maxMemory() / 4 * 3;
+    // Stages of a sheet are evaluated lazily by the bands of the output image, which are pulled by the encoder,
+    // so the intermediate images of the stages are not allocated
+    private boolean tileGraph = false;
+
+    public boolean isGrayscale() {
+        return grayscale;
+    }
+
+    public void setGrayscale(boolean grayscale) {
+        this.grayscale = grayscale;
+    }
+
+    public SmoothFilters getSmoothFilter() {
+        return smoothFilter;
+    }
+
+    public void setSmoothFilter(SmoothFilters smoothFilter) {
+        this.smoothFilter = smoothFilter;
+    }
+
+    public boolean isCrop() {
+        return crop;
+    }
+
+    public void setCrop(boolean crop) {
+        this.crop = crop;
+    }
+
+    public ImageCrops getImageCrop() {
+        return imageCrop;
+    }
+
+    public void setImageCrop(ImageCrops imageCrop) {
+        this.imageCrop = imageCrop;
+    }
+
+    public boolean isResize() {
+        return resize;
+    }
+
+    public void setResize(boolean resize) {
+        this.resize = resize;
+    }
+
+    public int getSourceDPI() {
+        return sourceDPI;
+    }
+
+    public void setSourceDPI(int sourceDPI) {
+        this.sourceDPI = sourceDPI;
+    }
+
+    public int getTargetDPI() {
+        return targetDPI;
+    }
+
+    public void setTargetDPI(int targetDPI) {
+        this.targetDPI = targetDPI;
+    }
+
+    public ResizeMethods getResizeMethod() {
+        return resizeMethod;
+    }
+
+    public void setResizeMethod(ResizeMethods resizeMethod) {
+        this.resizeMethod = resizeMethod;
+    }
+
+    public boolean isFusedCropResize() {
+        return fusedCropResize;
+    }
+
+    public void setFusedCropResize(boolean fusedCropResize) {
+        this.fusedCropResize = fusedCropResize;
+    }
+
+    public boolean isBinarization() {
+        return binarization;
+    }
+
+    public void setBinarization(boolean binarization) {
+        this.binarization = binarization;
+    }
+
+    public BinarizationMethods getBinarizationMethod() {
+        return binarizationMethod;
+    }
+
+    public void setBinarizationMethod(BinarizationMethods binarizationMethod) {
+        this.binarizationMethod = binarizationMethod;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    public double getWeightRed() {
+        return weightRed;
+    }
+
+    public void setWeightRed(double weightRed) {
+        this.weightRed = weightRed;
+    }
+
+    public double getWeightGreen() {
+        return weightGreen;
+    }
+
+    public void setWeightGreen(double weightGreen) {
+        this.weightGreen = weightGreen;
+    }
+
+    public double getWeightBlue() {
+        return weightBlue;
+    }
+
+    public void setWeightBlue(double weightBlue) {
+        this.weightBlue = weightBlue;
+    }
+
+    public boolean isMerge() {
+        return merge;
+    }
+
+    public void setMerge(boolean merge) {
+        this.merge = merge;
+    }
+
+    public ImageMergeMethods getMergeMethod() {
+        return mergeMethod;
+    }
+
+    public void setMergeMethod(ImageMergeMethods mergeMethod) {
+        this.mergeMethod = mergeMethod;
+    }
+
+    public int getMergeColumns() {
+        return mergeColumns;
+    }
+
+    public void setMergeColumns(int mergeColumns) {
+        this.mergeColumns = mergeColumns;
+    }
+
+    public int getMergeRows() {
+        return mergeRows;
+    }
+
+    public void setMergeRows(int mergeRows) {
+        this.mergeRows = mergeRows;
+    }
+
+    public int getMergeGutter() {
+        return mergeGutter;
+    }
+
+    public void setMergeGutter(int mergeGutter) {
+        this.mergeGutter = mergeGutter;
+    }
+
+    public ImpositionOrders getMergeOrder() {
+        return mergeOrder;
+    }
+
+    public void setMergeOrder(ImpositionOrders mergeOrder) {
+        this.mergeOrder = mergeOrder;
+    }
+
+    public ImpositionAlignments getMergeHorizontalAlignment() {
+        return mergeHorizontalAlignment;
+    }
+
+    public void setMergeHorizontalAlignment(ImpositionAlignments mergeHorizontalAlignment) {
+        this.mergeHorizontalAlignment = mergeHorizontalAlignment;
+    }
+
+    public ImpositionAlignments getMergeVerticalAlignment() {
+        return mergeVerticalAlignment;
+    }
+
+    public void setMergeVerticalAlignment(ImpositionAlignments mergeVerticalAlignment) {
+        this.mergeVerticalAlignment = mergeVerticalAlignment;
+    }
+
+    public String getOutputFormat() {
+        return outputFormat;
+    }
+
+    public void setOutputFormat(String outputFormat) {
+        this.outputFormat = outputFormat;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public int getThreadsPerPage() {
+        return threadsPerPage;
+    }
+
+    public void setThreadsPerPage(int threadsPerPage) {
+        this.threadsPerPage = threadsPerPage;
+    }
+
+    public int getDecodeWorkers() {
+        return decodeWorkers;
+    }
+
+    public void setDecodeWorkers(int decodeWorkers) {
+        this.decodeWorkers = decodeWorkers;
+    }
+
+    public int getTransformWorkers() {
+        return transformWorkers;
+    }
+
+    public void setTransformWorkers(int transformWorkers) {
+        this.transformWorkers = transformWorkers;
+    }
+
+    public int getEncodeWorkers() {
+        return encodeWorkers;
+    }
+
+    public void setEncodeWorkers(int encodeWorkers) {
+        this.encodeWorkers = encodeWorkers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getStripHeight() {
+        return stripHeight;
+    }
+
+    public void setStripHeight(int stripHeight) {
+        this.stripHeight = stripHeight;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public boolean isTileGraph() {
+        return tileGraph;
+    }
+
+    public void setTileGraph(boolean tileGraph) {
+        this.tileGraph = tileGraph;
+    }
+
+    // All settings which change rendered images, threads and workers only change the speed
+    public String getImageSettingsKey() {
+        return "grayscale=" + grayscale + ", smoothFilter=" + smoothFilter
+                + ", crop=" + crop + ", imageCrop=" + imageCrop
+                + ", resize=" + resize + ", sourceDPI=" + sourceDPI + ", targetDPI=" + targetDPI
+                + ", resizeMethod=" + resizeMethod
+                + ", fusedCropResize=" + fusedCropResize
+                + ", binarization=" + binarization + ", binarizationMethod=" + binarizationMethod
+                + ", threshold=" + threshold + ", weightRed=" + weightRed + ", weightGreen=" + weightGreen
+                + ", weightBlue=" + weightBlue + ", merge=" + merge + ", mergeMethod=" + mergeMethod
+                + ", mergeColumns=" + mergeColumns + ", mergeRows=" + mergeRows + ", mergeGutter=" + mergeGutter
+                + ", mergeOrder=" + mergeOrder + ", mergeHorizontalAlignment=" + mergeHorizontalAlignment
+                + ", mergeVerticalAlignment=" + mergeVerticalAlignment
+                + ", outputFormat=" + outputFormat;
+    }
+}
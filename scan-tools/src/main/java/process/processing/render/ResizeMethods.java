@@ -0,0 +1,28 @@
+package process.processing.render;
+
+import process.processing.render.resize.SeparableImageResize;
+
+public enum ResizeMethods {
+    SmoothFilter("Smooth filter, point sampling", null),
+    AreaAverage("Area average", SeparableImageResize.Kernels.Box),
+    Bilinear("Bilinear, separable", SeparableImageResize.Kernels.Bilinear),
+    Bicubic("Bicubic, separable", SeparableImageResize.Kernels.Bicubic),
+    Lanczos3("Lanczos 3, separable", SeparableImageResize.Kernels.Lanczos3);
+
+    private String text;
+    private SeparableImageResize.Kernels kernel;
+
+    private ResizeMethods(String text, SeparableImageResize.Kernels kernel) {
+        this.text = text;
+        this.kernel = kernel;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    // Null for the resize by the smooth filter
+    public SeparableImageResize.Kernels getKernel() {
+        return kernel;
+    }
+}
@@ -0,0 +1,33 @@
+package process.processing.render;
+
+import process.processing.render.filters.AbstractImageFilter;
+import process.processing.render.filters.BicubicFilter;
+import process.processing.render.filters.BilinearFilter;
+import process.processing.render.filters.FixedPointBilinearFilter;
+import process.processing.render.filters.Lanczos3Filter;
+import process.processing.render.filters.RoughFilter;
+
+public enum SmoothFilters {
+    BilinearFilter("Bilinear Filter", BilinearFilter.class),
+    // Within +-1 per channel of Bilinear Filter, so it is not the default
+    FixedPointBilinearFilter("Bilinear Filter (fast)", FixedPointBilinearFilter.class),
+    RoughFilter("Rough Filter", RoughFilter.class),
+    BicubicFilter("Bicubic Filter", BicubicFilter.class),
+    Lanczos3Filter("Lanczos 3 Filter", Lanczos3Filter.class);
+
+    private String text;
+    private Class<? extends AbstractImageFilter> cl;
+
+    private SmoothFilters(String text, Class<? extends AbstractImageFilter> cl) {
+        this.text = text;
+        this.cl = cl;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Class<? extends AbstractImageFilter> getCl() {
+        return cl;
+    }
+}
@@ -0,0 +1,296 @@
+package process.processing.render;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import encoders.BmpStreamWriter;
+import encoders.ImageStreamWriter;
+import encoders.PngStreamWriter;
+import executors.TileExecutor;
+import process.dto.Point;
+import process.processing.render.binarization.AbstractImageBinarization;
+import process.processing.render.binarization.AdaptiveImageBinarization;
+import process.processing.render.binarization.ImageBinarization;
+import process.processing.render.resize.ImageResize;
+import process.processing.render.resize.SeparableImageResize;
+import structures.ImageRaster;
+import utils.ImageUtils;
+
+// Renders a page by horizontal strips of the output image: every strip is decoded with the rows around it,
+// which are sampled by the resize and binarization, processed and written right away,
+// so the memory is bounded by the height of the strips instead of the size of the page.
+// The readers of PNG and JPEG decode all the rows above the strip again, so the strips are as high
+// as the memory budget allows, the strip height is only their minimum.
+// Only the crop by the bounding box of the markup (Simple crop) is supported and the pages are not merged.
+public class StripRenderer {
+    // Source rows above and below the strip, which are sampled by the smooth filters, up to 3 by Lanczos 3 Filter
+    private static final int FILTER_MARGIN = 3;
+    // Source is read for the histogram at least with every second pixel of every second row
+    private static final int MIN_HISTOGRAM_SUBSAMPLING = 2;
+
+    private RenderSettings settings;
+    private ImageResize resize;
+    private SeparableImageResize separableResize;
+    private AbstractImageBinarization binarization;
+
+    private ImageReader reader;
+    private int imageWidth;
+    private Rectangle sourceRegion;
+    private int stripRows;
+    private long decodedPixels;
+
+    public StripRenderer(RenderSettings settings, TileExecutor executor) throws Exception {
+        this.settings = settings;
+
+        if (settings.isResize() && settings.getResizeMethod().getKernel() == null) {
+            resize = new ImageResize();
+            resize.setSmoothFilter(PageRenderer.createSmoothFilter(settings));
+            resize.setExecutor(executor);
+            resize.setSourceDPI(settings.getSourceDPI());
+            resize.setTargetDPI(settings.getTargetDPI());
+        } else if (settings.isResize()) {
+            separableResize = PageRenderer.createSeparableResize(settings);
+            separableResize.setExecutor(executor);
+        }
+
+        if (settings.isBinarization()) {
+            binarization = PageRenderer.createBinarization(settings);
+            binarization.setExecutor(executor);
+        }
+    }
+
+    public static boolean isSupported(RenderSettings settings, List<Point> boundaries, String formatName) {
+        boolean cropSupported = !settings.isCrop() || boundaries == null
+                || settings.getImageCrop() == ImageCrops.SimpleImageCrop;
+        boolean result = cropSupported && !settings.isMerge() && isFormatSupported(formatName);
+        return result;
+    }
+
+    static boolean isFormatSupported(String formatName) {
+        boolean result = "png".equalsIgnoreCase(formatName) || "bmp".equalsIgnoreCase(formatName);
+        return result;
+    }
+
+    // Bytes of the images of one strip of the page of the size
+    public long estimateBytes(Dimension size) {
+        long result = estimateBytes(size, getStripRows(size));
+        return result;
+    }
+
+    // Output rows of a strip, as many as fit into the memory budget, but not less than the strip height.
+    // Bytes grow linearly with the rows, so the rows are found by the estimates of 1 and 2 strip heights.
+    private int getStripRows(Dimension size) {
+        int minRows = settings.getStripHeight();
+        int maxRows = Math.max(getNewSize(size.height), minRows);
+        long minBytes = estimateBytes(size, minRows);
+        long bytesPerRow = Math.max((estimateBytes(size, 2 * minRows) - minBytes) / minRows, 1);
+        long rows = minRows + Math.max(settings.getMemoryBudget() - minBytes, 0) / bytesPerRow;
+        int result = (int) Math.min(rows, maxRows);
+        return result;
+    }
+
+    private long estimateBytes(Dimension size, int stripRows) {
+        int rows = stripRows + 2 * getBinarizationMargin();
+        boolean resized = resize != null || separableResize != null;
+        double factor = resized ? (double) settings.getTargetDPI() / settings.getSourceDPI() : 1;
+        // Separable kernels reach farther than the smooth filters, when downscaling
+        int margin = separableResize == null ? FILTER_MARGIN : (int) Math.ceil(3 * Math.max(1, 1 / factor)) + 1;
+        long sourceRows = (long) Math.ceil(rows / factor) + 2 * margin + 1;
+        long outputWidth = (long) Math.ceil(size.width * factor);
+
+        // Decoded strip, its gray copy, resized (and the rows resized by the separable resize only in width)
+        // and binarized strips and the rows of the adaptive binarization
+        long result = sourceRows * size.width * (settings.isGrayscale() ? 5 : 4);
+        result += rows * outputWidth * (resized ? 4 : 0);
+        result += sourceRows * outputWidth * (separableResize == null ? 0 : 4);
+        result += rows * outputWidth * (binarization instanceof AdaptiveImageBinarization ? 1 + 8 + 8 : 1);
+        return result;
+    }
+
+    // Boundaries are null if the page is not marked up or the crop is disabled, returns amount of decoded pixels,
+    // including the rows above the strips, which the readers decode again for every strip
+    public long renderPage(File file, List<Point> boundaries, File outputFile, String formatName)
+            throws IOException {
+        decodedPixels = 0;
+
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            reader = ImageUtils.getImageReader(file, stream);
+            try {
+                reader.setInput(stream, true, true);
+                Dimension size = new Dimension(reader.getWidth(0), reader.getHeight(0));
+                imageWidth = size.width;
+                sourceRegion = createSourceRegion(size, boundaries);
+                stripRows = getStripRows(size);
+
+                int width = getNewSize(sourceRegion.width);
+                int height = getNewSize(sourceRegion.height);
+
+                if (isAutoThreshold()) {
+                    updateThreshold(estimateBytes(size, stripRows));
+                }
+
+                try (ImageStreamWriter writer = createWriter(outputFile, formatName, width, height)) {
+                    renderStrips(writer, width, height);
+                }
+            } finally {
+                reader.dispose();
+                reader = null;
+            }
+        }
+
+        return decodedPixels;
+    }
+
+    private Rectangle createSourceRegion(Dimension size, List<Point> boundaries) {
+        Rectangle result = new Rectangle(size);
+        if (settings.isCrop() && boundaries != null) {
+            int minX = (int) Math.floor(boundaries.stream().mapToDouble(point -> point.x).min().getAsDouble());
+            int maxX = (int) Math.ceil(boundaries.stream().mapToDouble(point -> point.x).max().getAsDouble());
+            int minY = (int) Math.floor(boundaries.stream().mapToDouble(point -> point.y).min().getAsDouble());
+            int maxY = (int) Math.ceil(boundaries.stream().mapToDouble(point -> point.y).max().getAsDouble());
+            result = result.intersection(new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1));
+        }
+        return result;
+    }
+
+    private ImageStreamWriter createWriter(File outputFile, String formatName, int width, int height)
+            throws IOException {
+        int imageType = BufferedImage.TYPE_INT_RGB;
+        if (binarization != null) {
+            imageType = BufferedImage.TYPE_BYTE_BINARY;
+        } else if (settings.isGrayscale()) {
+            imageType = BufferedImage.TYPE_BYTE_GRAY;
+        }
+
+        ImageStreamWriter result = createStreamWriter(outputFile, formatName, width, height, imageType);
+        return result;
+    }
+
+    static ImageStreamWriter createStreamWriter(File outputFile, String formatName, int width, int height,
+            int imageType) throws IOException {
+        if ("png".equalsIgnoreCase(formatName)) {
+            return new PngStreamWriter(outputFile, width, height, imageType);
+        }
+        if ("bmp".equalsIgnoreCase(formatName)) {
+            return new BmpStreamWriter(outputFile, width, height, imageType);
+        }
+        throw new IllegalArgumentException("Output Format is not supported for rendering in strips: " + formatName);
+    }
+
+    private boolean isAutoThreshold() {
+        boolean result = binarization instanceof ImageBinarization
+                && ((ImageBinarization) binarization).isAutoThreshold();
+        return result;
+    }
+
+    // Threshold is calculated by the histogram of the whole source region, which is read in one pass
+    // subsampled so much, that its RGB image and gray copy fit into the bytes of a strip
+    private void updateThreshold(long bytes) throws IOException {
+        long maxPixels = Math.max(bytes / 5, 1);
+        double pixels = (double) sourceRegion.width * sourceRegion.height;
+        int subsampling = Math.max((int) Math.ceil(Math.sqrt(pixels / maxPixels)), MIN_HISTOGRAM_SUBSAMPLING);
+
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(sourceRegion);
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        BufferedImage image = ImageUtils.convertDecodedGray(reader.read(0, param));
+        decodedPixels += (long) imageWidth * (sourceRegion.y + sourceRegion.height);
+        if (settings.isGrayscale()) {
+            image = ImageUtils.convertToGray(image);
+        }
+
+        ImageBinarization imageBinarization = (ImageBinarization) binarization;
+        imageBinarization.updateThreshold(imageBinarization.calculateHistogram(image, 0));
+    }
+
+    private void renderStrips(ImageStreamWriter writer, int width, int height) throws IOException {
+        int margin = getBinarizationMargin();
+        int[] row = new int[width];
+        for (int startY = 0; startY < height; startY += stripRows) {
+            int endY = Math.min(startY + stripRows, height);
+
+            // Adaptive binarization needs the rows of its window around the strip
+            int stripY = Math.max(startY - margin, 0);
+            BufferedImage strip = readResizedRows(stripY, Math.min(endY + margin, height));
+
+            if (binarization instanceof ImageBinarization) {
+                strip = ((ImageBinarization) binarization).binarize(strip);
+            } else if (binarization != null) {
+                strip = binarization.processImage(strip);
+            }
+
+            ImageRaster raster = new ImageRaster(strip);
+            for (int y = startY; y < endY; y++) {
+                raster.getRGBRow(0, y - stripY, width, row);
+                writer.writeRow(row);
+            }
+        }
+    }
+
+    private int getBinarizationMargin() {
+        int result = 0;
+        if (binarization instanceof AdaptiveImageBinarization) {
+            result = ((AdaptiveImageBinarization) binarization).getWindowSize() / 2;
+        }
+        return result;
+    }
+
+    private int getNewSize(int size) {
+        int result = size;
+        if (resize != null) {
+            result = resize.getNewSize(size);
+        } else if (separableResize != null) {
+            result = separableResize.getNewSize(size);
+        }
+        return result;
+    }
+
+    // Rows from startY to endY of the image after the resize, it is the source image if the resize is disabled
+    private BufferedImage readResizedRows(int startY, int endY) throws IOException {
+        if (separableResize != null) {
+            Rectangle region = new Rectangle(0, startY, getNewSize(sourceRegion.width), endY - startY);
+            Rectangle stripRegion = separableResize.getSourceRegion(region, sourceRegion.width, sourceRegion.height);
+            BufferedImage strip = readSourceRows(stripRegion.y, stripRegion.y + stripRegion.height);
+            BufferedImage result = separableResize.processRegion(strip, 0, stripRegion.y, sourceRegion.width,
+                    sourceRegion.height, region);
+            return result;
+        }
+        if (resize == null) {
+            BufferedImage result = readSourceRows(startY, endY);
+            return result;
+        }
+
+        int sourceStartY = (int) Math.floor(resize.getSourceY(startY)) - FILTER_MARGIN;
+        int sourceEndY = (int) Math.floor(resize.getSourceY(endY - 1)) + FILTER_MARGIN + 1;
+        sourceStartY = Math.max(sourceStartY, 0);
+        sourceEndY = Math.min(sourceEndY, sourceRegion.height);
+
+        BufferedImage strip = readSourceRows(sourceStartY, sourceEndY);
+        BufferedImage result = resize.processStrip(strip, sourceStartY, startY, endY);
+        return result;
+    }
+
+    // Rows are counted from the top of the source region, the reader decodes the whole rows from the top
+    // of the image down to the last row of the region
+    private BufferedImage readSourceRows(int startY, int endY) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(sourceRegion.x, sourceRegion.y + startY, sourceRegion.width,
+                endY - startY));
+        BufferedImage result = ImageUtils.convertDecodedGray(reader.read(0, param));
+        decodedPixels += (long) imageWidth * (sourceRegion.y + endY);
+
+        if (settings.isGrayscale()) {
+            result = ImageUtils.convertToGray(result);
+        }
+        return result;
+    }
+}
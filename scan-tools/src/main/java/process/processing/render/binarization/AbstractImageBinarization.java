@@ -0,0 +1,15 @@
+package process.processing.render.binarization;
+
+import java.awt.image.BufferedImage;
+
+import executors.TileExecutor;
+
+public abstract class AbstractImageBinarization {
+    protected TileExecutor executor = TileExecutor.getDefault();
+
+    public abstract BufferedImage processImage(BufferedImage image);
+
+    public void setExecutor(TileExecutor executor) {
+        this.executor = executor;
+    }
+}
@@ -0,0 +1,224 @@
+package process.processing.render.binarization;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import structures.ImageRaster;
+import utils.ImageUtils;
+
+public class AdaptiveImageBinarization extends AbstractImageBinarization {
+    private static final int WHITE = Color.WHITE.getRGB();
+    private static final int BLACK = Color.BLACK.getRGB();
+
+    public enum Methods {
+        Sauvola(0.2),
+        Niblack(-0.2);
+
+        private double defaultK;
+
+        private Methods(double defaultK) {
+            this.defaultK = defaultK;
+        }
+
+        public double getDefaultK() {
+            return defaultK;
+        }
+    }
+
+    private Methods method = Methods.Sauvola;
+    private int windowSize = 51;
+    private double k = method.getDefaultK();
+    // Maximal standard deviation of 8-bit intensity, R parameter of Sauvola
+    private double dynamicRange = 128;
+
+    private double weightRed = 1;
+    private double weightGreen = 1;
+    private double weightBlue = 1;
+
+    @Override
+    public BufferedImage processImage(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        SummedAreaTables tables = new SummedAreaTables(width, height);
+
+        // Step 1 - Weighted intensity of each pixel
+        ImageRaster raster = new ImageRaster(image);
+        executor.forEachBand(height, (startY, endY) -> calculateIntensities(raster, 0, startY, endY, tables));
+
+        // Step 2 - Summed-area tables of intensities and their squares
+        calculateSums(tables);
+
+        // Step 3 - Comparing each pixel with the threshold of its window
+        BufferedImage newImage = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        executor.forEachBand(height, (startY, endY) -> {
+            int[] row = new int[width];
+            for (int y = startY; y < endY; y++) {
+                binarizeRow(tables, y, 0, width, row);
+                ImageUtils.setRGBRow(newImage, y, row);
+            }
+        });
+
+        return newImage;
+    }
+
+    // Band of full rows of the whole image from row bandY, the bands may be calculated at the same time
+    public void calculateIntensities(BufferedImage band, int bandY, SummedAreaTables tables) {
+        calculateIntensities(new ImageRaster(band), bandY, bandY, bandY + band.getHeight(), tables);
+    }
+
+    // Rows are of the whole image, the raster starts at row rasterY
+    private void calculateIntensities(ImageRaster raster, int rasterY, int startY, int endY,
+            SummedAreaTables tables) {
+        // Intensity is the weighted mean of the channels, it has to stay in the range of a channel
+        if (weightRed < 0 || weightGreen < 0 || weightBlue < 0 || weightRed + weightGreen + weightBlue <= 0) {
+            throw new IllegalArgumentException("Weights are not supported by Adaptive Binarization: " + weightRed
+                    + ", " + weightGreen + ", " + weightBlue);
+        }
+
+        int width = tables.width;
+        byte[] intensities = tables.intensities;
+        double weightSum = weightRed + weightGreen + weightBlue;
+        for (int y = startY; y < endY; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = raster.getRGB(x, y - rasterY);
+                double intensity = (weightRed * (rgb >> 16 & 0xFF) + weightGreen * (rgb >> 8 & 0xFF)
+                        + weightBlue * (rgb & 0xFF)) / weightSum;
+                intensities[y * width + x] = (byte) Math.round(intensity);
+            }
+        }
+    }
+
+    // All the intensities have to be calculated
+    public void calculateSums(SummedAreaTables tables) {
+        calculateRowPrefixSums(tables.intensities, tables.width, tables.height, tables.sums, tables.squareSums);
+        accumulateColumns(tables.width, tables.height, tables.sums, tables.squareSums);
+    }
+
+    private void calculateRowPrefixSums(byte[] intensities, int width, int height, long[] sums,
+            long[] squareSums) {
+        int stride = width + 1;
+        executor.forEachBand(height, (startY, endY) -> {
+            for (int y = startY; y < endY; y++) {
+                long sum = 0;
+                long squareSum = 0;
+                int index = (y + 1) * stride + 1;
+                for (int x = 0; x < width; x++) {
+                    int intensity = intensities[y * width + x] & 0xFF;
+                    sum += intensity;
+                    squareSum += intensity * intensity;
+                    sums[index + x] = sum;
+                    squareSums[index + x] = squareSum;
+                }
+            }
+        });
+    }
+
+    private void accumulateColumns(int width, int height, long[] sums, long[] squareSums) {
+        int stride = width + 1;
+        executor.forEachStrip(stride, (startX, endX) -> {
+            for (int y = 2; y <= height; y++) {
+                int index = y * stride;
+                int previousIndex = index - stride;
+                for (int x = startX; x < endX; x++) {
+                    sums[index + x] += sums[previousIndex + x];
+                    squareSums[index + x] += squareSums[previousIndex + x];
+                }
+            }
+        });
+    }
+
+    // Pixels from startX to endX of row y, the rows of several tiles may be binarized at the same time
+    public void binarizeRow(SummedAreaTables tables, int y, int startX, int endX, int[] row) {
+        int width = tables.width;
+        int height = tables.height;
+        byte[] intensities = tables.intensities;
+        long[] sums = tables.sums;
+        long[] squareSums = tables.squareSums;
+        int stride = width + 1;
+        int radius = windowSize / 2;
+        int top = Math.max(y - radius, 0);
+        int bottom = Math.min(y + radius + 1, height);
+
+        for (int x = startX; x < endX; x++) {
+            int left = Math.max(x - radius, 0);
+            int right = Math.min(x + radius + 1, width);
+            int area = (right - left) * (bottom - top);
+
+            long sum = sums[bottom * stride + right] - sums[top * stride + right]
+                    - sums[bottom * stride + left] + sums[top * stride + left];
+            long squareSum = squareSums[bottom * stride + right] - squareSums[top * stride + right]
+                    - squareSums[bottom * stride + left] + squareSums[top * stride + left];
+
+            double mean = (double) sum / area;
+            double variance = Math.max((double) squareSum / area - mean * mean, 0);
+            double deviation = Math.sqrt(variance);
+
+            double threshold;
+            switch (method) {
+                case Sauvola:
+                    threshold = mean * (1 + k * (deviation / dynamicRange - 1));
+                    break;
+                case Niblack:
+                    threshold = mean + k * deviation;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Adaptive Binarization Method is not supported: " + method);
+            }
+
+            int intensity = intensities[y * width + x] & 0xFF;
+            row[x - startX] = intensity >= threshold ? WHITE : BLACK;
+        }
+    }
+
+    // Also resets K to the default value of the method
+    public void setMethod(Methods method) {
+        this.method = method;
+        this.k = method.getDefaultK();
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public void setK(double k) {
+        this.k = k;
+    }
+
+    public void setDynamicRange(double dynamicRange) {
+        this.dynamicRange = dynamicRange;
+    }
+
+    public void setWeightRed(double weightRed) {
+        this.weightRed = weightRed;
+    }
+
+    public void setWeightGreen(double weightGreen) {
+        this.weightGreen = weightGreen;
+    }
+
+    public void setWeightBlue(double weightBlue) {
+        this.weightBlue = weightBlue;
+    }
+
+    // Intensities of the whole image and the summed-area tables of them and their squares,
+    // with an extra zero row and column, they are filled by bands and then summed up
+    public static class SummedAreaTables {
+        private int width;
+        private int height;
+        private byte[] intensities;
+        private long[] sums;
+        private long[] squareSums;
+
+        public SummedAreaTables(int width, int height) {
+            this.width = width;
+            this.height = height;
+            intensities = new byte[width * height];
+            sums = new long[(width + 1) * (height + 1)];
+            squareSums = new long[(width + 1) * (height + 1)];
+        }
+    }
+}
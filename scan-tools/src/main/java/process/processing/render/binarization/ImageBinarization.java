@@ -2,27 +2,129 @@ package process.processing.render.binarization;
 
 import java.awt.image.BufferedImage;
 
+import process.processing.render.filters.BinarizationFilter;
 import process.processing.render.filters.ImageFilter;
+import structures.ImageRaster;
+import utils.ImageUtils;
+
+public class ImageBinarization extends AbstractImageBinarization {
+    // Histogram is of the weighted intensity, which is linear, so its classes are not squeezed into the dark bins
+    private static final int HISTOGRAM_SIZE = 1024;
+    // Every second pixel of every second row is enough for the histogram, it is a quarter of a pass
+    private static final int HISTOGRAM_SAMPLE_STEP = 2;
 
-public class ImageBinarization {
     private ImageFilter imageFilter;
+    private boolean autoThreshold;
+    // Threshold of the filter before the first automatic one, it is used for the images of one color
+    private Double configuredThreshold;
 
     public void setColorFilter(ImageFilter imageFilter) {
         this.imageFilter = imageFilter;
     }
 
+    // Works only with BinarizationFilter, the threshold is calculated by Otsu's method for every image
+    public void setAutoThreshold(boolean autoThreshold) {
+        this.autoThreshold = autoThreshold;
+    }
+
+    public boolean isAutoThreshold() {
+        return autoThreshold;
+    }
+
+    @Override
     public BufferedImage processImage(BufferedImage image) {
+        if (autoThreshold) {
+            updateThreshold(calculateHistogram(image, 0));
+        }
+
+        BufferedImage newImage = binarize(image);
+        return newImage;
+    }
+
+    // Binarizes with the current threshold, an image processed in strips gets the threshold
+    // by the histogram summed up from all the strips before
+    public BufferedImage binarize(BufferedImage image) {
         imageFilter.setImage(image);
 
-        BufferedImage newImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        BufferedImage newImage = new BufferedImage(image.getWidth(), image.getHeight(),
+                BufferedImage.TYPE_BYTE_BINARY);
 
-        for (int y = 0; y < newImage.getHeight(); y++) {
-            for (int x = 0; x < newImage.getWidth(); x++) {
-                int resultColor = imageFilter.getRGB(x, y);
-                newImage.setRGB(x, y, resultColor);
+        int width = newImage.getWidth();
+        executor.forEachBand(newImage.getHeight(), (startY, endY) -> {
+            int[] row = new int[width];
+            for (int y = startY; y < endY; y++) {
+                imageFilter.getRGBRow(0, y, 1, 0, row, 0, width);
+                ImageUtils.setRGBRow(newImage, y, row);
             }
-        }
+        });
 
         return newImage;
     }
+
+    // Binarizes the pixels of the row in place with the current threshold, the image of the filter is not used,
+    // so the rows of several tiles may be binarized at the same time
+    public void binarizeRow(int[] row, int length) {
+        BinarizationFilter binarizationFilter = (BinarizationFilter) imageFilter;
+        binarizationFilter.binarizeRow(row, 0, length);
+    }
+
+    public void updateThreshold(long[] histogram) {
+        BinarizationFilter binarizationFilter = (BinarizationFilter) imageFilter;
+        if (binarizationFilter.getMaxIntensity() <= 0) {
+            return;
+        }
+
+        if (configuredThreshold == null) {
+            configuredThreshold = binarizationFilter.getThreshold();
+        }
+        // Solid black or white page has no two classes, the configured threshold gives its color
+        int threshold = OtsuThreshold.calculateThreshold(histogram);
+        if (threshold < 0) {
+            binarizationFilter.setThreshold(configuredThreshold);
+            return;
+        }
+
+        // Intensity of the first bright bin is mapped to the squared value compared by the filter
+        double scale = (HISTOGRAM_SIZE - 1) / binarizationFilter.getMaxIntensity();
+        double intensity = threshold / scale;
+        binarizationFilter.setThreshold(intensity * intensity);
+    }
+
+    // Image may be a strip of a bigger image from row imageY, histograms of the strips are summed up
+    public long[] calculateHistogram(BufferedImage image, int imageY) {
+        BinarizationFilter binarizationFilter = (BinarizationFilter) imageFilter;
+        if (binarizationFilter.getMaxIntensity() <= 0) {
+            return new long[HISTOGRAM_SIZE];
+        }
+
+        double scale = (HISTOGRAM_SIZE - 1) / binarizationFilter.getMaxIntensity();
+        ImageRaster raster = new ImageRaster(image);
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        // Every band fills its own histogram, they are summed up at the end
+        long[] histogram = executor.reduceBands(height, (startY, endY) -> {
+            long[] bandHistogram = new long[HISTOGRAM_SIZE];
+            // Sampled rows are counted from the top of the whole image, not from the top of the band or strip
+            int firstY = (imageY + startY + HISTOGRAM_SAMPLE_STEP - 1) / HISTOGRAM_SAMPLE_STEP
+                    * HISTOGRAM_SAMPLE_STEP - imageY;
+            for (int y = firstY; y < endY; y += HISTOGRAM_SAMPLE_STEP) {
+                for (int x = 0; x < width; x += HISTOGRAM_SAMPLE_STEP) {
+                    double intensity = binarizationFilter.getIntensity(raster.getRGB(x, y));
+                    bandHistogram[(int) (intensity * scale)]++;
+                }
+            }
+            return bandHistogram;
+        }, (histogram1, histogram2) -> {
+            for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+                histogram1[i] += histogram2[i];
+            }
+            return histogram1;
+        });
+        if (histogram == null) {
+            histogram = new long[HISTOGRAM_SIZE];
+        }
+
+        return histogram;
+    }
 }
@@ -0,0 +1,52 @@
+package process.processing.render.binarization;
+
+public class OtsuThreshold {
+
+    // Returns the first bin of the bright class, which maximizes the between-class variance,
+    // if there is an empty gap between classes, the middle of the gap is taken.
+    // Histogram with less than 2 occupied bins has no classes to separate, -1 is returned for it.
+    public static int calculateThreshold(long[] histogram) {
+        long total = 0;
+        double sumAll = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            total += histogram[i];
+            sumAll += (double) i * histogram[i];
+        }
+
+        long weightDark = 0;
+        double sumDark = 0;
+        double maxVariance = -1;
+        int firstThreshold = 0;
+        int lastThreshold = 0;
+        for (int threshold = 1; threshold < histogram.length; threshold++) {
+            weightDark += histogram[threshold - 1];
+            sumDark += (double) (threshold - 1) * histogram[threshold - 1];
+            long weightBright = total - weightDark;
+            if (weightDark == 0) {
+                continue;
+            }
+            if (weightBright == 0) {
+                break;
+            }
+
+            double meanDark = sumDark / weightDark;
+            double meanBright = (sumAll - sumDark) / weightBright;
+            double delta = meanDark - meanBright;
+            double variance = (double) weightDark * weightBright * delta * delta;
+            if (variance > maxVariance) {
+                maxVariance = variance;
+                firstThreshold = threshold;
+                lastThreshold = threshold;
+            } else if (variance == maxVariance) {
+                lastThreshold = threshold;
+            }
+        }
+
+        if (firstThreshold == 0) {
+            return -1;
+        }
+
+        int result = (firstThreshold + lastThreshold + 1) / 2;
+        return result;
+    }
+}
@@ -3,15 +3,30 @@ package process.processing.render.crop;
 import java.awt.image.BufferedImage;
 import java.util.List;
 
+import executors.TileExecutor;
 import process.dto.Point;
 import process.processing.render.filters.ImageFilter;
 
 public abstract class AbstractImageCrop {
     protected ImageFilter smoothFilter;
+    protected TileExecutor executor = TileExecutor.getDefault();
+    // Position of the image in the source image, if only a region of the source image has been decoded,
+    // the boundaries are always in coordinates of the source image
+    protected int offsetX;
+    protected int offsetY;
 
     public void setSmoothFilter(ImageFilter smoothFilter) {
         this.smoothFilter = smoothFilter;
     }
 
+    public void setExecutor(TileExecutor executor) {
+        this.executor = executor;
+    }
+
+    public void setSourceOffset(int offsetX, int offsetY) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
     public abstract BufferedImage processImage(BufferedImage image, List<Point> boundaries);
 }
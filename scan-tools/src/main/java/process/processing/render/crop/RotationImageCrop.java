@@ -1,11 +1,12 @@
 package process.processing.render.crop;
 
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
+import java.awt.image.DataBufferInt;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import process.dto.Point;
+import utils.ImageUtils;
 import utils.MathUtils;
 
 public class RotationImageCrop extends AbstractImageCrop {
@@ -13,35 +14,52 @@ public class RotationImageCrop extends AbstractImageCrop {
     private List<Point> selectionBoundaries;
 
     private double rotationAngle;
+    // Resize of the cropped image, which is done by the same sampling as the rotation
+    private double scale = 1;
+
+    public void setScale(double scale) {
+        this.scale = scale;
+    }
 
     @Override
     public BufferedImage processImage(BufferedImage image, List<Point> boundaries) {
         sourceImage = image;
-        selectionBoundaries = boundaries;
         smoothFilter.setImage(sourceImage);
 
-        // Step 1 - Calculating rotation angle by the selection
-        rotationAngle = calculateRotationAngle();
+        // Steps 1 and 2 - Calculating rotation angle and resolution of new Image by the selection
+        Transform transform = calculateTransform(boundaries);
+
+        // Step 3 - Creating empty new Image, scaled as ImageResize would scale the cropped image
+        BufferedImage newImage = new BufferedImage(transform.width, transform.height,
+                ImageUtils.getCompatibleImageType(sourceImage));
+
+        // Step 4 - Copying only pixels of the selection to the newImage
+        copyRotatedPixels(newImage, transform);
 
-        // Step 2 - Calculating resolution of new Image
-        NewImageBoundaries newImageBoundaries = calculateNewImageBoundaries();
+        return newImage;
+    }
 
-        // Step 3 - Creating empty new Image
-        BufferedImage newImage = new BufferedImage(newImageBoundaries.width, newImageBoundaries.height,
-                BufferedImage.TYPE_INT_RGB);
+    // Mapping of the pixels of the cropped image to the source image, which is sampled by the smooth filter
+    public Transform calculateTransform(List<Point> boundaries) {
+        selectionBoundaries = boundaries;
 
-        // Step 4 - Copying all pixels to the newImage
-        copyRotatedPixels(newImage, rotationAngle, newImageBoundaries);
+        // Step 1 - Calculating rotation angle by the selection
+        rotationAngle = calculateRotationAngle();
 
-        // Step 5 - Crop rotated Image
+        // Step 2 - Calculating resolution of new Image by the selection on the rotated image
         List<Point> cropBoundaries = rotatePoints(selectionBoundaries, -rotationAngle);
-        // Applying offset
-        cropBoundaries = cropBoundaries.stream()
-            .map(point -> new Point(point.x - newImageBoundaries.minX, point.y - newImageBoundaries.minY))
-            .collect(Collectors.toList());
-        newImage = cropImage(newImage, cropBoundaries);
-
-        return newImage;
+        NewImageBoundaries newImageBoundaries = calculateNewImageBoundaries(cropBoundaries);
+
+        Transform result = new Transform();
+        result.width = (int) Math.round(newImageBoundaries.width * scale);
+        result.height = (int) Math.round(newImageBoundaries.height * scale);
+        result.cos = Math.cos(rotationAngle);
+        result.sin = Math.sin(rotationAngle);
+        result.scale = scale;
+        // Applying newImage offset before rotation and source image offset after it
+        result.originX = result.cos * newImageBoundaries.minX - result.sin * newImageBoundaries.minY - offsetX;
+        result.originY = result.sin * newImageBoundaries.minX + result.cos * newImageBoundaries.minY - offsetY;
+        return result;
     }
 
     private double calculateRotationAngle() {
@@ -78,25 +96,13 @@ public class RotationImageCrop extends AbstractImageCrop {
         return angle;
     }
 
-    private NewImageBoundaries calculateNewImageBoundaries() {
+    private NewImageBoundaries calculateNewImageBoundaries(List<Point> cropBoundaries) {
         NewImageBoundaries result = new NewImageBoundaries();
 
-        List<Point> sourceImageBoundaries = new ArrayList<>();
-        sourceImageBoundaries.add(new Point(0, 0));
-        sourceImageBoundaries.add(new Point(sourceImage.getWidth(), 0));
-        sourceImageBoundaries.add(new Point(sourceImage.getWidth(), sourceImage.getHeight()));
-        sourceImageBoundaries.add(new Point(0, sourceImage.getHeight()));
-
-        List<Point> rotatedImageBoundaries = rotatePoints(sourceImageBoundaries, -rotationAngle);
-
-        result.minX = (int) Math.floor(rotatedImageBoundaries.stream()
-                        .mapToDouble(point -> point.x).min().getAsDouble());
-        result.maxX = (int) Math.ceil(rotatedImageBoundaries.stream()
-                .mapToDouble(point -> point.x).max().getAsDouble());
-        result.minY = (int) Math.floor(rotatedImageBoundaries.stream()
-                .mapToDouble(point -> point.y).min().getAsDouble());
-        result.maxY = (int) Math.ceil(rotatedImageBoundaries.stream()
-                .mapToDouble(point -> point.y).max().getAsDouble());
+        result.minX = (int) Math.floor(cropBoundaries.stream().mapToDouble(point -> point.x).min().getAsDouble());
+        result.maxX = (int) Math.ceil(cropBoundaries.stream().mapToDouble(point -> point.x).max().getAsDouble());
+        result.minY = (int) Math.floor(cropBoundaries.stream().mapToDouble(point -> point.y).min().getAsDouble());
+        result.maxY = (int) Math.ceil(cropBoundaries.stream().mapToDouble(point -> point.y).max().getAsDouble());
 
         result.width = result.maxX - result.minX + 1;
         result.height = result.maxY - result.minY + 1;
@@ -104,40 +110,38 @@ public class RotationImageCrop extends AbstractImageCrop {
         return result;
     }
 
-    private void copyRotatedPixels(BufferedImage newImage, double rotationAngle, NewImageBoundaries newImageBoundaries) {
-        for (int y = 0; y < newImage.getHeight(); y++) {
-            for (int x = 0; x < newImage.getWidth(); x++) {
-                // Applying newImage offset before rotation
-                Point sourcePoint = new Point(x + newImageBoundaries.minX, y + newImageBoundaries.minY);
-                sourcePoint = rotatePoint(sourcePoint, rotationAngle);
-                int color = smoothFilter.getRGB(sourcePoint);
-                try {
-                    newImage.setRGB(x, y, color);
-                } catch (Exception e) {
-                    e.printStackTrace();
+    private void copyRotatedPixels(BufferedImage newImage, Transform transform) {
+        int width = newImage.getWidth();
+        int height = newImage.getHeight();
+
+        // The transform is calculated once: moving by one pixel along the row of the newImage
+        // is moving by (cos, sin) / scale in the source image, moving to the next row is moving by (-sin, cos) / scale
+        double cos = transform.cos;
+        double sin = transform.sin;
+        double stepX = cos / transform.scale;
+        double stepY = sin / transform.scale;
+        double originX = transform.originX;
+        double originY = transform.originY;
+
+        // Int RGB rows are sampled straight into the raster of the newImage
+        int[] data = newImage.getType() == BufferedImage.TYPE_INT_RGB
+                ? ((DataBufferInt) newImage.getRaster().getDataBuffer()).getData()
+                : null;
+
+        executor.forEachBand(height, (startY, endY) -> {
+            int[] row = data == null ? new int[width] : null;
+            for (int y = startY; y < endY; y++) {
+                double cropY = y / transform.scale;
+                double rowX = originX - sin * cropY;
+                double rowY = originY + cos * cropY;
+                if (data != null) {
+                    smoothFilter.getRGBRow(rowX, rowY, stepX, stepY, data, y * width, width);
+                } else {
+                    smoothFilter.getRGBRow(rowX, rowY, stepX, stepY, row, 0, width);
+                    ImageUtils.setRGBRow(newImage, y, row);
                 }
             }
-        }
-    }
-
-    private BufferedImage cropImage(BufferedImage newImage, List<Point> cropBoundaries) {
-        int minX = (int) Math.floor(cropBoundaries.stream().mapToDouble(point -> point.x).min().getAsDouble());
-        int maxX = (int) Math.ceil(cropBoundaries.stream().mapToDouble(point -> point.x).max().getAsDouble());
-        int minY = (int) Math.floor(cropBoundaries.stream().mapToDouble(point -> point.y).min().getAsDouble());
-        int maxY = (int) Math.ceil(cropBoundaries.stream().mapToDouble(point -> point.y).max().getAsDouble());
-
-        int width = maxX - minX + 1;
-        int height = maxY - minY + 1;
-
-        try {
-            newImage = newImage.getSubimage(minX, minY, width, height);
-        } catch (Exception e) {
-            System.out.println();
-            e.printStackTrace();
-            throw new RuntimeException();
-        }
-
-        return newImage;
+        });
     }
 
     private List<Point> rotatePoints(List<Point> points, double angle) {
@@ -152,6 +156,19 @@ public class RotationImageCrop extends AbstractImageCrop {
         return rotatedPoint;
     }
 
+    // Pixel (x, y) of the cropped image is the pixel (originX + (x * cos - y * sin) / scale,
+    // originY + (x * sin + y * cos) / scale) of the source image
+    public static class Transform {
+        public double originX;
+        public double originY;
+        public double cos;
+        public double sin;
+        public double scale;
+
+        public int width;
+        public int height;
+    }
+
     static class NewImageBoundaries {
         public int width;
         public int height;
@@ -1,5 +1,6 @@
 package process.processing.render.crop;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.List;
 
@@ -9,6 +10,13 @@ public class SimpleCrop extends AbstractImageCrop {
 
     @Override
     public BufferedImage processImage(BufferedImage image, List<Point> boundaries) {
+        Rectangle region = calculateRegion(boundaries);
+        BufferedImage newImage = image.getSubimage(region.x, region.y, region.width, region.height);
+        return newImage;
+    }
+
+    // Bounding box of the boundaries in coordinates of the image
+    public Rectangle calculateRegion(List<Point> boundaries) {
         int minX = (int) Math.floor(boundaries.stream().mapToDouble(point -> point.x).min().getAsDouble());
         int maxX = (int) Math.ceil(boundaries.stream().mapToDouble(point -> point.x).max().getAsDouble());
         int minY = (int) Math.floor(boundaries.stream().mapToDouble(point -> point.y).min().getAsDouble());
@@ -17,7 +25,7 @@ public class SimpleCrop extends AbstractImageCrop {
         int width = maxX - minX + 1;
         int height = maxY - minY + 1;
 
-        BufferedImage newImage = image.getSubimage(minX, minY, width, height);
-        return newImage;
+        Rectangle result = new Rectangle(minX - offsetX, minY - offsetY, width, height);
+        return result;
     }
 }
@@ -4,23 +4,37 @@ import java.awt.Color;
 import java.awt.image.BufferedImage;
 
 import process.dto.Point;
+import structures.ImageRaster;
 
 public abstract class AbstractImageFilter implements ImageFilter {
-    private BufferedImage image;
-    private Color defaultColor;
+    private ImageRaster raster;
+    private int width;
+    private int height;
+    private int offsetX;
+    private int offsetY;
+    private int defaultRGB;
 
     public AbstractImageFilter() {
-        defaultColor = Color.WHITE;
+        defaultRGB = Color.WHITE.getRGB();
     }
 
     @Override
     public void setImage(BufferedImage image) {
-        this.image = image;
+        setImage(image, 0, 0);
+    }
+
+    @Override
+    public void setImage(BufferedImage image, int offsetX, int offsetY) {
+        raster = new ImageRaster(image);
+        width = image.getWidth();
+        height = image.getHeight();
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
     }
 
     @Override
     public void setDefaultColor(Color color) {
-        defaultColor = color;
+        defaultRGB = color.getRGB();
     }
 
     @Override
@@ -28,12 +42,27 @@ public abstract class AbstractImageFilter implements ImageFilter {
         return getRGB(point.x, point.y);
     }
 
+    @Override
+    public void getRGBRow(double x, double y, double stepX, double stepY, int[] row, int offset, int length) {
+        getRGBRow(x, y, stepX, stepY, 0, row, offset, length);
+    }
+
+    @Override
+    public void getRGBRow(double x, double y, double stepX, double stepY, int start, int[] row, int offset,
+            int length) {
+        for (int i = start; i < start + length; i++) {
+            row[offset + i - start] = getRGB(x + i * stepX, y + i * stepY);
+        }
+    }
+
     protected int getRGBFromImage(int x, int y) {
         int result;
-        if (x >= 0 && x < image.getWidth() && y >= 0 && y < image.getHeight()) {
-            result = image.getRGB(x, y);
+        x -= offsetX;
+        y -= offsetY;
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            result = raster.getRGB(x, y);
         } else {
-            result = defaultColor.getRGB();
+            result = defaultRGB;
         }
         return result;
     }
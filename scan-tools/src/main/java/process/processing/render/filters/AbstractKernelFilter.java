@@ -0,0 +1,118 @@
+package process.processing.render.filters;
+
+import java.util.function.DoubleUnaryOperator;
+
+// Interpolates by a separable kernel over taps x taps source pixels. Sub-pixel position is quantized to 1/256,
+// so the fixed-point weights of the taps are calculated once for each of 256 positions between the pixels.
+public abstract class AbstractKernelFilter extends AbstractImageFilter {
+    private static final int PHASE_BITS = 8;
+    private static final int PHASES = 1 << PHASE_BITS;
+    private static final int PHASE_MASK = PHASES - 1;
+    // Weights of both directions are 10-bit fractions, the sum of 255 multiplied by them fits into int
+    // even with the negative lobes of the kernels
+    private static final int WEIGHT_BITS = 10;
+    private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+    private static final int RESULT_SHIFT = 2 * WEIGHT_BITS;
+    private static final int ROUNDING = 1 << (RESULT_SHIFT - 1);
+
+    private int taps;
+    // Taps before the pixel at the floor of the position
+    private int tapsBefore;
+    // Weights of all the taps of the phase are stored one after another
+    private int[] weights;
+
+    protected AbstractKernelFilter(int taps, int[] weights) {
+        this.taps = taps;
+        this.tapsBefore = taps / 2 - 1;
+        this.weights = weights;
+    }
+
+    // Tap i of the phase is at the distance i - taps / 2 + 1 - phase / 256 from the position
+    protected static int[] createWeights(int taps, DoubleUnaryOperator kernel) {
+        int[] result = new int[PHASES * taps];
+        double[] values = new double[taps];
+        for (int phase = 0; phase < PHASES; phase++) {
+            double fraction = (double) phase / PHASES;
+            double sum = 0;
+            for (int i = 0; i < taps; i++) {
+                values[i] = kernel.applyAsDouble(i - (taps / 2 - 1) - fraction);
+                sum += values[i];
+            }
+
+            // Rounded weights sum up to exactly one, the rounding error goes to the biggest weight
+            int offset = phase * taps;
+            int fixedSum = 0;
+            int biggest = 0;
+            for (int i = 0; i < taps; i++) {
+                result[offset + i] = (int) Math.round(values[i] / sum * WEIGHT_ONE);
+                fixedSum += result[offset + i];
+                if (values[i] > values[biggest]) {
+                    biggest = i;
+                }
+            }
+            result[offset + biggest] += WEIGHT_ONE - fixedSum;
+        }
+        return result;
+    }
+
+    @Override
+    public int getRGB(double x, double y) {
+        int result = interpolate(toFixedPoint(x), toFixedPoint(y));
+        return result;
+    }
+
+    @Override
+    public void getRGBRow(double x, double y, double stepX, double stepY, int start, int[] row, int offset,
+            int length) {
+        for (int i = start; i < start + length; i++) {
+            row[offset + i - start] = interpolate(toFixedPoint(x + i * stepX), toFixedPoint(y + i * stepY));
+        }
+    }
+
+    private int interpolate(int fixedX, int fixedY) {
+        int left = (fixedX >> PHASE_BITS) - tapsBefore;
+        int top = (fixedY >> PHASE_BITS) - tapsBefore;
+        int weightsX = (fixedX & PHASE_MASK) * taps;
+        int weightsY = (fixedY & PHASE_MASK) * taps;
+
+        int r = ROUNDING;
+        int g = ROUNDING;
+        int b = ROUNDING;
+        for (int j = 0; j < taps; j++) {
+            int weightY = weights[weightsY + j];
+            // Whole rows of the taps are skipped at the integer positions
+            if (weightY == 0) {
+                continue;
+            }
+
+            int rowR = 0;
+            int rowG = 0;
+            int rowB = 0;
+            for (int i = 0; i < taps; i++) {
+                int weightX = weights[weightsX + i];
+                int color = getRGBFromImage(left + i, top + j);
+                rowR += (color >> 16 & 0xFF) * weightX;
+                rowG += (color >> 8 & 0xFF) * weightX;
+                rowB += (color & 0xFF) * weightX;
+            }
+            r += rowR * weightY;
+            g += rowG * weightY;
+            b += rowB * weightY;
+        }
+
+        int result = 0xFF000000 | clamp(r >> RESULT_SHIFT) << 16 | clamp(g >> RESULT_SHIFT) << 8
+                | clamp(b >> RESULT_SHIFT);
+        return result;
+    }
+
+    // Negative lobes of the kernels overshoot at the sharp edges
+    private static int clamp(int value) {
+        int result = value < 0 ? 0 : value > 255 ? 255 : value;
+        return result;
+    }
+
+    private static int toFixedPoint(double value) {
+        int result = (int) Math.floor(value * PHASES + 0.5);
+        return result;
+    }
+}
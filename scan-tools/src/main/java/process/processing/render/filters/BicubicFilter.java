@@ -0,0 +1,12 @@
+package process.processing.render.filters;
+
+import process.processing.render.resize.SeparableImageResize;
+
+public class BicubicFilter extends AbstractKernelFilter {
+    private static final int TAPS = 4;
+    private static final int[] WEIGHTS = createWeights(TAPS, SeparableImageResize.Kernels.Bicubic::getWeight);
+
+    public BicubicFilter() {
+        super(TAPS, WEIGHTS);
+    }
+}
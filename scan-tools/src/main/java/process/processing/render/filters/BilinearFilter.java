@@ -28,4 +28,46 @@ public class BilinearFilter extends AbstractImageFilter {
         int result = ColorUtils.getRGB(rgb);
         return result;
     }
+
+    @Override
+    public void getRGBRow(double x, double y, double stepX, double stepY, int start, int[] row, int offset,
+            int length) {
+        // Same arithmetic as getRGB, but without RGB allocations, ceil(x) is always floor(x) + 1 here
+        for (int i = start; i < start + length; i++) {
+            double pointX = x + i * stepX;
+            double pointY = y + i * stepY;
+
+            int floorX = (int) Math.floor(pointX);
+            int floorY = (int) Math.floor(pointY);
+            int ceilX = floorX + 1;
+            int ceilY = floorY + 1;
+
+            int colorTopLeft = getRGBFromImage(floorX, floorY);
+            int colorTopRight = getRGBFromImage(ceilX, floorY);
+            int colorBottomLeft = getRGBFromImage(floorX, ceilY);
+            int colorBottomRight = getRGBFromImage(ceilX, ceilY);
+
+            double weightTopLeft = (ceilX - pointX) * (ceilY - pointY);
+            double weightTopRight = (pointX - floorX) * (ceilY - pointY);
+            double weightBottomLeft = (ceilX - pointX) * (pointY - floorY);
+            double weightBottomRight = (pointX - floorX) * (pointY - floorY);
+
+            double r = ColorUtils.getRed(colorTopLeft) * weightTopLeft;
+            r += ColorUtils.getRed(colorTopRight) * weightTopRight;
+            r += ColorUtils.getRed(colorBottomLeft) * weightBottomLeft;
+            r += ColorUtils.getRed(colorBottomRight) * weightBottomRight;
+
+            double g = ColorUtils.getGreen(colorTopLeft) * weightTopLeft;
+            g += ColorUtils.getGreen(colorTopRight) * weightTopRight;
+            g += ColorUtils.getGreen(colorBottomLeft) * weightBottomLeft;
+            g += ColorUtils.getGreen(colorBottomRight) * weightBottomRight;
+
+            double b = ColorUtils.getBlue(colorTopLeft) * weightTopLeft;
+            b += ColorUtils.getBlue(colorTopRight) * weightTopRight;
+            b += ColorUtils.getBlue(colorBottomLeft) * weightBottomLeft;
+            b += ColorUtils.getBlue(colorBottomRight) * weightBottomRight;
+
+            row[offset + i - start] = ColorUtils.getRGB(r, g, b);
+        }
+    }
 }
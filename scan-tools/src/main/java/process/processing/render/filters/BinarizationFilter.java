@@ -2,41 +2,170 @@ package process.processing.render.filters;
 
 import java.awt.Color;
 
-import utils.ColorUtils;
+import kernels.PixelKernels;
 
 public class BinarizationFilter extends AbstractImageFilter {
+    private static final int WHITE = Color.WHITE.getRGB();
+    private static final int BLACK = Color.BLACK.getRGB();
+
+    // Beyond this weight the sum of 3 squared weighted channels does not fit into int
+    private static final double MAX_INTEGER_WEIGHT = 104;
+
     private double threshold = 85 * 5 * 1000;
     private double weightRed = 3;
     private double weightGreen = 1;
     private double weightBlue = 1;
 
+    // With integer weights the sum of the squared weighted channels is exact in int arithmetic of the pixel kernels,
+    // otherwise the double tables of the squared weighted channels repeat the original double arithmetic
+    private boolean integerWeights;
+    private int integerThreshold;
+    private int integerWeightRed;
+    private int integerWeightGreen;
+    private int integerWeightBlue;
+    private double[] doubleSquaresRed = new double[256];
+    private double[] doubleSquaresGreen = new double[256];
+    private double[] doubleSquaresBlue = new double[256];
+
+    public BinarizationFilter() {
+        updateTables();
+    }
+
     @Override
     public int getRGB(double x, double y) {
         int sourceColor = getRGBFromImage((int) x, (int) y);
+        int result = binarize(sourceColor);
+        return result;
+    }
+
+    @Override
+    public void getRGBRow(double x, double y, double stepX, double stepY, int start, int[] row, int offset,
+            int length) {
+        if (integerWeights) {
+            for (int i = start; i < start + length; i++) {
+                row[offset + i - start] = getRGBFromImage((int) (x + i * stepX), (int) (y + i * stepY));
+            }
+            binarizeRow(row, offset, length);
+        } else {
+            for (int i = start; i < start + length; i++) {
+                int sourceColor = getRGBFromImage((int) (x + i * stepX), (int) (y + i * stepY));
+                row[offset + i - start] = binarizeWithDoubleTables(sourceColor);
+            }
+        }
+    }
+
+    public int binarize(int rgb) {
+        int result;
+        if (integerWeights) {
+            result = getIntegerValue(rgb) >= integerThreshold ? WHITE : BLACK;
+        } else {
+            result = binarizeWithDoubleTables(rgb);
+        }
+        return result;
+    }
+
+    // Binarizes the pixels of the row in place
+    public void binarizeRow(int[] row, int offset, int length) {
+        if (integerWeights) {
+            PixelKernels.getDefault().binarize(row, offset, length, integerWeightRed, integerWeightGreen,
+                    integerWeightBlue, integerThreshold, WHITE, BLACK);
+        } else {
+            for (int i = offset; i < offset + length; i++) {
+                row[i] = binarizeWithDoubleTables(row[i]);
+            }
+        }
+    }
+
+    // Sum of squared weighted channels, which is compared with the threshold
+    public double getValue(int rgb) {
+        double result;
+        if (integerWeights) {
+            result = getIntegerValue(rgb);
+        } else {
+            result = doubleSquaresRed[rgb >> 16 & 0xFF] + doubleSquaresGreen[rgb >> 8 & 0xFF]
+                    + doubleSquaresBlue[rgb & 0xFF];
+        }
+        return result;
+    }
 
-        double r = ColorUtils.getRed(sourceColor) * weightRed;
-        double g = ColorUtils.getGreen(sourceColor) * weightGreen;
-        double b = ColorUtils.getBlue(sourceColor) * weightBlue;
-        double rgb = r * r + g * g + b * b;
+    public double getMaxValue() {
+        double result = doubleSquaresRed[255] + doubleSquaresGreen[255] + doubleSquaresBlue[255];
+        return result;
+    }
+
+    // Length of the weighted color, it grows linearly with the intensity, the value is its square
+    public double getIntensity(int rgb) {
+        double result = Math.sqrt(getValue(rgb));
+        return result;
+    }
+
+    public double getMaxIntensity() {
+        double result = Math.sqrt(getMaxValue());
+        return result;
+    }
+
+    private int getIntegerValue(int rgb) {
+        int result = PixelKernels.getSquaredValue(rgb, integerWeightRed * integerWeightRed,
+                integerWeightGreen * integerWeightGreen, integerWeightBlue * integerWeightBlue);
+        return result;
+    }
+
+    private int binarizeWithDoubleTables(int rgb) {
+        double value = doubleSquaresRed[rgb >> 16 & 0xFF] + doubleSquaresGreen[rgb >> 8 & 0xFF]
+                + doubleSquaresBlue[rgb & 0xFF];
+        int result = value >= threshold ? WHITE : BLACK;
+        return result;
+    }
+
+    private void updateTables() {
+        for (int i = 0; i < 256; i++) {
+            double r = i * weightRed;
+            double g = i * weightGreen;
+            double b = i * weightBlue;
+            doubleSquaresRed[i] = r * r;
+            doubleSquaresGreen[i] = g * g;
+            doubleSquaresBlue[i] = b * b;
+        }
+
+        integerWeights = isIntegerWeight(weightRed) && isIntegerWeight(weightGreen) && isIntegerWeight(weightBlue)
+                && !Double.isNaN(threshold);
+        if (!integerWeights) {
+            return;
+        }
+
+        integerWeightRed = (int) weightRed;
+        integerWeightGreen = (int) weightGreen;
+        integerWeightBlue = (int) weightBlue;
+        // Integer sum is greater or equal to the threshold exactly when it is greater or equal to its ceiling
+        integerThreshold = (int) Math.max(Math.min(Math.ceil(threshold), Integer.MAX_VALUE), Integer.MIN_VALUE);
+    }
+
+    private boolean isIntegerWeight(double weight) {
+        boolean result = weight == Math.rint(weight) && Math.abs(weight) <= MAX_INTEGER_WEIGHT;
+        return result;
+    }
 
-        Color color = rgb >= threshold ? Color.WHITE : Color.BLACK;
-        int resultColor = color.getRGB();
-        return resultColor;
+    public double getThreshold() {
+        return threshold;
     }
 
     public void setThreshold(double threshold) {
         this.threshold = threshold;
+        updateTables();
     }
 
     public void setWeightRed(double weightRed) {
         this.weightRed = weightRed;
+        updateTables();
     }
 
     public void setWeightGreen(double weightGreen) {
         this.weightGreen = weightGreen;
+        updateTables();
     }
 
     public void setWeightBlue(double weightBlue) {
         this.weightBlue = weightBlue;
+        updateTables();
     }
 }
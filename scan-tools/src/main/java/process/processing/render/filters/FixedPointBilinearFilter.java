@@ -0,0 +1,73 @@
+package process.processing.render.filters;
+
+public class FixedPointBilinearFilter extends AbstractImageFilter {
+    // Sub-pixel position is quantized to 1/256, so the product of x and y weights is a 16-bit fixed-point weight
+    private static final int WEIGHT_BITS = 8;
+    private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+    private static final int WEIGHT_MASK = WEIGHT_ONE - 1;
+
+    // Red and Blue are interpolated together in one long, Red at bit 32 and Blue at bit 0
+    private static final long ROUNDING_RED_BLUE = (1L << 47) | (1L << 15);
+    private static final long ROUNDING_GREEN = 1L << 23;
+
+    @Override
+    public int getRGB(double x, double y) {
+        int result = interpolate(toFixedPoint(x), toFixedPoint(y));
+        return result;
+    }
+
+    @Override
+    public void getRGBRow(double x, double y, double stepX, double stepY, int start, int[] row, int offset,
+            int length) {
+        for (int i = start; i < start + length; i++) {
+            row[offset + i - start] = interpolate(toFixedPoint(x + i * stepX), toFixedPoint(y + i * stepY));
+        }
+    }
+
+    private int interpolate(int fixedX, int fixedY) {
+        int floorX = fixedX >> WEIGHT_BITS;
+        int floorY = fixedY >> WEIGHT_BITS;
+        int weightX = fixedX & WEIGHT_MASK;
+        int weightY = fixedY & WEIGHT_MASK;
+
+        int colorTopLeft = getRGBFromImage(floorX, floorY);
+        int colorTopRight = getRGBFromImage(floorX + 1, floorY);
+        int colorBottomLeft = getRGBFromImage(floorX, floorY + 1);
+        int colorBottomRight = getRGBFromImage(floorX + 1, floorY + 1);
+
+        // Weights sum up to exactly 1 << 16
+        long weightTopLeft = (WEIGHT_ONE - weightX) * (WEIGHT_ONE - weightY);
+        long weightTopRight = weightX * (WEIGHT_ONE - weightY);
+        long weightBottomLeft = (WEIGHT_ONE - weightX) * weightY;
+        long weightBottomRight = weightX * weightY;
+
+        long redBlue = spreadRedBlue(colorTopLeft) * weightTopLeft
+                + spreadRedBlue(colorTopRight) * weightTopRight
+                + spreadRedBlue(colorBottomLeft) * weightBottomLeft
+                + spreadRedBlue(colorBottomRight) * weightBottomRight
+                + ROUNDING_RED_BLUE;
+
+        long green = (colorTopLeft & 0xFF00L) * weightTopLeft
+                + (colorTopRight & 0xFF00L) * weightTopRight
+                + (colorBottomLeft & 0xFF00L) * weightBottomLeft
+                + (colorBottomRight & 0xFF00L) * weightBottomRight
+                + ROUNDING_GREEN;
+
+        int r = (int) (redBlue >>> 48) & 0xFF;
+        int g = (int) (green >>> 24) & 0xFF;
+        int b = (int) (redBlue >>> 16) & 0xFF;
+
+        int result = 0xFF000000 | (r << 16) | (g << 8) | b;
+        return result;
+    }
+
+    private static long spreadRedBlue(int color) {
+        long result = ((color & 0xFF0000L) << 16) | (color & 0xFFL);
+        return result;
+    }
+
+    private static int toFixedPoint(double value) {
+        int result = (int) Math.floor(value * WEIGHT_ONE + 0.5);
+        return result;
+    }
+}
@@ -7,7 +7,16 @@ import process.dto.Point;
 
 public interface ImageFilter {
     void setImage(BufferedImage image);
+    // Image is a region of a bigger image at the offset, the sampled positions are in coordinates of the bigger image
+    void setImage(BufferedImage image, int offsetX, int offsetY);
     void setDefaultColor(Color color);
     int getRGB(Point point);
     int getRGB(double x, double y);
+
+    // Samples length pixels starting from (x, y), moving by (stepX, stepY) for each next pixel
+    void getRGBRow(double x, double y, double stepX, double stepY, int[] row, int offset, int length);
+
+    // Samples length pixels of the same row starting from its pixel start, the positions are the same
+    // as if the whole row was sampled, so a tile of the row gets exactly the pixels of the whole row
+    void getRGBRow(double x, double y, double stepX, double stepY, int start, int[] row, int offset, int length);
 }
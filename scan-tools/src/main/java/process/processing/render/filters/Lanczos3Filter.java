@@ -0,0 +1,12 @@
+package process.processing.render.filters;
+
+import process.processing.render.resize.SeparableImageResize;
+
+public class Lanczos3Filter extends AbstractKernelFilter {
+    private static final int TAPS = 6;
+    private static final int[] WEIGHTS = createWeights(TAPS, SeparableImageResize.Kernels.Lanczos3::getWeight);
+
+    public Lanczos3Filter() {
+        super(TAPS, WEIGHTS);
+    }
+}
@@ -12,4 +12,14 @@ public class RoughFilter extends AbstractImageFilter {
         int result = getRGBFromImage(intX, intY);
         return result;
     }
+
+    @Override
+    public void getRGBRow(double x, double y, double stepX, double stepY, int start, int[] row, int offset,
+            int length) {
+        for (int i = start; i < start + length; i++) {
+            int intX = (int) Math.round(x + i * stepX);
+            int intY = (int) Math.round(y + i * stepY);
+            row[offset + i - start] = getRGBFromImage(intX, intY);
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package process.processing.render.graph;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import executors.TileExecutor;
+import process.processing.render.binarization.AdaptiveImageBinarization;
+import process.processing.render.binarization.AdaptiveImageBinarization.SummedAreaTables;
+import utils.ImageUtils;
+
+// Adaptive binarization of the region by the windows around its pixels. The summed-area tables of the whole page
+// are built once from the bands of the source pulled in parallel, so the windows are cut by the borders
+// of the whole image and every region gets the same thresholds as the whole image.
+public class AdaptiveBinarizationNode extends TileNode {
+    private TileNode source;
+    private AdaptiveImageBinarization binarization;
+    private TileExecutor executor;
+    private SummedAreaTables tables;
+
+    public AdaptiveBinarizationNode(TileNode source, AdaptiveImageBinarization binarization, TileExecutor executor) {
+        super(source.getWidth(), source.getHeight(), BufferedImage.TYPE_BYTE_BINARY);
+        this.source = source;
+        this.binarization = binarization;
+        this.executor = executor;
+    }
+
+    @Override
+    public void prepare() {
+        source.prepare();
+        getTables();
+    }
+
+    @Override
+    public BufferedImage getRegion(Rectangle region) {
+        SummedAreaTables regionTables = getTables();
+
+        BufferedImage result = new BufferedImage(region.width, region.height, imageType);
+        int[] row = new int[region.width];
+        for (int y = 0; y < region.height; y++) {
+            binarization.binarizeRow(regionTables, region.y + y, region.x, region.x + region.width, row);
+            ImageUtils.setRGBRow(result, y, row);
+        }
+        return result;
+    }
+
+    private synchronized SummedAreaTables getTables() {
+        if (tables != null) {
+            return tables;
+        }
+
+        SummedAreaTables newTables = new SummedAreaTables(width, height);
+        executor.forEachBand(height, (startY, endY) -> {
+            BufferedImage band = source.getRegion(new Rectangle(0, startY, width, endY - startY));
+            binarization.calculateIntensities(band, startY, newTables);
+        });
+        binarization.calculateSums(newTables);
+        tables = newTables;
+        return tables;
+    }
+}
@@ -0,0 +1,93 @@
+package process.processing.render.graph;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import executors.TileExecutor;
+import process.processing.render.binarization.ImageBinarization;
+import structures.ImageRaster;
+import utils.ImageUtils;
+
+// Binarization of every pixel by the threshold. The automatic threshold needs the histogram of the whole source
+// before the first region, so the bands of the source are pulled once in parallel, their histograms are summed up
+// and the kept bands are binarized into the packed page, which the regions are copied from.
+public class BinarizationNode extends TileNode {
+    private TileNode source;
+    private ImageBinarization binarization;
+    private TileExecutor executor;
+    private boolean thresholdReady;
+    private BufferedImage page;
+
+    // Binarization belongs to the node, its threshold is changed by the histogram of the source
+    public BinarizationNode(TileNode source, ImageBinarization binarization, TileExecutor executor) {
+        super(source.getWidth(), source.getHeight(), BufferedImage.TYPE_BYTE_BINARY);
+        this.source = source;
+        this.binarization = binarization;
+        this.executor = executor;
+        this.thresholdReady = !binarization.isAutoThreshold();
+    }
+
+    @Override
+    public void prepare() {
+        source.prepare();
+        updateThreshold();
+    }
+
+    @Override
+    public BufferedImage getRegion(Rectangle region) {
+        updateThreshold();
+
+        BufferedImage result = new BufferedImage(region.width, region.height, imageType);
+        if (page != null) {
+            ImageUtils.copyImage(page.getSubimage(region.x, region.y, region.width, region.height), result, 0, 0);
+            return result;
+        }
+
+        ImageRaster raster = new ImageRaster(source.getRegion(region));
+        int[] row = new int[region.width];
+        for (int y = 0; y < region.height; y++) {
+            raster.getRGBRow(0, y, region.width, row);
+            binarization.binarizeRow(row, region.width);
+            ImageUtils.setRGBRow(result, y, row);
+        }
+        return result;
+    }
+
+    private synchronized void updateThreshold() {
+        if (thresholdReady) {
+            return;
+        }
+
+        // Bands of full rows, the histogram samples the rows counted from the top of the whole image
+        int bandHeight = executor.getBandHeight();
+        BufferedImage[] bands = new BufferedImage[(height + bandHeight - 1) / bandHeight];
+        long[] histogram = executor.reduceBands(height, (startY, endY) -> {
+            BufferedImage band = source.getRegion(new Rectangle(0, startY, width, endY - startY));
+            bands[startY / bandHeight] = band;
+            return binarization.calculateHistogram(band, startY);
+        }, (histogram1, histogram2) -> {
+            for (int i = 0; i < histogram1.length; i++) {
+                histogram1[i] += histogram2[i];
+            }
+            return histogram1;
+        });
+        if (histogram != null) {
+            binarization.updateThreshold(histogram);
+        }
+
+        // Packed page is 1 bit per pixel, so it is much smaller than the bands of the source
+        BufferedImage newPage = new BufferedImage(width, height, imageType);
+        executor.forEachBand(height, (startY, endY) -> {
+            ImageRaster raster = new ImageRaster(bands[startY / bandHeight]);
+            bands[startY / bandHeight] = null;
+            int[] row = new int[width];
+            for (int y = startY; y < endY; y++) {
+                raster.getRGBRow(0, y - startY, width, row);
+                binarization.binarizeRow(row, width);
+                ImageUtils.setRGBRow(newPage, y, row);
+            }
+        });
+        page = newPage;
+        thresholdReady = true;
+    }
+}
@@ -0,0 +1,83 @@
+package process.processing.render.graph;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import utils.ImageUtils;
+
+// Keeps the last used bands of full rows of the source, so the overlapping regions, which are requested
+// for the windows of the filters around neighbouring tiles, are computed once.
+// A band requested by two threads at the same time may be computed twice, but the result is the same.
+// Source has to be of a predefined image type, as the sampled and binarized images are.
+public class CachedNode extends TileNode {
+    private TileNode source;
+    private int bandHeight;
+    private Map<Integer, BufferedImage> bands;
+    private int computedBands;
+
+    public CachedNode(TileNode source, int bandHeight, int capacity) {
+        super(source.getWidth(), source.getHeight(), source.getImageType());
+        this.source = source;
+        this.bandHeight = bandHeight;
+        // Access order makes the eldest entry the least recently used one
+        bands = new LinkedHashMap<Integer, BufferedImage>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public void prepare() {
+        source.prepare();
+    }
+
+    @Override
+    public BufferedImage getRegion(Rectangle region) {
+        int firstBand = region.y / bandHeight;
+        int lastBand = (region.y + region.height - 1) / bandHeight;
+        if (firstBand == lastBand) {
+            BufferedImage result = getBand(firstBand).getSubimage(region.x, region.y - firstBand * bandHeight,
+                    region.width, region.height);
+            return result;
+        }
+
+        BufferedImage result = new BufferedImage(region.width, region.height, imageType);
+        for (int band = firstBand; band <= lastBand; band++) {
+            int bandY = band * bandHeight;
+            Rectangle part = region.intersection(new Rectangle(0, bandY, width, bandHeight));
+            BufferedImage image = getBand(band).getSubimage(part.x, part.y - bandY, part.width, part.height);
+            ImageUtils.copyImage(image, result, 0, part.y - region.y);
+        }
+        return result;
+    }
+
+    private BufferedImage getBand(int band) {
+        synchronized (bands) {
+            BufferedImage result = bands.get(band);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        int bandY = band * bandHeight;
+        BufferedImage result = source.getRegion(new Rectangle(0, bandY, width, Math.min(bandHeight, height - bandY)));
+        synchronized (bands) {
+            bands.put(band, result);
+            computedBands++;
+        }
+        return result;
+    }
+
+    // Bands computed by the source, including the bands computed again after they have left the cache
+    public int getComputedBands() {
+        synchronized (bands) {
+            return computedBands;
+        }
+    }
+}
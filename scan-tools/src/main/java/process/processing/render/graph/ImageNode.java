@@ -0,0 +1,20 @@
+package process.processing.render.graph;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+// Decoded image, which is the source of the graph
+public class ImageNode extends TileNode {
+    private BufferedImage image;
+
+    public ImageNode(BufferedImage image) {
+        super(image.getWidth(), image.getHeight(), image.getType());
+        this.image = image;
+    }
+
+    @Override
+    public BufferedImage getRegion(Rectangle region) {
+        BufferedImage result = image.getSubimage(region.x, region.y, region.width, region.height);
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package process.processing.render.graph;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import process.processing.render.merge.Imposition;
+import utils.ImageUtils;
+
+// Pages placed on the sheet by the Imposition as ImageMerge places them, a missing page is an empty place
+public class MergeNode extends TileNode {
+    private static final Color DEFAULT_COLOR = Color.WHITE;
+
+    private TileNode[] pages;
+    private Rectangle[] places;
+
+    public MergeNode(TileNode[] pages, Imposition imposition) {
+        super(imposition.getSheetSize(getSizes(pages)).width, imposition.getSheetSize(getSizes(pages)).height,
+                getMergedImageType(pages));
+        this.pages = pages;
+
+        Dimension[] sizes = getSizes(pages);
+        Rectangle[] cells = imposition.getCells(sizes);
+        places = new Rectangle[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            places[i] = pages[i] == null ? null : imposition.getPagePlace(cells[i], sizes[i]);
+        }
+    }
+
+    private static Dimension[] getSizes(TileNode[] pages) {
+        Dimension[] result = new Dimension[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            result[i] = pages[i] == null ? null : new Dimension(pages[i].getWidth(), pages[i].getHeight());
+        }
+        return result;
+    }
+
+    // Binarized pages stay packed 1 bit per pixel, grayscale pages stay 8-bit gray
+    private static int getMergedImageType(TileNode[] pages) {
+        int result;
+        if (isOfType(pages, BufferedImage.TYPE_BYTE_BINARY)) {
+            result = BufferedImage.TYPE_BYTE_BINARY;
+        } else if (isOfType(pages, BufferedImage.TYPE_BYTE_GRAY)) {
+            result = BufferedImage.TYPE_BYTE_GRAY;
+        } else {
+            result = BufferedImage.TYPE_INT_RGB;
+        }
+        return result;
+    }
+
+    private static boolean isOfType(TileNode[] pages, int imageType) {
+        boolean result = Arrays.stream(pages).allMatch(page -> page == null || page.getImageType() == imageType);
+        return result;
+    }
+
+    @Override
+    public void prepare() {
+        for (TileNode page : pages) {
+            if (page != null) {
+                page.prepare();
+            }
+        }
+    }
+
+    @Override
+    public BufferedImage getRegion(Rectangle region) {
+        BufferedImage result = ImageUtils.createFilledBufferedImage(region.width, region.height, imageType,
+                DEFAULT_COLOR);
+
+        for (int i = 0; i < pages.length; i++) {
+            if (pages[i] == null) {
+                continue;
+            }
+            Rectangle part = region.intersection(places[i]);
+            if (part.isEmpty()) {
+                continue;
+            }
+
+            BufferedImage image = pages[i].getRegion(new Rectangle(part.x - places[i].x, part.y - places[i].y,
+                    part.width, part.height));
+            ImageUtils.copyImage(image, result, part.x - region.x, part.y - region.y);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,34 @@
+package process.processing.render.graph;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+// Rectangular region of the source, as the crop by the bounding box of the markup
+public class RegionNode extends TileNode {
+    private TileNode source;
+    private int x;
+    private int y;
+
+    public RegionNode(TileNode source, Rectangle region) {
+        super(region.width, region.height, source.getImageType());
+        if (!new Rectangle(source.getWidth(), source.getHeight()).contains(region)) {
+            throw new IllegalArgumentException("Region is outside of the image: " + region);
+        }
+
+        this.source = source;
+        this.x = region.x;
+        this.y = region.y;
+    }
+
+    @Override
+    public void prepare() {
+        source.prepare();
+    }
+
+    @Override
+    public BufferedImage getRegion(Rectangle region) {
+        BufferedImage result = source.getRegion(new Rectangle(x + region.x, y + region.y, region.width,
+                region.height));
+        return result;
+    }
+}
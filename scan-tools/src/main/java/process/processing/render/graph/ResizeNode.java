@@ -0,0 +1,32 @@
+package process.processing.render.graph;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import process.processing.render.resize.SeparableImageResize;
+
+// Separable resize of the region from the source pixels under its kernels
+public class ResizeNode extends TileNode {
+    private TileNode source;
+    private SeparableImageResize resize;
+
+    public ResizeNode(TileNode source, SeparableImageResize resize) {
+        super(resize.getNewSize(source.getWidth()), resize.getNewSize(source.getHeight()),
+                getCompatibleImageType(source.getImageType()));
+        this.source = source;
+        this.resize = resize;
+    }
+
+    @Override
+    public void prepare() {
+        source.prepare();
+    }
+
+    @Override
+    public BufferedImage getRegion(Rectangle region) {
+        Rectangle sourceRegion = resize.getSourceRegion(region, source.getWidth(), source.getHeight());
+        BufferedImage result = resize.processRegion(source.getRegion(sourceRegion), sourceRegion.x,
+                sourceRegion.y, source.getWidth(), source.getHeight(), region);
+        return result;
+    }
+}
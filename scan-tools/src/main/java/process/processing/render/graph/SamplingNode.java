@@ -0,0 +1,95 @@
+package process.processing.render.graph;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.function.Supplier;
+
+import process.processing.render.filters.ImageFilter;
+import utils.ImageUtils;
+
+// Rotation, crop and resize of the source by the smooth filter: pixel (x, y) is the source pixel
+// (originX + (x * cos - y * sin) / scale, originY + (x * sin + y * cos) / scale).
+// The positions are calculated as the RotationImageCrop and ImageResize calculate them for the whole image,
+// so every tile has exactly the same pixels.
+public class SamplingNode extends TileNode {
+    // Source pixels around the sampled positions, which are read by the smooth filters, up to 3 by Lanczos 3 Filter
+    private static final int FILTER_MARGIN = 3;
+
+    private TileNode source;
+    private Supplier<ImageFilter> filterFactory;
+    private double originX;
+    private double originY;
+    private double cos;
+    private double sin;
+    private double scale;
+
+    public SamplingNode(TileNode source, Supplier<ImageFilter> filterFactory, double originX, double originY,
+            double cos, double sin, double scale, int width, int height) {
+        super(width, height, getCompatibleImageType(source.getImageType()));
+        this.source = source;
+        this.filterFactory = filterFactory;
+        this.originX = originX;
+        this.originY = originY;
+        this.cos = cos;
+        this.sin = sin;
+        this.scale = scale;
+    }
+
+    @Override
+    public void prepare() {
+        source.prepare();
+    }
+
+    @Override
+    public BufferedImage getRegion(Rectangle region) {
+        double stepX = cos / scale;
+        double stepY = sin / scale;
+
+        // Filter holds the image it is sampling, so every tile gets its own filter
+        Rectangle sourceRegion = getSourceRegion(region, stepX, stepY);
+        ImageFilter filter = filterFactory.get();
+        filter.setImage(source.getRegion(sourceRegion), sourceRegion.x, sourceRegion.y);
+
+        BufferedImage result = new BufferedImage(region.width, region.height, imageType);
+        int[] row = new int[region.width];
+        for (int y = region.y; y < region.y + region.height; y++) {
+            double cropY = y / scale;
+            double rowX = originX - sin * cropY;
+            double rowY = originY + cos * cropY;
+            filter.getRGBRow(rowX, rowY, stepX, stepY, region.x, row, 0, region.width);
+            ImageUtils.setRGBRow(result, y - region.y, row);
+        }
+        return result;
+    }
+
+    // Bounding box of the positions sampled for the region, the mapping is linear, so the corners bound it
+    private Rectangle getSourceRegion(Rectangle region, double stepX, double stepY) {
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int y : new int[] { region.y, region.y + region.height - 1 }) {
+            double cropY = y / scale;
+            for (int x : new int[] { region.x, region.x + region.width - 1 }) {
+                double pointX = originX - sin * cropY + x * stepX;
+                double pointY = originY + cos * cropY + x * stepY;
+                minX = Math.min(minX, pointX);
+                maxX = Math.max(maxX, pointX);
+                minY = Math.min(minY, pointY);
+                maxY = Math.max(maxY, pointY);
+            }
+        }
+
+        int startX = Math.max((int) Math.floor(minX) - FILTER_MARGIN, 0);
+        int startY = Math.max((int) Math.floor(minY) - FILTER_MARGIN, 0);
+        int endX = Math.min((int) Math.floor(maxX) + FILTER_MARGIN + 1, source.getWidth());
+        int endY = Math.min((int) Math.floor(maxY) + FILTER_MARGIN + 1, source.getHeight());
+
+        // Region outside of the source still needs an image for the filter,
+        // all its positions are outside of the source and get the default color of the filter
+        startX = Math.min(startX, source.getWidth() - 1);
+        startY = Math.min(startY, source.getHeight() - 1);
+        Rectangle result = new Rectangle(startX, startY, Math.max(endX - startX, 1), Math.max(endY - startY, 1));
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package process.processing.render.graph;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import encoders.ImageStreamWriter;
+import executors.TileExecutor;
+import structures.ImageRaster;
+import utils.ImageUtils;
+
+// Sinks of the graph, which pull the bands of full rows from the last node, several bands are computed in parallel
+public class TileGraph {
+
+    // Binarized and gray images keep their type, all the others are written as RGB
+    public static int getOutputImageType(TileNode node) {
+        int imageType = node.getImageType();
+        int result = imageType == BufferedImage.TYPE_BYTE_BINARY || imageType == BufferedImage.TYPE_BYTE_GRAY
+                ? imageType : BufferedImage.TYPE_INT_RGB;
+        return result;
+    }
+
+    // Whole image, for the formats, which are not written by rows, and for the viewers
+    public static BufferedImage toImage(TileNode node, TileExecutor executor) {
+        int width = node.getWidth();
+        BufferedImage result = new BufferedImage(width, node.getHeight(), getOutputImageType(node));
+        node.prepare();
+        // Bands are whole rows, so even packed binary bands do not share bytes of the result
+        executor.forEachBand(node.getHeight(), (startY, endY) -> {
+            BufferedImage band = node.getRegion(new Rectangle(0, startY, width, endY - startY));
+            ImageUtils.copyImage(band, result, 0, startY);
+        });
+        return result;
+    }
+
+    // Rows are written in order, only the bands computed by the threads at the same time are kept in memory
+    public static void write(TileNode node, ImageStreamWriter writer, TileExecutor executor) throws IOException {
+        int width = node.getWidth();
+        int height = node.getHeight();
+        int bandHeight = executor.getBandHeight();
+        int groupHeight = bandHeight * executor.getParallelism();
+        node.prepare();
+
+        int[] row = new int[width];
+        for (int groupY = 0; groupY < height; groupY += groupHeight) {
+            int startY = groupY;
+            int endY = Math.min(groupY + groupHeight, height);
+            BufferedImage[] bands = new BufferedImage[(endY - startY + bandHeight - 1) / bandHeight];
+            executor.forEachBand(endY - startY, (bandStartY, bandEndY) -> {
+                bands[bandStartY / bandHeight] = node.getRegion(new Rectangle(0, startY + bandStartY, width,
+                        bandEndY - bandStartY));
+            });
+
+            for (BufferedImage band : bands) {
+                ImageRaster raster = new ImageRaster(band);
+                for (int y = 0; y < band.getHeight(); y++) {
+                    raster.getRGBRow(0, y, width, row);
+                    writer.writeRow(row);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package process.processing.render.graph;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+// Node of the lazy render graph: it produces any region of its image on demand, pulling only the regions
+// of its sources, which are needed for it, so the full size intermediate images are never allocated.
+// Regions may be requested by several threads at the same time.
+public abstract class TileNode {
+    protected int width;
+    protected int height;
+    protected int imageType;
+
+    protected TileNode(int width, int height, int imageType) {
+        this.width = width;
+        this.height = height;
+        this.imageType = imageType;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getImageType() {
+        return imageType;
+    }
+
+    // Work, which needs the whole source before the first region, as the threshold of the page. The sinks call it
+    // before they pull the bands, so it runs in parallel by itself, otherwise the first region does it.
+    // Nodes with sources prepare their sources first.
+    public void prepare() {
+    }
+
+    // Region has to be inside of the image, the returned image may be shared, so it must not be modified
+    public abstract BufferedImage getRegion(Rectangle region);
+
+    // Image type of the result of sampling, as ImageUtils.getCompatibleImageType gives for the source image
+    protected static int getCompatibleImageType(int imageType) {
+        int result = imageType == BufferedImage.TYPE_BYTE_GRAY ? BufferedImage.TYPE_BYTE_GRAY
+                : BufferedImage.TYPE_INT_RGB;
+        return result;
+    }
+}
@@ -1,45 +1,84 @@
 package process.processing.render.merge;
 
 import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
-import process.processing.render.RenderNode.ImageMergeMethods;
 import utils.ImageUtils;
 
+// Pages are copied to their places on the sheet by the Imposition, null pages are the empty places
 public class ImageMerge {
     private Color defaultColor = Color.WHITE;
-    private ImageMergeMethods mergeMethod;
+    private Imposition imposition = new Imposition();
 
-    public ImageMergeMethods getMergeMethod() {
-        return mergeMethod;
+    public Imposition getImposition() {
+        return imposition;
     }
 
-    public void setMergeMethod(ImageMergeMethods mergeMethod) {
-        this.mergeMethod = mergeMethod;
+    public void setImposition(Imposition imposition) {
+        this.imposition = imposition;
     }
 
-    public BufferedImage mergeImages(BufferedImage image1, BufferedImage image2) {
-        if (image1 == null) {
-            image1 = ImageUtils.createFilledBufferedImage(image2.getWidth(), image2.getHeight(), defaultColor);
+    public BufferedImage mergeImages(BufferedImage... images) {
+        // Binarized pages stay packed 1 bit per pixel, grayscale pages stay 8-bit gray
+        int imageType;
+        if (isOfType(images, BufferedImage.TYPE_BYTE_BINARY)) {
+            imageType = BufferedImage.TYPE_BYTE_BINARY;
+        } else if (isOfType(images, BufferedImage.TYPE_BYTE_GRAY)) {
+            imageType = BufferedImage.TYPE_BYTE_GRAY;
+        } else {
+            imageType = BufferedImage.TYPE_INT_RGB;
         }
-        if (image2 == null) {
-            image2 = ImageUtils.createFilledBufferedImage(image1.getWidth(), image1.getHeight(), defaultColor);
+
+        Dimension[] sizes = new Dimension[images.length];
+        for (int i = 0; i < images.length; i++) {
+            sizes[i] = images[i] == null ? null : new Dimension(images[i].getWidth(), images[i].getHeight());
         }
+        Dimension size = imposition.getSheetSize(sizes);
+        BufferedImage newImage = new BufferedImage(size.width, size.height, imageType);
 
-        int width = image1.getWidth() + image2.getWidth();
-        int height = Math.max(image1.getHeight(), image2.getHeight());
-        BufferedImage newImage = ImageUtils.createFilledBufferedImage(width, height, defaultColor);
+        Rectangle[] cells = imposition.getCells(sizes);
+        for (int i = 0; i < cells.length; i++) {
+            fillGutters(newImage, cells[i]);
+            copyPage(i < images.length ? images[i] : null, newImage, cells[i]);
+        }
 
-        int offsetX = 0;
-        int offsetY = (newImage.getHeight() - image1.getHeight()) / 2;
-        int[] data = image1.getRGB(0, 0, image1.getWidth(), image1.getHeight(), null, 0, image1.getWidth());
-        newImage.setRGB(offsetX, offsetY, image1.getWidth(), image1.getHeight(), data, 0, image1.getWidth());
+        return newImage;
+    }
 
-        offsetX = image1.getWidth();
-        offsetY = (newImage.getHeight() - image2.getHeight()) / 2;
-        data = image2.getRGB(0, 0, image2.getWidth(), image2.getHeight(), null, 0, image2.getWidth());
-        newImage.setRGB(offsetX, offsetY, image2.getWidth(), image2.getHeight(), data, 0, image2.getWidth());
+    // Gutters on the right and below the cell, up to the next cells
+    private void fillGutters(BufferedImage newImage, Rectangle cell) {
+        int gutter = imposition.getGutter();
+        int right = cell.x + cell.width;
+        int bottom = cell.y + cell.height;
+        int rightGutter = right < newImage.getWidth() ? gutter : 0;
+        ImageUtils.fillRect(newImage, right, cell.y, rightGutter, cell.height, defaultColor);
+        if (bottom < newImage.getHeight()) {
+            ImageUtils.fillRect(newImage, cell.x, bottom, cell.width + rightGutter, gutter, defaultColor);
+        }
+    }
 
-        return newImage;
+    // Rows of the page are copied to its place in the cell, only the bands around it are filled
+    private void copyPage(BufferedImage image, BufferedImage newImage, Rectangle cell) {
+        if (image == null) {
+            ImageUtils.fillRect(newImage, cell.x, cell.y, cell.width, cell.height, defaultColor);
+            return;
+        }
+
+        Rectangle place = imposition.getPagePlace(cell, new Dimension(image.getWidth(), image.getHeight()));
+        int bottom = place.y + place.height;
+        int right = place.x + place.width;
+        ImageUtils.fillRect(newImage, cell.x, cell.y, cell.width, place.y - cell.y, defaultColor);
+        ImageUtils.fillRect(newImage, cell.x, place.y, place.x - cell.x, place.height, defaultColor);
+        ImageUtils.copyImage(image, newImage, place.x, place.y);
+        ImageUtils.fillRect(newImage, right, place.y, cell.x + cell.width - right, place.height, defaultColor);
+        ImageUtils.fillRect(newImage, cell.x, bottom, cell.width, cell.y + cell.height - bottom, defaultColor);
+    }
+
+    private boolean isOfType(BufferedImage[] images, int imageType) {
+        boolean result = Arrays.stream(images).allMatch(image -> image == null || image.getType() == imageType);
+        return result;
     }
 }
@@ -0,0 +1,233 @@
+package process.processing.render.merge;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import process.processing.render.ImpositionAlignments;
+import process.processing.render.ImpositionOrders;
+
+// Layout of the pages on a sheet: a grid of places separated by the gutters, which the pages fill in the order.
+// Column is as wide as its widest page and row is as high as its highest page, a column or row without pages
+// is as wide or high as the biggest page of the sheet, so 2 columns in 1 row are the two pages side by side.
+public class Imposition {
+    private int columns = 2;
+    private int rows = 1;
+    private int gutter;
+    private ImpositionOrders order = ImpositionOrders.Rows;
+    private ImpositionAlignments horizontalAlignment = ImpositionAlignments.Center;
+    private ImpositionAlignments verticalAlignment = ImpositionAlignments.Center;
+    // Empty places before the first page, 1 puts the first page on the right like in a book
+    private int emptyPlaces;
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public void setColumns(int columns) {
+        this.columns = columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+
+    public int getGutter() {
+        return gutter;
+    }
+
+    public void setGutter(int gutter) {
+        this.gutter = gutter;
+    }
+
+    public ImpositionOrders getOrder() {
+        return order;
+    }
+
+    public void setOrder(ImpositionOrders order) {
+        this.order = order;
+    }
+
+    public ImpositionAlignments getHorizontalAlignment() {
+        return horizontalAlignment;
+    }
+
+    public void setHorizontalAlignment(ImpositionAlignments horizontalAlignment) {
+        this.horizontalAlignment = horizontalAlignment;
+    }
+
+    public ImpositionAlignments getVerticalAlignment() {
+        return verticalAlignment;
+    }
+
+    public void setVerticalAlignment(ImpositionAlignments verticalAlignment) {
+        this.verticalAlignment = verticalAlignment;
+    }
+
+    public int getEmptyPlaces() {
+        return emptyPlaces;
+    }
+
+    public void setEmptyPlaces(int emptyPlaces) {
+        this.emptyPlaces = emptyPlaces;
+    }
+
+    public int getPlaces() {
+        return columns * rows;
+    }
+
+    // Indices of the pages on every sheet, -1 is an empty place
+    public List<int[]> planSheets(int pageCount) {
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("Grid is not supported: " + columns + "x" + rows);
+        }
+
+        int[] sequence = getPageSequence(pageCount);
+        int places = getPlaces();
+        List<int[]> result = new ArrayList<>();
+        for (int start = 0; start < sequence.length; start += places) {
+            int[] pages = new int[places];
+            Arrays.fill(pages, -1);
+            System.arraycopy(sequence, start, pages, 0, Math.min(places, sequence.length - start));
+            if (Arrays.stream(pages).anyMatch(page -> page >= 0)) {
+                result.add(pages);
+            }
+        }
+        return result;
+    }
+
+    // Booklet is padded to a multiple of 4 pages, spread k has the pages k and n - 1 - k,
+    // the outer page is on the left of the even spreads and on the right of the odd ones
+    private int[] getPageSequence(int pageCount) {
+        int length = emptyPlaces + pageCount;
+        if (order == ImpositionOrders.Booklet) {
+            if (columns % 2 != 0) {
+                throw new IllegalArgumentException("Booklet Order is not supported for odd Columns: " + columns);
+            }
+            length = (length + 3) / 4 * 4;
+        }
+
+        int[] pages = new int[length];
+        Arrays.fill(pages, -1);
+        for (int i = 0; i < pageCount; i++) {
+            pages[emptyPlaces + i] = i;
+        }
+        if (order != ImpositionOrders.Booklet) {
+            return pages;
+        }
+
+        int[] result = new int[length];
+        for (int spread = 0; spread < length / 2; spread++) {
+            int inner = pages[spread];
+            int outer = pages[length - 1 - spread];
+            result[2 * spread] = spread % 2 == 0 ? outer : inner;
+            result[2 * spread + 1] = spread % 2 == 0 ? inner : outer;
+        }
+        return result;
+    }
+
+    // Sizes of the pages of a sheet are null for the empty places
+    public Dimension getSheetSize(Dimension[] sizes) {
+        int[] widths = getColumnWidths(sizes);
+        int[] heights = getRowHeights(sizes);
+        Dimension result = new Dimension(Arrays.stream(widths).sum() + (columns - 1) * gutter,
+                Arrays.stream(heights).sum() + (rows - 1) * gutter);
+        return result;
+    }
+
+    // Cell of every place of the sheet
+    public Rectangle[] getCells(Dimension[] sizes) {
+        int[] widths = getColumnWidths(sizes);
+        int[] heights = getRowHeights(sizes);
+        int[] xs = getStarts(widths);
+        int[] ys = getStarts(heights);
+
+        Rectangle[] result = new Rectangle[getPlaces()];
+        for (int place = 0; place < result.length; place++) {
+            int column = getColumn(place);
+            int row = getRow(place);
+            result[place] = new Rectangle(xs[column], ys[row], widths[column], heights[row]);
+        }
+        return result;
+    }
+
+    // Page of the size aligned in its cell
+    public Rectangle getPagePlace(Rectangle cell, Dimension size) {
+        Rectangle result = new Rectangle(cell.x + align(cell.width - size.width, horizontalAlignment),
+                cell.y + align(cell.height - size.height, verticalAlignment), size.width, size.height);
+        return result;
+    }
+
+    private int align(int space, ImpositionAlignments alignment) {
+        switch (alignment) {
+            case Start:
+                return 0;
+            case Center:
+                return space / 2;
+            case End:
+                return space;
+            default:
+                throw new IllegalArgumentException("Alignment is not supported: " + alignment);
+        }
+    }
+
+    private int getColumn(int place) {
+        int result = order == ImpositionOrders.Columns ? place / rows : place % columns;
+        return result;
+    }
+
+    private int getRow(int place) {
+        int result = order == ImpositionOrders.Columns ? place % rows : place / columns;
+        return result;
+    }
+
+    private int[] getColumnWidths(Dimension[] sizes) {
+        int[] result = new int[columns];
+        int maxWidth = 0;
+        for (int place = 0; place < sizes.length; place++) {
+            if (sizes[place] != null) {
+                int column = getColumn(place);
+                result[column] = Math.max(result[column], sizes[place].width);
+                maxWidth = Math.max(maxWidth, sizes[place].width);
+            }
+        }
+        fillEmpty(result, maxWidth);
+        return result;
+    }
+
+    private int[] getRowHeights(Dimension[] sizes) {
+        int[] result = new int[rows];
+        int maxHeight = 0;
+        for (int place = 0; place < sizes.length; place++) {
+            if (sizes[place] != null) {
+                int row = getRow(place);
+                result[row] = Math.max(result[row], sizes[place].height);
+                maxHeight = Math.max(maxHeight, sizes[place].height);
+            }
+        }
+        fillEmpty(result, maxHeight);
+        return result;
+    }
+
+    private void fillEmpty(int[] lengths, int length) {
+        for (int i = 0; i < lengths.length; i++) {
+            if (lengths[i] == 0) {
+                lengths[i] = length;
+            }
+        }
+    }
+
+    private int[] getStarts(int[] lengths) {
+        int[] result = new int[lengths.length];
+        for (int i = 1; i < lengths.length; i++) {
+            result[i] = result[i - 1] + lengths[i - 1] + gutter;
+        }
+        return result;
+    }
+}
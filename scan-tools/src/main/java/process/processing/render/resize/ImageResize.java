@@ -2,10 +2,13 @@ package process.processing.render.resize;
 
 import java.awt.image.BufferedImage;
 
+import executors.TileExecutor;
 import process.processing.render.filters.ImageFilter;
+import utils.ImageUtils;
 
 public class ImageResize {
     private ImageFilter smoothFilter;
+    private TileExecutor executor = TileExecutor.getDefault();
     private int sourceDPI;
     private int targetDPI;
 
@@ -13,6 +16,10 @@ public class ImageResize {
         this.smoothFilter = smoothFilter;
     }
 
+    public void setExecutor(TileExecutor executor) {
+        this.executor = executor;
+    }
+
     public void setSourceDPI(int sourceDPI) {
         this.sourceDPI = sourceDPI;
     }
@@ -22,22 +29,45 @@ public class ImageResize {
     }
 
     public BufferedImage processImage(BufferedImage srcImage) {
-        smoothFilter.setImage(srcImage);
-
-        double factor = (double) targetDPI / sourceDPI;
-        int newWidth = (int) Math.round(srcImage.getWidth() * factor);
-        int newHeight = (int) Math.round(srcImage.getHeight() * factor);
-        BufferedImage newImage = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
-
-        for (int y = 0; y < newImage.getHeight(); y++) {
-            for (int x = 0; x < newImage.getWidth(); x++) {
-                double srcX = x / factor;
-                double srcY = y / factor;
-                int resultColor = smoothFilter.getRGB(srcX, srcY);
-                newImage.setRGB(x, y, resultColor);
+        BufferedImage newImage = processStrip(srcImage, 0, 0, getNewSize(srcImage.getHeight()));
+        return newImage;
+    }
+
+    // Rows from startY to endY of the resized image, the strip is a part of the source image from row stripY,
+    // it has to contain all the source rows around these rows, which are sampled by the smooth filter
+    public BufferedImage processStrip(BufferedImage strip, int stripY, int startY, int endY) {
+        smoothFilter.setImage(strip);
+
+        double factor = getFactor();
+        int newWidth = getNewSize(strip.getWidth());
+        BufferedImage newImage = new BufferedImage(newWidth, endY - startY,
+                ImageUtils.getCompatibleImageType(strip));
+
+        executor.forEachBand(endY - startY, (bandStartY, bandEndY) -> {
+            int[] row = new int[newWidth];
+            for (int y = bandStartY; y < bandEndY; y++) {
+                double srcY = (startY + y) / factor - stripY;
+                smoothFilter.getRGBRow(0, srcY, 1 / factor, 0, row, 0, newWidth);
+                ImageUtils.setRGBRow(newImage, y, row);
             }
-        }
+        });
 
         return newImage;
     }
+
+    public int getNewSize(int size) {
+        int result = (int) Math.round(size * getFactor());
+        return result;
+    }
+
+    // Row of the source image, which is sampled for the row of the resized image
+    public double getSourceY(int y) {
+        double result = y / getFactor();
+        return result;
+    }
+
+    public double getFactor() {
+        double result = (double) targetDPI / sourceDPI;
+        return result;
+    }
 }
@@ -0,0 +1,303 @@
+package process.processing.render.resize;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import executors.TileExecutor;
+import structures.ImageRaster;
+import utils.ImageUtils;
+
+// Resizes the rows first and then the columns, every pixel is the weighted sum of the source pixels
+// under the kernel, which is stretched by the downscale factor, so the downscaled images are not aliased.
+// Source pixels and weights of every row and column of the new image are calculated once.
+public class SeparableImageResize {
+    // Weights are fixed-point numbers with 14 bits of fraction, the sum of 255 * weights fits into int
+    private static final int WEIGHT_BITS = 14;
+    private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+    private static final int ROUNDING = 1 << (WEIGHT_BITS - 1);
+
+    public enum Kernels {
+        // Area of the source pixel under the new pixel, it is calculated exactly, not by the kernel
+        Box(0.5),
+        Bilinear(1),
+        // Catmull-Rom spline, cubic convolution with a = -0.5
+        Bicubic(2),
+        Lanczos3(3);
+
+        private double radius;
+
+        private Kernels(double radius) {
+            this.radius = radius;
+        }
+
+        public double getRadius() {
+            return radius;
+        }
+
+        public double getWeight(double x) {
+            x = Math.abs(x);
+            if (x >= radius) {
+                return 0;
+            }
+
+            double result;
+            switch (this) {
+                case Box:
+                    result = 1;
+                    break;
+                case Bilinear:
+                    result = 1 - x;
+                    break;
+                case Bicubic:
+                    result = x < 1 ? (1.5 * x - 2.5) * x * x + 1 : ((-0.5 * x + 2.5) * x - 4) * x + 2;
+                    break;
+                case Lanczos3:
+                    result = sinc(x) * sinc(x / radius);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Resize Kernel is not supported: " + this);
+            }
+            return result;
+        }
+
+        private static double sinc(double x) {
+            if (x == 0) {
+                return 1;
+            }
+            double result = Math.sin(Math.PI * x) / (Math.PI * x);
+            return result;
+        }
+    }
+
+    private Kernels kernel = Kernels.Box;
+    private TileExecutor executor = TileExecutor.getDefault();
+    private int sourceDPI;
+    private int targetDPI;
+
+    public void setKernel(Kernels kernel) {
+        this.kernel = kernel;
+    }
+
+    public void setExecutor(TileExecutor executor) {
+        this.executor = executor;
+    }
+
+    public void setSourceDPI(int sourceDPI) {
+        this.sourceDPI = sourceDPI;
+    }
+
+    public void setTargetDPI(int targetDPI) {
+        this.targetDPI = targetDPI;
+    }
+
+    public BufferedImage processImage(BufferedImage image) {
+        Rectangle region = new Rectangle(getNewSize(image.getWidth()), getNewSize(image.getHeight()));
+        BufferedImage newImage = processRegion(image, 0, 0, image.getWidth(), image.getHeight(), region);
+        return newImage;
+    }
+
+    // Region of the resized image, the part is the region of the source image at (partX, partY),
+    // which contains the source region given by getSourceRegion, the source size is the size of the whole image
+    public BufferedImage processRegion(BufferedImage part, int partX, int partY, int sourceWidth, int sourceHeight,
+            Rectangle region) {
+        Contributions columns = new Contributions(region.x, region.x + region.width, sourceWidth);
+        Contributions rows = new Contributions(region.y, region.y + region.height, sourceHeight);
+        int firstRow = rows.getSourceStart();
+        int intermediateHeight = rows.getSourceEnd() - firstRow;
+        int width = region.width;
+
+        // Step 1 - Resizing the source rows, which are needed for the region, to the new width
+        ImageRaster raster = new ImageRaster(part);
+        int sourceStart = columns.getSourceStart();
+        int sourceLength = columns.getSourceEnd() - sourceStart;
+        int[] intermediate = new int[width * intermediateHeight];
+        executor.forEachBand(intermediateHeight, (startY, endY) -> {
+            int[] sourceRow = new int[sourceLength];
+            for (int y = startY; y < endY; y++) {
+                raster.getRGBRow(sourceStart - partX, firstRow + y - partY, sourceLength, sourceRow);
+                resizeRow(sourceRow, sourceStart, columns, intermediate, y * width, width);
+            }
+        });
+
+        // Step 2 - Resizing the columns of the intermediate rows to the new height
+        BufferedImage newImage = new BufferedImage(width, region.height, ImageUtils.getCompatibleImageType(part));
+        executor.forEachBand(region.height, (startY, endY) -> {
+            int[] red = new int[width];
+            int[] green = new int[width];
+            int[] blue = new int[width];
+            int[] row = new int[width];
+            for (int y = startY; y < endY; y++) {
+                resizeColumns(intermediate, firstRow, rows, y, red, green, blue, row);
+                ImageUtils.setRGBRow(newImage, y, row);
+            }
+        });
+
+        return newImage;
+    }
+
+    private void resizeRow(int[] sourceRow, int sourceStart, Contributions columns, int[] newRow, int offset,
+            int length) {
+        for (int x = 0; x < length; x++) {
+            int start = columns.starts[x] - sourceStart;
+            int count = columns.counts[x];
+            int weightIndex = x * columns.stride;
+            int r = ROUNDING;
+            int g = ROUNDING;
+            int b = ROUNDING;
+            for (int i = 0; i < count; i++) {
+                int rgb = sourceRow[start + i];
+                int weight = columns.weights[weightIndex + i];
+                r += (rgb >> 16 & 0xFF) * weight;
+                g += (rgb >> 8 & 0xFF) * weight;
+                b += (rgb & 0xFF) * weight;
+            }
+            newRow[offset + x] = 0xFF000000 | clamp(r >> WEIGHT_BITS) << 16 | clamp(g >> WEIGHT_BITS) << 8
+                    | clamp(b >> WEIGHT_BITS);
+        }
+    }
+
+    // Rows of the intermediate image are added one by one with the weight of each row, so the inner loop
+    // goes along the row in memory
+    private void resizeColumns(int[] intermediate, int firstRow, Contributions rows, int y, int[] red, int[] green,
+            int[] blue, int[] row) {
+        int width = row.length;
+        Arrays.fill(red, ROUNDING);
+        Arrays.fill(green, ROUNDING);
+        Arrays.fill(blue, ROUNDING);
+
+        int start = rows.starts[y] - firstRow;
+        for (int i = 0; i < rows.counts[y]; i++) {
+            int weight = rows.weights[y * rows.stride + i];
+            int offset = (start + i) * width;
+            for (int x = 0; x < width; x++) {
+                int rgb = intermediate[offset + x];
+                red[x] += (rgb >> 16 & 0xFF) * weight;
+                green[x] += (rgb >> 8 & 0xFF) * weight;
+                blue[x] += (rgb & 0xFF) * weight;
+            }
+        }
+
+        for (int x = 0; x < width; x++) {
+            row[x] = 0xFF000000 | clamp(red[x] >> WEIGHT_BITS) << 16 | clamp(green[x] >> WEIGHT_BITS) << 8
+                    | clamp(blue[x] >> WEIGHT_BITS);
+        }
+    }
+
+    // Negative lobes of Bicubic and Lanczos overshoot at the sharp edges
+    private static int clamp(int value) {
+        int result = value < 0 ? 0 : value > 255 ? 255 : value;
+        return result;
+    }
+
+    // Source pixels, which are needed for the region of the resized image
+    public Rectangle getSourceRegion(Rectangle region, int sourceWidth, int sourceHeight) {
+        Contributions columns = new Contributions(region.x, region.x + region.width, sourceWidth);
+        Contributions rows = new Contributions(region.y, region.y + region.height, sourceHeight);
+        Rectangle result = new Rectangle(columns.getSourceStart(), rows.getSourceStart(),
+                columns.getSourceEnd() - columns.getSourceStart(), rows.getSourceEnd() - rows.getSourceStart());
+        return result;
+    }
+
+    public int getNewSize(int size) {
+        int result = (int) Math.round(size * getFactor());
+        return result;
+    }
+
+    public double getFactor() {
+        double result = (double) targetDPI / sourceDPI;
+        return result;
+    }
+
+    // Source pixels and weights of the new pixels from start to end along one axis, the pixels beyond the edges
+    // of the source are the edge pixels, their weights are added to the weights of the edge pixels
+    private class Contributions {
+        private int[] starts;
+        private int[] counts;
+        private int[] weights;
+        private int stride;
+
+        private Contributions(int start, int end, int sourceSize) {
+            double factor = getFactor();
+            // Kernel is stretched over the source pixels, which fall into one new pixel, when downscaling
+            double filterScale = Math.max(1, 1 / factor);
+            double support = kernel.getRadius() * filterScale;
+            stride = (int) Math.ceil(2 * support) + 2;
+
+            int length = end - start;
+            starts = new int[length];
+            counts = new int[length];
+            weights = new int[length * stride];
+            double[] doubleWeights = new double[stride];
+
+            for (int i = 0; i < length; i++) {
+                int first;
+                int last;
+                if (kernel == Kernels.Box) {
+                    // New pixel covers the source pixels from left to right
+                    double left = (start + i) / factor;
+                    double right = (start + i + 1) / factor;
+                    first = (int) Math.floor(left);
+                    last = Math.max((int) Math.ceil(right) - 1, first);
+                    for (int j = first; j <= last; j++) {
+                        doubleWeights[j - first] = Math.min(j + 1, right) - Math.max(j, left);
+                    }
+                } else {
+                    double center = (start + i + 0.5) / factor - 0.5;
+                    first = (int) Math.ceil(center - support);
+                    last = (int) Math.floor(center + support);
+                    for (int j = first; j <= last; j++) {
+                        doubleWeights[j - first] = kernel.getWeight((j - center) / filterScale);
+                    }
+                }
+
+                // Clamped source window
+                int windowStart = Math.min(Math.max(first, 0), sourceSize - 1);
+                int windowEnd = Math.max(Math.min(last, sourceSize - 1), windowStart);
+                starts[i] = windowStart;
+                counts[i] = windowEnd - windowStart + 1;
+
+                double sum = 0;
+                for (int j = first; j <= last; j++) {
+                    sum += doubleWeights[j - first];
+                }
+                double[] clampedWeights = new double[counts[i]];
+                for (int j = first; j <= last; j++) {
+                    int index = Math.min(Math.max(j, windowStart), windowEnd) - windowStart;
+                    clampedWeights[index] += sum == 0 ? 0 : doubleWeights[j - first] / sum;
+                }
+                toFixedPoint(clampedWeights, weights, i * stride);
+            }
+        }
+
+        // Rounded weights sum up to exactly one, the rounding error goes to the biggest weight
+        private void toFixedPoint(double[] values, int[] result, int offset) {
+            int sum = 0;
+            int biggest = 0;
+            for (int i = 0; i < values.length; i++) {
+                result[offset + i] = (int) Math.round(values[i] * WEIGHT_ONE);
+                sum += result[offset + i];
+                if (values[i] > values[biggest]) {
+                    biggest = i;
+                }
+            }
+            result[offset + biggest] += WEIGHT_ONE - sum;
+        }
+
+        private int getSourceStart() {
+            int result = starts.length == 0 ? 0 : Integer.MAX_VALUE;
+            for (int i = 0; i < starts.length; i++) {
+                result = Math.min(result, starts[i]);
+            }
+            return result;
+        }
+
+        private int getSourceEnd() {
+            int result = 0;
+            for (int i = 0; i < starts.length; i++) {
+                result = Math.max(result, starts[i] + counts[i]);
+            }
+            return result;
+        }
+    }
+}
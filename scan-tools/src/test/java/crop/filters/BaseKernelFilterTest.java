@@ -0,0 +1,84 @@
+package crop.filters;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import process.processing.render.filters.ImageFilter;
+import process.processing.render.resize.SeparableImageResize;
+
+// Filters by the kernels are compared with the kernel calculated in double at the same quantized positions
+public abstract class BaseKernelFilterTest extends BaseImageFilterTest {
+    protected abstract SeparableImageResize.Kernels getKernel();
+
+    protected abstract ImageFilter createFilter();
+
+    @Test
+    public void testGetRGBFromIntegerPoint() {
+        filter = createFilter();
+        filter.setImage(image);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < resolutionX; x++) {
+                assertEquals(getExpectedPixel(x, y), filter.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsKernelOverWholeImage() {
+        filter = createFilter();
+        filter.setImage(image);
+        for (double y = -1; y <= image.getHeight(); y += 0.07) {
+            for (double x = -1; x <= image.getWidth(); x += 0.03) {
+                assertRGBEquals(getKernelRGB(x, y), filter.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testGetRGBRow() {
+        filter = createFilter();
+        filter.setImage(image);
+        int length = 20;
+        int[] row = new int[length];
+        filter.getRGBRow(-0.3, 0.7, 0.17, 0.11, row, 0, length);
+
+        for (int i = 0; i < length; i++) {
+            assertEquals(filter.getRGB(-0.3 + i * 0.17, 0.7 + i * 0.11), row[i]);
+        }
+    }
+
+    private int getKernelRGB(double x, double y) {
+        // Same quantization of the position as the filter
+        x = Math.floor(x * 256 + 0.5) / 256;
+        y = Math.floor(y * 256 + 0.5) / 256;
+        int radius = (int) getKernel().getRadius();
+        double[] sums = new double[3];
+        double weightSum = 0;
+        for (int pixelY = (int) Math.floor(y) - radius + 1; pixelY <= Math.floor(y) + radius; pixelY++) {
+            for (int pixelX = (int) Math.floor(x) - radius + 1; pixelX <= Math.floor(x) + radius; pixelX++) {
+                double weight = getKernel().getWeight(pixelX - x) * getKernel().getWeight(pixelY - y);
+                int rgb = pixelX >= 0 && pixelX < image.getWidth() && pixelY >= 0 && pixelY < image.getHeight()
+                        ? getExpectedPixel(pixelX, pixelY) : 0xFFFFFFFF;
+                sums[0] += (rgb >> 16 & 0xFF) * weight;
+                sums[1] += (rgb >> 8 & 0xFF) * weight;
+                sums[2] += (rgb & 0xFF) * weight;
+                weightSum += weight;
+            }
+        }
+
+        int result = 0xFF000000;
+        for (int i = 0; i < 3; i++) {
+            int value = (int) Math.round(Math.min(Math.max(sums[i] / weightSum, 0), 255));
+            result |= value << (16 - 8 * i);
+        }
+        return result;
+    }
+
+    // Weights are rounded to 1/1024, so the channels may differ by one
+    private void assertRGBEquals(int expected, int actual) {
+        for (int shift = 0; shift <= 16; shift += 8) {
+            assertEquals(expected >> shift & 0xFF, actual >> shift & 0xFF, 1);
+        }
+    }
+}
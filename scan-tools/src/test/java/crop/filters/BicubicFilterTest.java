@@ -0,0 +1,18 @@
+package crop.filters;
+
+import process.processing.render.filters.BicubicFilter;
+import process.processing.render.filters.ImageFilter;
+import process.processing.render.resize.SeparableImageResize;
+
+public class BicubicFilterTest extends BaseKernelFilterTest {
+
+    @Override
+    protected SeparableImageResize.Kernels getKernel() {
+        return SeparableImageResize.Kernels.Bicubic;
+    }
+
+    @Override
+    protected ImageFilter createFilter() {
+        return new BicubicFilter();
+    }
+}
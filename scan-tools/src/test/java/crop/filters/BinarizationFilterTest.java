@@ -0,0 +1,81 @@
+package crop.filters;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+
+import org.junit.Test;
+
+import process.processing.render.filters.BinarizationFilter;
+
+public class BinarizationFilterTest extends BaseImageFilterTest {
+
+    @Test
+    public void testDefaultSettings() {
+        BinarizationFilter binarizationFilter = new BinarizationFilter();
+        assertSameAsFormula(binarizationFilter, 85 * 5 * 1000, 3, 1, 1);
+    }
+
+    @Test
+    public void testIntegerWeights() {
+        assertSameAsFormula(createFilter(100000 * 5, 3, 1, 1), 100000 * 5, 3, 1, 1);
+        assertSameAsFormula(createFilter(123456.7, 2, 5, 0), 123456.7, 2, 5, 0);
+    }
+
+    @Test
+    public void testFractionalWeights() {
+        assertSameAsFormula(createFilter(100000 * 3.6, 1.5, 1.1, 1), 100000 * 3.6, 1.5, 1.1, 1);
+    }
+
+    @Test
+    public void testHugeWeights() {
+        assertSameAsFormula(createFilter(3e9, 150, 1, 1), 3e9, 150, 1, 1);
+    }
+
+    @Test
+    public void testGetRGBRow() {
+        BinarizationFilter binarizationFilter = createFilter(100000 * 5, 3, 1, 1);
+        binarizationFilter.setImage(image);
+
+        int width = image.getWidth();
+        int[] row = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            binarizationFilter.getRGBRow(0, y, 1, 0, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                assertEquals(binarizationFilter.getRGB(x, y), row[x]);
+                assertEquals(binarizeByFormula(getExpectedPixel(x, y), 100000 * 5, 3, 1, 1), row[x]);
+            }
+        }
+    }
+
+    private BinarizationFilter createFilter(double threshold, double weightRed, double weightGreen, double weightBlue) {
+        BinarizationFilter binarizationFilter = new BinarizationFilter();
+        binarizationFilter.setThreshold(threshold);
+        binarizationFilter.setWeightRed(weightRed);
+        binarizationFilter.setWeightGreen(weightGreen);
+        binarizationFilter.setWeightBlue(weightBlue);
+        return binarizationFilter;
+    }
+
+    private void assertSameAsFormula(BinarizationFilter binarizationFilter, double threshold, double weightRed,
+            double weightGreen, double weightBlue) {
+        for (int r = 0; r < 256; r += 3) {
+            for (int g = 0; g < 256; g += 5) {
+                for (int b = 0; b < 256; b += 2) {
+                    int rgb = 0xFF000000 | r << 16 | g << 8 | b;
+                    int expected = binarizeByFormula(rgb, threshold, weightRed, weightGreen, weightBlue);
+                    assertEquals(expected, binarizationFilter.binarize(rgb));
+                }
+            }
+        }
+    }
+
+    private int binarizeByFormula(int rgb, double threshold, double weightRed, double weightGreen,
+            double weightBlue) {
+        double r = (rgb >> 16 & 0xFF) * weightRed;
+        double g = (rgb >> 8 & 0xFF) * weightGreen;
+        double b = (rgb & 0xFF) * weightBlue;
+        double value = r * r + g * g + b * b;
+        return value >= threshold ? Color.WHITE.getRGB() : Color.BLACK.getRGB();
+    }
+}
@@ -0,0 +1,70 @@
+package crop.filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import process.processing.render.filters.BilinearFilter;
+import process.processing.render.filters.FixedPointBilinearFilter;
+import utils.ColorUtils;
+
+public class FixedPointBilinearFilterTest extends BaseImageFilterTest {
+    private BilinearFilter referenceFilter;
+
+    @Before
+    public void beforeTest() {
+        filter = new FixedPointBilinearFilter();
+        filter.setImage(image);
+
+        referenceFilter = new BilinearFilter();
+        referenceFilter.setImage(image);
+    }
+
+    @Test
+    public void testGetRGBFromIntegerPoint() {
+        assertEquals(getExpectedPixel(1, 2), filter.getRGB(1, 2));
+    }
+
+    @Test
+    public void testGetRGBFomMiddleBetween2Points() {
+        assertRGBEquals(referenceFilter.getRGB(1.5, 2), filter.getRGB(1.5, 2));
+    }
+
+    @Test
+    public void testGetRGBFomMiddleBetween4Points() {
+        assertRGBEquals(referenceFilter.getRGB(1.5, 1.5), filter.getRGB(1.5, 1.5));
+    }
+
+    @Test
+    public void testGetRGBFomNonMiddleBetween4Points() {
+        assertRGBEquals(referenceFilter.getRGB(1.3, 1.4), filter.getRGB(1.3, 1.4));
+    }
+
+    @Test
+    public void testSameAsBilinearFilterOverWholeImage() {
+        for (double y = -1; y <= image.getHeight(); y += 0.07) {
+            for (double x = -1; x <= image.getWidth(); x += 0.03) {
+                assertRGBEquals(referenceFilter.getRGB(x, y), filter.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testGetRGBRow() {
+        int length = 20;
+        int[] row = new int[length];
+        filter.getRGBRow(-0.3, 0.7, 0.17, 0.11, row, 0, length);
+
+        for (int i = 0; i < length; i++) {
+            assertEquals(filter.getRGB(-0.3 + i * 0.17, 0.7 + i * 0.11), row[i]);
+        }
+    }
+
+    private void assertRGBEquals(int expected, int actual) {
+        assertTrue(Math.abs(ColorUtils.getRed(expected) - ColorUtils.getRed(actual)) <= 1);
+        assertTrue(Math.abs(ColorUtils.getGreen(expected) - ColorUtils.getGreen(actual)) <= 1);
+        assertTrue(Math.abs(ColorUtils.getBlue(expected) - ColorUtils.getBlue(actual)) <= 1);
+    }
+}
@@ -0,0 +1,18 @@
+package crop.filters;
+
+import process.processing.render.filters.Lanczos3Filter;
+import process.processing.render.filters.ImageFilter;
+import process.processing.render.resize.SeparableImageResize;
+
+public class Lanczos3FilterTest extends BaseKernelFilterTest {
+
+    @Override
+    protected SeparableImageResize.Kernels getKernel() {
+        return SeparableImageResize.Kernels.Lanczos3;
+    }
+
+    @Override
+    protected ImageFilter createFilter() {
+        return new Lanczos3Filter();
+    }
+}
@@ -0,0 +1,110 @@
+package process.processing.preprocessing.rotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import executors.TileExecutor;
+import process.processing.prepare.rotation.AbstractRotator;
+import process.processing.prepare.rotation.RotationOdd180Degrees;
+
+public class RotationOdd180DegreesTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testEvenIndexIsNotRotated() {
+        BufferedImage image = createImage(BufferedImage.TYPE_INT_RGB, 5, 3);
+        AbstractRotator rotator = new RotationOdd180Degrees();
+        assertSame(image, rotator.rotateImage(image, 1));
+    }
+
+    @Test
+    public void testIsRotationNeeded() {
+        AbstractRotator rotator = new RotationOdd180Degrees();
+        assertTrue(rotator.isRotationNeeded(0));
+        assertFalse(rotator.isRotationNeeded(1));
+        assertTrue(rotator.isRotationNeeded(4));
+    }
+
+    @Test
+    public void testRotation() {
+        checkRotation(BufferedImage.TYPE_INT_RGB, 1);
+        checkRotation(BufferedImage.TYPE_INT_RGB, 4);
+        checkRotation(BufferedImage.TYPE_INT_ARGB, 4);
+        checkRotation(BufferedImage.TYPE_3BYTE_BGR, 4);
+        checkRotation(BufferedImage.TYPE_BYTE_GRAY, 4);
+    }
+
+    // Only JPEG of the odd pages of the whole MCUs is rotated without decoding
+    @Test
+    public void testRotateFile() throws Exception {
+        BufferedImage image = createImage(BufferedImage.TYPE_INT_RGB, 64, 144);
+        File jpegFile = temporaryFolder.newFile("page.jpg");
+        ImageIO.write(image, "jpg", jpegFile);
+        File pngFile = temporaryFolder.newFile("page.png");
+        ImageIO.write(image, "png", pngFile);
+
+        AbstractRotator rotator = new RotationOdd180Degrees();
+        File outputFile = new File(temporaryFolder.getRoot(), "rotated.jpg");
+        assertFalse(rotator.rotateFile(jpegFile, outputFile, 1));
+        assertFalse(rotator.rotateFile(pngFile, new File(temporaryFolder.getRoot(), "rotated.png"), 0));
+        assertFalse(outputFile.exists());
+        File partialFile = temporaryFolder.newFile("partial.jpg");
+        ImageIO.write(createImage(BufferedImage.TYPE_INT_RGB, 71, 150), "jpg", partialFile);
+        assertFalse(rotator.rotateFile(partialFile, outputFile, 0));
+        assertFalse(outputFile.exists());
+
+        assertTrue(rotator.rotateFile(jpegFile, outputFile, 0));
+        BufferedImage rotatedImage = ImageIO.read(outputFile);
+        assertEquals(64, rotatedImage.getWidth());
+        assertEquals(144, rotatedImage.getHeight());
+    }
+
+    private void checkRotation(int imageType, int threads) {
+        int width = 71;
+        int height = 150;
+        BufferedImage image = createImage(imageType, width, height);
+
+        AbstractRotator rotator = new RotationOdd180Degrees();
+        TileExecutor executor = new TileExecutor(threads);
+        rotator.setExecutor(executor);
+        BufferedImage rotatedImage = rotator.rotateImage(image, 0);
+        executor.shutdown();
+
+        assertEquals(width, rotatedImage.getWidth());
+        assertEquals(height, rotatedImage.getHeight());
+        // Same as rotation pixel by pixel with getRGB and setRGB
+        BufferedImage expectedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                expectedImage.setRGB(width - x - 1, height - y - 1, image.getRGB(x, y));
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals("Pixel " + x + ", " + y, expectedImage.getRGB(x, y), rotatedImage.getRGB(x, y));
+            }
+        }
+    }
+
+    private BufferedImage createImage(int imageType, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, imageType);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 37 + y * 11) << 24 | (x * 7 + y * 3) << 8 | x * 13 ^ y);
+            }
+        }
+        return image;
+    }
+}
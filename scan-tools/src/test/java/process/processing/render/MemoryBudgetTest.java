@@ -0,0 +1,73 @@
+package process.processing.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class MemoryBudgetTest {
+
+    @Test
+    public void testAdmitWhileFits() throws Exception {
+        MemoryBudget budget = new MemoryBudget(100);
+        budget.acquire(0, 40);
+        budget.acquire(1, 60);
+        assertEquals(100, budget.getUsedBytes());
+
+        CountDownLatch admitted = startAcquire(budget, 2, 10);
+        assertFalse(admitted.await(100, TimeUnit.MILLISECONDS));
+
+        budget.release(40);
+        assertTrue(admitted.await(1, TimeUnit.SECONDS));
+        assertEquals(70, budget.getUsedBytes());
+    }
+
+    @Test
+    public void testAdmitTooBigAlone() throws Exception {
+        MemoryBudget budget = new MemoryBudget(100);
+        budget.acquire(0, 10);
+
+        CountDownLatch admitted = startAcquire(budget, 1, 500);
+        assertFalse(admitted.await(100, TimeUnit.MILLISECONDS));
+
+        budget.release(10);
+        assertTrue(admitted.await(1, TimeUnit.SECONDS));
+        assertEquals(500, budget.getUsedBytes());
+    }
+
+    @Test
+    public void testAdmitInOrder() throws Exception {
+        MemoryBudget budget = new MemoryBudget(100);
+        budget.acquire(0, 50);
+
+        // Ticket 2 fits, but it waits for ticket 1, which does not fit yet
+        CountDownLatch admitted2 = startAcquire(budget, 2, 10);
+        CountDownLatch admitted1 = startAcquire(budget, 1, 80);
+        assertFalse(admitted2.await(100, TimeUnit.MILLISECONDS));
+        assertFalse(admitted1.await(0, TimeUnit.MILLISECONDS));
+
+        budget.release(50);
+        assertTrue(admitted1.await(1, TimeUnit.SECONDS));
+        assertTrue(admitted2.await(1, TimeUnit.SECONDS));
+        assertEquals(90, budget.getUsedBytes());
+    }
+
+    private CountDownLatch startAcquire(MemoryBudget budget, int ticket, long bytes) {
+        CountDownLatch result = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                budget.acquire(ticket, bytes);
+                result.countDown();
+            } catch (InterruptedException e) {
+                // Test fails by timeout of the latch
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+}
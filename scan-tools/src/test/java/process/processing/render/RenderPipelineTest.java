@@ -0,0 +1,409 @@
+package process.processing.render;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import process.dto.Point;
+import utils.ColorUtils;
+import utils.ImageUtils;
+
+public class RenderPipelineTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWithoutMerge() throws Exception {
+        File inputFolder = createPages(3);
+        File outputFolder = temporaryFolder.newFolder("rendered");
+
+        RenderSettings settings = createSettings();
+        settings.setMerge(false);
+        render(settings, inputFolder, outputFolder);
+
+        assertArrayEquals(new String[] { "page01.bmp", "page02.bmp", "page03.bmp" }, listFiles(outputFolder));
+        checkPage(new File(outputFolder, "page02.bmp"), 0, 2);
+    }
+
+    @Test
+    public void testMerge1ImageOnFirstPage() throws Exception {
+        File inputFolder = createPages(6);
+        File outputFolder = temporaryFolder.newFolder("rendered");
+
+        RenderSettings settings = createSettings();
+        settings.setMergeMethod(ImageMergeMethods.Method1ImageOnFirstPage);
+        render(settings, inputFolder, outputFolder);
+
+        // Pages: [-, 1], [2, 3], [4, 5], [6, -]
+        assertArrayEquals(new String[] { "page0001.png", "page0002.png", "page0003.png", "page0004.png" },
+                listFiles(outputFolder));
+        checkSheet(new File(outputFolder, "page0001.png"), 0, 1);
+        checkSheet(new File(outputFolder, "page0002.png"), 2, 3);
+        checkSheet(new File(outputFolder, "page0003.png"), 4, 5);
+        checkSheet(new File(outputFolder, "page0004.png"), 6, 0);
+    }
+
+    @Test
+    public void testMerge2ImagesOnFirstPage() throws Exception {
+        File inputFolder = createPages(5);
+        File outputFolder = temporaryFolder.newFolder("rendered");
+
+        RenderSettings settings = createSettings();
+        settings.setMergeMethod(ImageMergeMethods.Method2ImagesOnFirstPage);
+        render(settings, inputFolder, outputFolder);
+
+        // Pages: [1, 2], [3, 4], [5, -]
+        assertArrayEquals(new String[] { "page0001.png", "page0002.png", "page0003.png" }, listFiles(outputFolder));
+        checkSheet(new File(outputFolder, "page0001.png"), 1, 2);
+        checkSheet(new File(outputFolder, "page0002.png"), 3, 4);
+        checkSheet(new File(outputFolder, "page0003.png"), 5, 0);
+    }
+
+    @Test
+    public void testMergeGrid() throws Exception {
+        File inputFolder = createPages(5);
+        File outputFolder = temporaryFolder.newFolder("rendered");
+
+        RenderSettings settings = createSettings();
+        settings.setMergeMethod(ImageMergeMethods.Method2ImagesOnFirstPage);
+        settings.setMergeRows(2);
+        settings.setMergeGutter(4);
+        render(settings, inputFolder, outputFolder);
+
+        // Pages: [1, 2, 3, 4], [5, -, -, -], columns are as wide as their widest pages
+        assertArrayEquals(new String[] { "page0001.png", "page0002.png" }, listFiles(outputFolder));
+        BufferedImage image = ImageIO.read(new File(outputFolder, "page0001.png"));
+        assertEquals(30 + 4 + 40, image.getWidth());
+        assertEquals(20 + 4 + 20, image.getHeight());
+        checkPage(image.getSubimage(0, 0, 30, 20), 10, 1);
+        checkPage(image.getSubimage(34, 0, 40, 20), 10, 2);
+        checkPage(image.getSubimage(0, 24, 30, 20), 0, 3);
+        checkPage(image.getSubimage(34, 24, 40, 20), 0, 4);
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(32, 10));
+
+        image = ImageIO.read(new File(outputFolder, "page0002.png"));
+        assertEquals(50 + 4 + 50, image.getWidth());
+        checkPage(image.getSubimage(0, 0, 50, 20), 0, 5);
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(60, 30));
+    }
+
+    @Test
+    public void testWarnings() throws Exception {
+        File inputFolder = createPages(4);
+        File outputFolder = temporaryFolder.newFolder("rendered");
+
+        RenderSettings settings = createSettings();
+        settings.setCrop(true);
+        settings.setMerge(false);
+        List<String> warnings = render(settings, inputFolder, outputFolder);
+
+        // No page is marked up, but the warning is sent only once
+        assertEquals(Arrays.asList("Not all Images has been Marked Up"), warnings);
+        assertEquals(4, listFiles(outputFolder).length);
+    }
+
+    @Test
+    public void testIncrementalRender() throws Exception {
+        File inputFolder = createPages(5);
+        File outputFolder = temporaryFolder.newFolder("rendered");
+
+        RenderSettings settings = createSettings();
+        settings.setMergeMethod(ImageMergeMethods.Method2ImagesOnFirstPage);
+        assertEquals(3, render(settings, inputFolder, outputFolder, fileName -> null).getWrittenFiles());
+
+        // Nothing has been changed
+        RenderPipeline pipeline = render(settings, inputFolder, outputFolder, fileName -> null);
+        assertEquals(0, pipeline.getRenderedPages());
+        assertEquals(3, pipeline.getSkippedFiles());
+
+        // Page 3 has been replaced by page 7, it is merged with page 4, so both of them are rendered again
+        BufferedImage image = ImageUtils.createFilledBufferedImage(70, 20, getPageColor(7));
+        ImageIO.write(image, "png", new File(inputFolder, "page03.png"));
+        pipeline = render(settings, inputFolder, outputFolder, fileName -> null);
+        assertEquals(2, pipeline.getRenderedPages());
+        assertEquals(1, pipeline.getWrittenFiles());
+        checkSheet(new File(outputFolder, "page0002.png"), 7, 4);
+
+        // Markup of page 5 has been changed
+        settings.setCrop(true);
+        render(settings, inputFolder, outputFolder, fileName -> null);
+        List<Point> boundaries = Arrays.asList(new Point(0, 0), new Point(50, 0), new Point(50, 20),
+                new Point(0, 20));
+        Function<String, List<Point>> boundariesProvider = fileName -> fileName.equals("page05.png") ? boundaries
+                : null;
+        pipeline = render(settings, inputFolder, outputFolder, boundariesProvider);
+        assertEquals(1, pipeline.getRenderedPages());
+        assertEquals(2, pipeline.getSkippedFiles());
+
+        // Deleted output file is rendered again
+        new File(outputFolder, "page0001.png").delete();
+        pipeline = render(settings, inputFolder, outputFolder, boundariesProvider);
+        assertEquals(1, pipeline.getWrittenFiles());
+        assertArrayEquals(new String[] { "page0001.png", "page0002.png", "page0003.png" }, listFiles(outputFolder));
+
+        // Settings have been changed
+        settings.setGrayscale(true);
+        assertEquals(3, render(settings, inputFolder, outputFolder, boundariesProvider).getWrittenFiles());
+    }
+
+    @Test
+    public void testMemoryBudget() throws Exception {
+        File inputFolder = temporaryFolder.newFolder("pages");
+        Random random = new Random(1);
+        for (int i = 1; i <= 3; i++) {
+            BufferedImage image = new BufferedImage(120, 90, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    image.setRGB(x, y, random.nextInt(0x1000000));
+                }
+            }
+            ImageIO.write(image, "png", new File(inputFolder, String.format("page%02d.png", i)));
+        }
+
+        // Slightly rotated markup inside of the page
+        List<Point> boundaries = Arrays.asList(new Point(20.3, 15.2), new Point(100.6, 17.1),
+                new Point(99.4, 70.8), new Point(19.2, 68.9));
+        RenderSettings settings = createSettings();
+        settings.setCrop(true);
+        settings.setIncremental(false);
+        File wholeFolder = temporaryFolder.newFolder("whole");
+        render(settings, inputFolder, wholeFolder, fileName -> boundaries);
+
+        // No sheet fits into the budget, so they are rendered one by one from the decoded regions
+        settings.setMemoryBudget(1);
+        File regionFolder = temporaryFolder.newFolder("region");
+        RenderPipeline pipeline = render(settings, inputFolder, regionFolder, fileName -> boundaries);
+        assertEquals(3, pipeline.getRenderedPages());
+        assertTrue(pipeline.getDecodedPixels() < 3 * 120 * 90);
+
+        for (String fileName : listFiles(wholeFolder)) {
+            BufferedImage expected = ImageIO.read(new File(wholeFolder, fileName));
+            BufferedImage actual = ImageIO.read(new File(regionFolder, fileName));
+            assertEquals(expected.getWidth(), actual.getWidth());
+            assertEquals(expected.getHeight(), actual.getHeight());
+            for (int y = 0; y < expected.getHeight(); y++) {
+                for (int x = 0; x < expected.getWidth(); x++) {
+                    assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRenderInStrips() throws Exception {
+        File inputFolder = createPages(3);
+        File outputFolder = temporaryFolder.newFolder("rendered");
+
+        // Pages do not fit into the budget and they are not merged, so they are rendered in strips
+        RenderSettings settings = createSettings();
+        settings.setMerge(false);
+        settings.setMemoryBudget(1);
+        settings.setStripHeight(3);
+        render(settings, inputFolder, outputFolder);
+
+        assertArrayEquals(new String[] { "page01.bmp", "page02.bmp", "page03.bmp" }, listFiles(outputFolder));
+        checkPage(new File(outputFolder, "page01.bmp"), 0, 1);
+        checkPage(new File(outputFolder, "page03.bmp"), 0, 3);
+    }
+
+    @Test
+    public void testTileGraph() throws Exception {
+        File inputFolder = createPages(5);
+        File outputFolder = temporaryFolder.newFolder("rendered");
+
+        // Merged sheets are pulled by the encoder from the graph of the pages
+        RenderSettings settings = createSettings();
+        settings.setMergeMethod(ImageMergeMethods.Method1ImageOnFirstPage);
+        settings.setTileGraph(true);
+        render(settings, inputFolder, outputFolder);
+
+        assertArrayEquals(new String[] { "page0001.png", "page0002.png", "page0003.png" }, listFiles(outputFolder));
+        checkSheet(new File(outputFolder, "page0001.png"), 0, 1);
+        checkSheet(new File(outputFolder, "page0002.png"), 2, 3);
+        checkSheet(new File(outputFolder, "page0003.png"), 4, 5);
+    }
+
+    // Gray PNG stores the luminance of the RGB output as it is, without any color space conversion,
+    // so the raw samples are compared, getRGB would convert them from the linear gray ColorSpace
+    @Test
+    public void testGrayscaleLuminance() throws Exception {
+        File inputFolder = temporaryFolder.newFolder("pages");
+        BufferedImage page = new BufferedImage(60, 40, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(2);
+        for (int y = 0; y < page.getHeight(); y++) {
+            for (int x = 0; x < page.getWidth(); x++) {
+                page.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ImageIO.write(page, "png", new File(inputFolder, "page01.png"));
+
+        RenderSettings settings = createSettings();
+        settings.setMerge(false);
+        settings.setIncremental(false);
+        settings.setOutputFormat("png");
+        File rgbFolder = temporaryFolder.newFolder("rgb");
+        render(settings, inputFolder, rgbFolder);
+        BufferedImage expected = ImageIO.read(new File(rgbFolder, "page01.png"));
+
+        settings.setGrayscale(true);
+        File wholeFolder = temporaryFolder.newFolder("whole");
+        render(settings, inputFolder, wholeFolder);
+        settings.setTileGraph(true);
+        File graphFolder = temporaryFolder.newFolder("graph");
+        render(settings, inputFolder, graphFolder);
+        settings.setTileGraph(false);
+        settings.setMemoryBudget(1);
+        settings.setStripHeight(3);
+        File stripFolder = temporaryFolder.newFolder("strips");
+        render(settings, inputFolder, stripFolder);
+
+        for (File folder : new File[] { wholeFolder, graphFolder, stripFolder }) {
+            BufferedImage actual = ImageIO.read(new File(folder, "page01.png"));
+            assertEquals(BufferedImage.TYPE_BYTE_GRAY, actual.getType());
+            for (int y = 0; y < expected.getHeight(); y++) {
+                for (int x = 0; x < expected.getWidth(); x++) {
+                    assertEquals(folder.getName() + ", pixel " + x + ", " + y,
+                            ColorUtils.getGray(expected.getRGB(x, y)), actual.getRaster().getSample(x, y, 0));
+                }
+            }
+        }
+    }
+
+    // Output file can not replace the folder of the same name, the failed sheets leave no temporary files
+    @Test
+    public void testFailedRenderLeavesNoTemporaryFiles() throws Exception {
+        File inputFolder = createPages(3);
+        RenderSettings settings = createSettings();
+        settings.setMerge(false);
+        settings.setIncremental(false);
+        settings.setOutputFormat("png");
+
+        // Whole pages are written by the encoders, pages over the budget are written by the strips
+        for (long memoryBudget : new long[] { settings.getMemoryBudget(), 1 }) {
+            settings.setMemoryBudget(memoryBudget);
+            File outputFolder = temporaryFolder.newFolder("rendered" + memoryBudget);
+            File blockingFolder = new File(outputFolder, "page02.png");
+            blockingFolder.mkdir();
+            new File(blockingFolder, "file").createNewFile();
+
+            try {
+                render(settings, inputFolder, outputFolder);
+                fail("Render has not failed");
+            } catch (IOException e) {
+                // Folder is not replaced by the output file
+            }
+            assertEquals(0, outputFolder.list((dir, name) -> name.endsWith(".part")).length);
+        }
+    }
+
+    private RenderSettings createSettings() {
+        RenderSettings settings = new RenderSettings();
+        settings.setCrop(false);
+        settings.setResize(false);
+        settings.setBinarization(false);
+        settings.setThreadsPerPage(2);
+        settings.setDecodeWorkers(2);
+        settings.setTransformWorkers(3);
+        settings.setEncodeWorkers(2);
+        settings.setQueueCapacity(1);
+        return settings;
+    }
+
+    private List<String> render(RenderSettings settings, File inputFolder, File outputFolder) throws Exception {
+        List<String> warnings = new ArrayList<>();
+        render(settings, inputFolder, outputFolder, fileName -> null, warnings);
+        return warnings;
+    }
+
+    private RenderPipeline render(RenderSettings settings, File inputFolder, File outputFolder,
+            Function<String, List<Point>> boundariesProvider) throws Exception {
+        RenderPipeline result = render(settings, inputFolder, outputFolder, boundariesProvider, new ArrayList<>());
+        return result;
+    }
+
+    private RenderPipeline render(RenderSettings settings, File inputFolder, File outputFolder,
+            Function<String, List<Point>> boundariesProvider, List<String> warnings) throws Exception {
+        RenderPipeline.Listener listener = new RenderPipeline.Listener() {
+            @Override
+            public void onProgress(double progress) {
+                assertTrue(progress >= 0 && progress <= 1);
+            }
+
+            @Override
+            public synchronized void onWarning(String message) {
+                warnings.add(message);
+            }
+        };
+
+        RenderPipeline result = new RenderPipeline(settings, boundariesProvider, listener);
+        result.render(inputFolder, outputFolder);
+        return result;
+    }
+
+    // Page n is n * 10 pixels wide and filled with its own gray level
+    private File createPages(int amount) throws Exception {
+        File folder = temporaryFolder.newFolder("pages");
+        for (int i = 1; i <= amount; i++) {
+            BufferedImage image = ImageUtils.createFilledBufferedImage(i * 10, 20, getPageColor(i));
+            ImageIO.write(image, "png", new File(folder, String.format("page%02d.png", i)));
+        }
+        return folder;
+    }
+
+    private Color getPageColor(int page) {
+        return new Color(page * 20, page * 20, page * 20);
+    }
+
+    // Output files without the render manifest
+    private String[] listFiles(File folder) {
+        String[] names = folder.list((dir, name) -> !name.endsWith(".json"));
+        Arrays.sort(names);
+        return names;
+    }
+
+    private void checkPage(File file, int offsetX, int page) throws Exception {
+        BufferedImage image = ImageIO.read(file);
+        checkPage(image, offsetX, page);
+    }
+
+    private void checkPage(BufferedImage image, int offsetX, int page) {
+        assertEquals(getPageColor(page).getRGB(), image.getRGB(offsetX, image.getHeight() / 2));
+        assertEquals(getPageColor(page).getRGB(), image.getRGB(offsetX + page * 10 - 1, image.getHeight() / 2));
+    }
+
+    // Page 0 is an empty half of the sheet
+    private void checkSheet(File file, int leftPage, int rightPage) throws Exception {
+        BufferedImage image = ImageIO.read(file);
+        int leftWidth = leftPage == 0 ? rightPage * 10 : leftPage * 10;
+        int rightWidth = rightPage == 0 ? leftPage * 10 : rightPage * 10;
+        assertEquals(leftWidth + rightWidth, image.getWidth());
+
+        if (leftPage == 0) {
+            assertEquals(Color.WHITE.getRGB(), image.getRGB(0, 10));
+        } else {
+            checkPage(image, 0, leftPage);
+        }
+        if (rightPage == 0) {
+            assertEquals(Color.WHITE.getRGB(), image.getRGB(leftWidth, 10));
+        } else {
+            checkPage(image, leftWidth, rightPage);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package process.processing.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import utils.JSONUtils;
+
+public class RenderSettingsTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testLoadJobSpecification() throws Exception {
+        File file = temporaryFolder.newFile("job.json");
+        String json = "{\"crop\": false, \"imageCrop\": \"SimpleImageCrop\", \"targetDPI\": 300,"
+                + " \"binarizationMethod\": \"Sauvola\", \"weightRed\": 1, \"mergeMethod\": \"Method2ImagesOnFirstPage\","
+                + " \"mergeRows\": 2, \"mergeOrder\": \"Booklet\","
+                + " \"outputFormat\": \"bmp\", \"threadsPerPage\": 4}";
+        Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+
+        RenderSettings settings = JSONUtils.loadFromDisk(file, new TypeReference<RenderSettings>() {});
+
+        assertFalse(settings.isCrop());
+        assertEquals(ImageCrops.SimpleImageCrop, settings.getImageCrop());
+        assertEquals(300, settings.getTargetDPI());
+        assertEquals(BinarizationMethods.Sauvola, settings.getBinarizationMethod());
+        assertEquals(1, settings.getWeightRed(), 0);
+        assertEquals(ImageMergeMethods.Method2ImagesOnFirstPage, settings.getMergeMethod());
+        assertEquals(2, settings.getMergeRows());
+        assertEquals(ImpositionOrders.Booklet, settings.getMergeOrder());
+        assertEquals("bmp", settings.getOutputFormat());
+        assertEquals(4, settings.getThreadsPerPage());
+
+        // Missing fields keep default values
+        assertTrue(settings.isResize());
+        assertEquals(600, settings.getSourceDPI());
+        assertEquals(1, settings.getWeightGreen(), 0);
+        assertEquals(2, settings.getMergeColumns());
+    }
+
+    @Test
+    public void testDefaults() {
+        RenderSettings settings = new RenderSettings();
+        assertNull(settings.getOutputFormat());
+        assertFalse(settings.isGrayscale());
+        // Default render gives the same pixels as before the fast filters
+        assertEquals(SmoothFilters.BilinearFilter, settings.getSmoothFilter());
+    }
+}
@@ -0,0 +1,195 @@
+package process.processing.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import executors.TileExecutor;
+import process.dto.Point;
+import structures.ImageRaster;
+import utils.ImageUtils;
+
+public class StripRendererTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testResize() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setBinarization(false);
+        checkStrips(settings, "bmp", null);
+    }
+
+    @Test
+    public void testGrayscaleResize() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setGrayscale(true);
+        settings.setBinarization(false);
+        settings.setSmoothFilter(SmoothFilters.BilinearFilter);
+        checkStrips(settings, "png", null);
+    }
+
+    @Test
+    public void testKernelFilterResize() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setBinarization(false);
+        settings.setSmoothFilter(SmoothFilters.Lanczos3Filter);
+        checkStrips(settings, "bmp", null);
+    }
+
+    @Test
+    public void testSeparableResize() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setBinarization(false);
+        settings.setResizeMethod(ResizeMethods.Lanczos3);
+        checkStrips(settings, "png", null);
+    }
+
+    @Test
+    public void testBinarization() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setBinarizationMethod(BinarizationMethods.GlobalThreshold);
+        checkStrips(settings, "png", null);
+    }
+
+    @Test
+    public void testAutoThresholdBinarization() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setBinarizationMethod(BinarizationMethods.OtsuThreshold);
+        // Threshold is found by the histogram of the subsampled source, not of the resized image,
+        // so the pixels close to the threshold may differ
+        checkStrips(settings, "png", null, 0.01);
+    }
+
+    @Test
+    public void testAdaptiveBinarization() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setBinarizationMethod(BinarizationMethods.Sauvola);
+        checkStrips(settings, "png", null);
+    }
+
+    @Test
+    public void testCrop() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setCrop(true);
+        settings.setImageCrop(ImageCrops.SimpleImageCrop);
+        settings.setBinarization(false);
+        settings.setSmoothFilter(SmoothFilters.RoughFilter);
+        List<Point> boundaries = Arrays.asList(new Point(10.5, 7.2), new Point(80.1, 7.2), new Point(80.1, 90.7),
+                new Point(10.5, 90.7));
+        checkStrips(settings, "bmp", boundaries);
+    }
+
+    // Reader decodes the rows above every strip again, the strips are as high as the memory budget allows
+    @Test
+    public void testDecodedPixels() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setResize(false);
+        settings.setBinarization(false);
+        settings.setStripHeight(10);
+        File file = createPage();
+        File outputFile = temporaryFolder.newFile("strips.png");
+
+        StripRenderer stripRenderer = new StripRenderer(settings, TileExecutor.getDefault());
+        long pixels = stripRenderer.renderPage(file, null, outputFile, "png");
+        assertEquals(97 * (10 + 20 + 30 + 40 + 50 + 60 + 70 + 80 + 90 + 100 + 110 + 113), pixels);
+
+        settings.setMemoryBudget(1024 * 1024);
+        stripRenderer = new StripRenderer(settings, TileExecutor.getDefault());
+        pixels = stripRenderer.renderPage(file, null, outputFile, "png");
+        assertEquals(97 * 113, pixels);
+    }
+
+    @Test
+    public void testIsSupported() {
+        RenderSettings settings = createSettings();
+        assertTrue(StripRenderer.isSupported(settings, null, "png"));
+        assertFalse(StripRenderer.isSupported(settings, null, "jpg"));
+
+        settings.setCrop(true);
+        List<Point> boundaries = Arrays.asList(new Point(0, 0), new Point(1, 0), new Point(1, 1), new Point(0, 1));
+        assertTrue(StripRenderer.isSupported(settings, null, "png"));
+        assertFalse(StripRenderer.isSupported(settings, boundaries, "png"));
+
+        settings.setMerge(true);
+        assertFalse(StripRenderer.isSupported(settings, null, "png"));
+    }
+
+    private RenderSettings createSettings() {
+        RenderSettings settings = new RenderSettings();
+        settings.setCrop(false);
+        settings.setMerge(false);
+        // Threshold in the middle of the values of the page
+        settings.setThreshold(30000);
+        // Small strips with odd height, so the strips are not aligned with the rows sampled by the stages,
+        // the strips are not higher than the strip height only without the memory budget
+        settings.setStripHeight(7);
+        settings.setMemoryBudget(1);
+        return settings;
+    }
+
+    private void checkStrips(RenderSettings settings, String formatName, List<Point> boundaries) throws Exception {
+        checkStrips(settings, formatName, boundaries, 0);
+    }
+
+    // Strips are compared with the page rendered as a whole image, up to the part of the pixels may differ
+    private void checkStrips(RenderSettings settings, String formatName, List<Point> boundaries,
+            double differentPart) throws Exception {
+        File file = createPage();
+        PageRenderer pageRenderer = new PageRenderer(settings, TileExecutor.getDefault());
+        BufferedImage image = ImageIO.read(file);
+        if (settings.isGrayscale()) {
+            image = ImageUtils.convertToGray(image);
+        }
+        BufferedImage expected = pageRenderer.renderPage(image, boundaries);
+
+        File outputFile = temporaryFolder.newFile("strips." + formatName);
+        StripRenderer stripRenderer = new StripRenderer(settings, TileExecutor.getDefault());
+        stripRenderer.renderPage(file, boundaries, outputFile, formatName);
+        BufferedImage actual = ImageIO.read(outputFile);
+
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        ImageRaster expectedRaster = new ImageRaster(expected);
+        ImageRaster actualRaster = new ImageRaster(actual);
+        int maxDifferentPixels = (int) (differentPart * expected.getWidth() * expected.getHeight());
+        int differentPixels = 0;
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                int expectedColor = expectedRaster.getRGB(x, y) & 0xFFFFFF;
+                int actualColor = actualRaster.getRGB(x, y) & 0xFFFFFF;
+                if (expectedColor != actualColor && ++differentPixels > maxDifferentPixels) {
+                    assertEquals("Pixel " + x + ", " + y, expectedColor, actualColor);
+                }
+            }
+        }
+    }
+
+    // Noise over a gradient, so the binarization has something to do
+    private File createPage() throws Exception {
+        BufferedImage image = new BufferedImage(97, 113, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(3);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int value = Math.min(x + y + random.nextInt(64), 255);
+                image.setRGB(x, y, value << 16 | (value * 3 & 0xFF) << 8 | (255 - value));
+            }
+        }
+
+        File file = temporaryFolder.newFile("page.png");
+        ImageIO.write(image, "png", file);
+        return file;
+    }
+}
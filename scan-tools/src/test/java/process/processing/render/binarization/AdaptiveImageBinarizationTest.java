@@ -0,0 +1,97 @@
+package process.processing.render.binarization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+import process.processing.render.binarization.AdaptiveImageBinarization.Methods;
+import utils.ColorUtils;
+
+public class AdaptiveImageBinarizationTest {
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 120;
+
+    @Test
+    public void testSauvolaWithUnevenLighting() {
+        assertTextSeparated(Methods.Sauvola);
+    }
+
+    @Test
+    public void testNiblackWithUnevenLighting() {
+        assertTextSeparated(Methods.Niblack);
+    }
+
+    @Test
+    public void testUniformImageIsWhite() {
+        BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, ColorUtils.getRGB(90, 90, 90));
+            }
+        }
+
+        for (Methods method : Methods.values()) {
+            AdaptiveImageBinarization binarization = new AdaptiveImageBinarization();
+            binarization.setMethod(method);
+            BufferedImage result = binarization.processImage(image);
+            for (int y = 0; y < result.getHeight(); y++) {
+                for (int x = 0; x < result.getWidth(); x++) {
+                    assertEquals(Color.WHITE.getRGB(), result.getRGB(x, y));
+                }
+            }
+        }
+    }
+
+    // Zero weights would make every window NaN and the whole page one color
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroWeights() {
+        AdaptiveImageBinarization binarization = new AdaptiveImageBinarization();
+        binarization.setWeightRed(0);
+        binarization.setWeightGreen(0);
+        binarization.setWeightBlue(0);
+        binarization.processImage(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB));
+    }
+
+    private void assertTextSeparated(Methods method) {
+        BufferedImage image = createUnevenlyLitPage();
+
+        AdaptiveImageBinarization binarization = new AdaptiveImageBinarization();
+        binarization.setMethod(method);
+        binarization.setWindowSize(25);
+        BufferedImage result = binarization.processImage(image);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int expected = isText(x, y) ? Color.BLACK.getRGB() : Color.WHITE.getRGB();
+                // Niblack is known to be noisy on a background without text nearby, checking text rows only
+                if (method == Methods.Sauvola || isText(x, y) || y % 20 < 10) {
+                    assertEquals("Pixel " + x + ", " + y, expected, result.getRGB(x, y));
+                }
+            }
+        }
+    }
+
+    // Background goes from dark on the left to bright on the right, text is always darker than its background,
+    // but on the right side it is brighter than the background on the left side
+    private BufferedImage createUnevenlyLitPage() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int background = 90 + x * 150 / WIDTH;
+                int value = isText(x, y) ? background - 70 : background;
+                image.setRGB(x, y, ColorUtils.getRGB(value, value, value));
+            }
+        }
+        return image;
+    }
+
+    // Horizontal 3-pixel strokes, 2 pixels wide vertical strokes every 10 pixels
+    private boolean isText(int x, int y) {
+        boolean textRow = y % 20 >= 5 && y % 20 < 8;
+        boolean textColumn = y % 20 < 10 && x % 10 < 2;
+        return textRow || textColumn;
+    }
+}
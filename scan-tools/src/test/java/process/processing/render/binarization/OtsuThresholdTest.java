@@ -0,0 +1,143 @@
+package process.processing.render.binarization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+import process.processing.render.filters.BinarizationFilter;
+import utils.ColorUtils;
+
+public class OtsuThresholdTest {
+
+    @Test
+    public void testBimodalHistogram() {
+        long[] histogram = new long[256];
+        for (int i = 0; i < 256; i++) {
+            histogram[i] = gauss(i, 50, 10) * 3 + gauss(i, 200, 15) * 7;
+        }
+
+        int threshold = OtsuThreshold.calculateThreshold(histogram);
+        assertTrue("Threshold " + threshold, threshold > 80 && threshold < 150);
+    }
+
+    @Test
+    public void testTwoValues() {
+        long[] histogram = new long[16];
+        histogram[3] = 10;
+        histogram[12] = 30;
+
+        int threshold = OtsuThreshold.calculateThreshold(histogram);
+        assertTrue("Threshold " + threshold, threshold > 3 && threshold <= 12);
+    }
+
+    @Test
+    public void testOneValue() {
+        long[] histogram = new long[16];
+        histogram[0] = 40;
+        assertEquals(-1, OtsuThreshold.calculateThreshold(histogram));
+        assertEquals(-1, OtsuThreshold.calculateThreshold(new long[16]));
+    }
+
+    // Solid pages keep their color by the configured threshold, not by the threshold of the page before
+    @Test
+    public void testAutoThresholdOfSolidPages() {
+        BinarizationFilter binarizationFilter = new BinarizationFilter();
+        // Gray 100 with the squared default weights 9, 1 and 1
+        binarizationFilter.setThreshold(100 * 100 * 11);
+        ImageBinarization binarization = new ImageBinarization();
+        binarization.setColorFilter(binarizationFilter);
+        binarization.setAutoThreshold(true);
+
+        BufferedImage page = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < page.getHeight(); y++) {
+            for (int x = 0; x < page.getWidth(); x++) {
+                int value = isText(x, y) ? 20 : 40;
+                page.setRGB(x, y, ColorUtils.getRGB(value, value, value));
+            }
+        }
+        binarization.processImage(page);
+
+        checkSolidPage(binarization, Color.BLACK);
+        checkSolidPage(binarization, new Color(40, 40, 40));
+        checkSolidPage(binarization, Color.WHITE);
+    }
+
+    @Test
+    public void testAutoThresholdImageBinarization() {
+        int width = 64;
+        int height = 48;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int value = isText(x, y) ? 60 + (x + y) % 20 : 170 + (x * y) % 30;
+                image.setRGB(x, y, ColorUtils.getRGB(value, value, value));
+            }
+        }
+
+        BinarizationFilter binarizationFilter = new BinarizationFilter();
+        // Threshold which makes everything white, auto threshold has to replace it
+        binarizationFilter.setThreshold(0);
+        ImageBinarization binarization = new ImageBinarization();
+        binarization.setColorFilter(binarizationFilter);
+        binarization.setAutoThreshold(true);
+
+        BufferedImage result = binarization.processImage(image);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int expected = isText(x, y) ? Color.BLACK.getRGB() : Color.WHITE.getRGB();
+                assertEquals(expected, result.getRGB(x, y));
+            }
+        }
+    }
+
+    // Threshold is in the middle of the gray levels 40 and 120, not in the middle of their squared values
+    @Test
+    public void testAutoThresholdOfLinearIntensity() {
+        BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int value = isText(x, y) ? 40 : 120;
+                image.setRGB(x, y, ColorUtils.getRGB(value, value, value));
+            }
+        }
+
+        BinarizationFilter binarizationFilter = new BinarizationFilter();
+        ImageBinarization binarization = new ImageBinarization();
+        binarization.setColorFilter(binarizationFilter);
+        binarization.setAutoThreshold(true);
+        binarization.processImage(image);
+
+        assertEquals(Color.BLACK.getRGB(), binarizationFilter.binarize(ColorUtils.getRGB(75, 75, 75)));
+        assertEquals(Color.WHITE.getRGB(), binarizationFilter.binarize(ColorUtils.getRGB(85, 85, 85)));
+    }
+
+    private void checkSolidPage(ImageBinarization binarization, Color color) {
+        BufferedImage page = new BufferedImage(16, 8, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < page.getHeight(); y++) {
+            for (int x = 0; x < page.getWidth(); x++) {
+                page.setRGB(x, y, color.getRGB());
+            }
+        }
+
+        BufferedImage result = binarization.processImage(page);
+        int expected = ColorUtils.getGray(color.getRGB()) >= 100 ? Color.WHITE.getRGB() : Color.BLACK.getRGB();
+        for (int y = 0; y < page.getHeight(); y++) {
+            for (int x = 0; x < page.getWidth(); x++) {
+                assertEquals(color + ", pixel " + x + ", " + y, expected, result.getRGB(x, y));
+            }
+        }
+    }
+
+    private boolean isText(int x, int y) {
+        return x % 8 < 3 || y % 12 < 2;
+    }
+
+    private long gauss(int x, double mean, double deviation) {
+        double delta = (x - mean) / deviation;
+        return Math.round(1000 * Math.exp(-delta * delta / 2));
+    }
+}
@@ -0,0 +1,97 @@
+package process.processing.render.crop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import process.dto.Point;
+import process.processing.render.filters.FixedPointBilinearFilter;
+import process.processing.render.resize.ImageResize;
+
+public class RotationImageCropTest {
+
+    @Test
+    public void testCrop() {
+        BufferedImage image = createGradientImage();
+        BufferedImage result = createCrop(1).processImage(image, createBoundaries(0));
+
+        // Corners of the selection are included
+        assertEquals(51, result.getWidth());
+        assertEquals(61, result.getHeight());
+        assertEquals(image.getRGB(10, 20), result.getRGB(0, 0));
+        assertEquals(image.getRGB(60, 80), result.getRGB(50, 60));
+    }
+
+    @Test
+    public void testCropWithScale() {
+        BufferedImage image = createGradientImage();
+        BufferedImage result = createCrop(0.5).processImage(image, createBoundaries(0));
+
+        // Size is the same as of the cropped image resized by ImageResize
+        assertEquals(26, result.getWidth());
+        assertEquals(31, result.getHeight());
+        // Gradient is linear, so every pixel of the result is the source pixel at twice of its position
+        for (int y = 0; y < result.getHeight(); y++) {
+            for (int x = 0; x < result.getWidth(); x++) {
+                assertEquals(image.getRGB(10 + 2 * x, 20 + 2 * y), result.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testRotatedCropWithScale() {
+        BufferedImage image = createGradientImage();
+        List<Point> boundaries = createBoundaries(0.05);
+        BufferedImage fused = createCrop(2.0 / 3).processImage(image, boundaries);
+
+        BufferedImage cropped = createCrop(1).processImage(image, boundaries);
+        ImageResize resize = new ImageResize();
+        resize.setSmoothFilter(new FixedPointBilinearFilter());
+        resize.setSourceDPI(600);
+        resize.setTargetDPI(400);
+        BufferedImage resized = resize.processImage(cropped);
+
+        // One sampling of the linear gradient differs from two samplings only by rounding
+        assertEquals(resized.getWidth(), fused.getWidth());
+        assertEquals(resized.getHeight(), fused.getHeight());
+        for (int y = 0; y < fused.getHeight(); y++) {
+            for (int x = 0; x < fused.getWidth(); x++) {
+                int expected = resized.getRGB(x, y);
+                int actual = fused.getRGB(x, y);
+                assertTrue("Pixel " + x + ", " + y, Math.abs((expected >> 16 & 0xFF) - (actual >> 16 & 0xFF)) <= 2);
+                assertTrue("Pixel " + x + ", " + y, Math.abs((expected >> 8 & 0xFF) - (actual >> 8 & 0xFF)) <= 2);
+            }
+        }
+    }
+
+    private RotationImageCrop createCrop(double scale) {
+        RotationImageCrop crop = new RotationImageCrop();
+        crop.setSmoothFilter(new FixedPointBilinearFilter());
+        crop.setScale(scale);
+        return crop;
+    }
+
+    // Rectangle from (10, 20) to (60, 80) rotated around its top left corner
+    private List<Point> createBoundaries(double angle) {
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        return Arrays.asList(new Point(10, 20), new Point(10 + 50 * cos, 20 + 50 * sin),
+                new Point(10 + 50 * cos - 60 * sin, 20 + 50 * sin + 60 * cos), new Point(10 - 60 * sin, 20 + 60 * cos));
+    }
+
+    // Red grows by 2 along x and Green grows by 2 along y
+    private BufferedImage createGradientImage() {
+        BufferedImage image = new BufferedImage(120, 120, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, x * 2 << 16 | y * 2 << 8);
+            }
+        }
+        return image;
+    }
+}
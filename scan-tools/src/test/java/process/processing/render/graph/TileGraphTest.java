@@ -0,0 +1,314 @@
+package process.processing.render.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import encoders.ImageStreamWriter;
+import encoders.PngStreamWriter;
+import executors.TileExecutor;
+import process.dto.Point;
+import process.processing.render.BinarizationMethods;
+import process.processing.render.ImageCrops;
+import process.processing.render.ImpositionAlignments;
+import process.processing.render.PageRenderer;
+import process.processing.render.RenderSettings;
+import process.processing.render.ResizeMethods;
+import process.processing.render.SmoothFilters;
+import process.processing.render.binarization.AdaptiveImageBinarization;
+import process.processing.render.binarization.ImageBinarization;
+import process.processing.render.filters.BinarizationFilter;
+import structures.ImageRaster;
+import utils.ImageUtils;
+
+public class TileGraphTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRotationCropWithResize() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setBinarization(false);
+        checkGraph(settings, createRotatedBoundaries());
+    }
+
+    @Test
+    public void testRotationCropAndResize() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setGrayscale(true);
+        settings.setBinarization(false);
+        settings.setFusedCropResize(false);
+        settings.setSmoothFilter(SmoothFilters.BilinearFilter);
+        checkGraph(settings, createRotatedBoundaries());
+    }
+
+    @Test
+    public void testSimpleCrop() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setImageCrop(ImageCrops.SimpleImageCrop);
+        settings.setBinarization(false);
+        settings.setSmoothFilter(SmoothFilters.RoughFilter);
+        checkGraph(settings, createRotatedBoundaries());
+    }
+
+    @Test
+    public void testSeparableResize() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setResizeMethod(ResizeMethods.AreaAverage);
+        settings.setBinarizationMethod(BinarizationMethods.GlobalThreshold);
+        checkGraph(settings, createRotatedBoundaries());
+    }
+
+    @Test
+    public void testAutoThresholdBinarization() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setBinarizationMethod(BinarizationMethods.OtsuThreshold);
+        checkGraph(settings, null);
+    }
+
+    @Test
+    public void testAdaptiveBinarization() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setBinarizationMethod(BinarizationMethods.Sauvola);
+        checkGraph(settings, createRotatedBoundaries());
+    }
+
+    @Test
+    public void testRegionOfPage() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setBinarizationMethod(BinarizationMethods.GlobalThreshold);
+        PageRenderer pageRenderer = new PageRenderer(settings, createExecutor());
+
+        // Only the marked up region of the page has been decoded
+        Rectangle region = new Rectangle(5, 3, 80, 100);
+        BufferedImage image = createPage().getSubimage(region.x, region.y, region.width, region.height);
+        List<Point> boundaries = createRotatedBoundaries();
+        BufferedImage expected = pageRenderer.renderPage(image, region.x, region.y, boundaries);
+        TileNode node = pageRenderer.createPageNode(image, region.x, region.y, boundaries);
+
+        checkImage(expected, TileGraph.toImage(node, createExecutor()));
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setMerge(true);
+        settings.setBinarizationMethod(BinarizationMethods.GlobalThreshold);
+        PageRenderer pageRenderer = new PageRenderer(settings, createExecutor());
+
+        BufferedImage page = createPage();
+        BufferedImage croppedPage = pageRenderer.renderPage(page, createRotatedBoundaries());
+        BufferedImage wholePage = pageRenderer.renderPage(page, null);
+        BufferedImage expected = pageRenderer.mergePages(croppedPage, wholePage);
+
+        TileNode node = pageRenderer.createMergeNode(pageRenderer.createPageNode(page, 0, 0,
+                createRotatedBoundaries()), pageRenderer.createPageNode(page, 0, 0, null));
+        checkImage(expected, TileGraph.toImage(node, createExecutor()));
+
+        // Empty place has the size of the other page
+        expected = pageRenderer.mergePages(null, croppedPage);
+        node = pageRenderer.createMergeNode(null, pageRenderer.createPageNode(page, 0, 0,
+                createRotatedBoundaries()));
+        checkImage(expected, TileGraph.toImage(node, createExecutor()));
+
+        // Grid with the gutters and the pages aligned to the corners of their cells
+        settings.setMergeRows(2);
+        settings.setMergeGutter(5);
+        settings.setMergeHorizontalAlignment(ImpositionAlignments.End);
+        settings.setMergeVerticalAlignment(ImpositionAlignments.Start);
+        pageRenderer = new PageRenderer(settings, createExecutor());
+        expected = pageRenderer.mergePages(croppedPage, wholePage, null, croppedPage);
+        node = pageRenderer.createMergeNode(pageRenderer.createPageNode(page, 0, 0, createRotatedBoundaries()),
+                pageRenderer.createPageNode(page, 0, 0, null), null,
+                pageRenderer.createPageNode(page, 0, 0, createRotatedBoundaries()));
+        checkImage(expected, TileGraph.toImage(node, createExecutor()));
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        RenderSettings settings = createSettings();
+        settings.setGrayscale(true);
+        settings.setBinarization(false);
+        PageRenderer pageRenderer = new PageRenderer(settings, createExecutor());
+        BufferedImage page = ImageUtils.convertToGray(createPage());
+        BufferedImage expected = pageRenderer.renderPage(page, createRotatedBoundaries());
+        TileNode node = pageRenderer.createPageNode(page, 0, 0, createRotatedBoundaries());
+
+        File file = temporaryFolder.newFile("page.png");
+        try (ImageStreamWriter writer = new PngStreamWriter(file, node.getWidth(), node.getHeight(),
+                TileGraph.getOutputImageType(node))) {
+            TileGraph.write(node, writer, createExecutor());
+        }
+        checkImage(expected, ImageIO.read(file));
+    }
+
+    @Test
+    public void testCache() {
+        BufferedImage page = createPage();
+        int[] requestedRows = new int[1];
+        TileNode source = new TileNode(page.getWidth(), page.getHeight(), page.getType()) {
+            @Override
+            public BufferedImage getRegion(Rectangle region) {
+                requestedRows[0] += region.height;
+                return page.getSubimage(region.x, region.y, region.width, region.height);
+            }
+        };
+        CachedNode node = new CachedNode(source, 10, 3);
+
+        // Overlapping regions going down the image, as the windows of the neighbouring bands
+        for (int y = 0; y + 30 <= page.getHeight(); y += 10) {
+            Rectangle region = new Rectangle(3, y, 50, 30);
+            checkImage(page.getSubimage(region.x, region.y, region.width, region.height), node.getRegion(region));
+        }
+        assertEquals(page.getHeight() / 10, node.getComputedBands());
+        assertEquals(page.getHeight() / 10 * 10, requestedRows[0]);
+    }
+
+    // Bands of the source pulled for the histogram are binarized as they are, the source is not pulled again
+    @Test
+    public void testAutoThresholdPullsSourceOnce() {
+        BufferedImage page = createPage();
+        int[] requestedRows = new int[1];
+        TileNode source = new TileNode(page.getWidth(), page.getHeight(), page.getType()) {
+            @Override
+            public BufferedImage getRegion(Rectangle region) {
+                synchronized (requestedRows) {
+                    requestedRows[0] += region.height;
+                }
+                return page.getSubimage(region.x, region.y, region.width, region.height);
+            }
+        };
+        BinarizationNode node = new BinarizationNode(source, createAutoThresholdBinarization(), createExecutor());
+        BufferedImage expected = createAutoThresholdBinarization().processImage(page);
+
+        checkImage(expected, TileGraph.toImage(node, createExecutor()));
+        checkImage(expected.getSubimage(5, 8, 31, 17), node.getRegion(new Rectangle(5, 8, 31, 17)));
+        assertEquals(page.getHeight(), requestedRows[0]);
+    }
+
+    // Summed-area tables are built once for the page, the regions are plain packed images
+    @Test
+    public void testAdaptiveBinarizationPullsSourceOnce() {
+        BufferedImage page = createPage();
+        int[] requestedRows = new int[1];
+        TileNode source = new TileNode(page.getWidth(), page.getHeight(), page.getType()) {
+            @Override
+            public BufferedImage getRegion(Rectangle region) {
+                synchronized (requestedRows) {
+                    requestedRows[0] += region.height;
+                }
+                return page.getSubimage(region.x, region.y, region.width, region.height);
+            }
+        };
+        AdaptiveImageBinarization binarization = new AdaptiveImageBinarization();
+        binarization.setWindowSize(15);
+        binarization.setExecutor(createExecutor());
+        AdaptiveBinarizationNode node = new AdaptiveBinarizationNode(source, binarization, createExecutor());
+        BufferedImage expected = binarization.processImage(page);
+
+        checkImage(expected, TileGraph.toImage(node, createExecutor()));
+        BufferedImage region = node.getRegion(new Rectangle(5, 8, 31, 17));
+        checkImage(expected.getSubimage(5, 8, 31, 17), region);
+        assertTrue(ImageUtils.isPackedBinary(region));
+        assertEquals(page.getHeight(), requestedRows[0]);
+    }
+
+    private RenderSettings createSettings() {
+        RenderSettings settings = new RenderSettings();
+        settings.setCrop(true);
+        settings.setImageCrop(ImageCrops.RotationImageCrop);
+        settings.setMerge(false);
+        settings.setSourceDPI(600);
+        settings.setTargetDPI(450);
+        // Threshold in the middle of the values of the page
+        settings.setThreshold(30000);
+        return settings;
+    }
+
+    private ImageBinarization createAutoThresholdBinarization() {
+        ImageBinarization result = new ImageBinarization();
+        result.setColorFilter(new BinarizationFilter());
+        result.setAutoThreshold(true);
+        result.setExecutor(createExecutor());
+        return result;
+    }
+
+    // Small bands and tiles, so the page is split into many regions, which are not aligned with anything
+    private TileExecutor createExecutor() {
+        TileExecutor executor = new TileExecutor(3);
+        executor.setBandHeight(7);
+        executor.setTileWidth(11);
+        return executor;
+    }
+
+    // Graph is compared with the page rendered by the stages one after another as the whole images,
+    // the tiles at any place of the page have the same pixels as the whole image
+    private void checkGraph(RenderSettings settings, List<Point> boundaries) throws Exception {
+        PageRenderer pageRenderer = new PageRenderer(settings, createExecutor());
+        BufferedImage page = createPage();
+        if (settings.isGrayscale()) {
+            page = ImageUtils.convertToGray(page);
+        }
+        BufferedImage expected = pageRenderer.renderPage(page, boundaries);
+
+        TileNode node = pageRenderer.createPageNode(page, 0, 0, boundaries);
+        checkImage(expected, TileGraph.toImage(node, createExecutor()));
+
+        Random random = new Random(5);
+        for (int i = 0; i < 20; i++) {
+            int x = random.nextInt(node.getWidth());
+            int y = random.nextInt(node.getHeight());
+            Rectangle region = new Rectangle(x, y, 1 + random.nextInt(node.getWidth() - x),
+                    1 + random.nextInt(node.getHeight() - y));
+            checkImage(expected.getSubimage(region.x, region.y, region.width, region.height),
+                    node.getRegion(region));
+        }
+    }
+
+    // Gray pixels are compared as they are stored, not by getRGB of BufferedImage, which converts the color space
+    private void checkImage(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        ImageRaster expectedRaster = new ImageRaster(expected);
+        ImageRaster actualRaster = new ImageRaster(actual);
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals("Pixel " + x + ", " + y, expectedRaster.getRGB(x, y) & 0xFFFFFF,
+                        actualRaster.getRGB(x, y) & 0xFFFFFF);
+            }
+        }
+    }
+
+    // Rectangle from (12, 9) rotated around its top left corner
+    private List<Point> createRotatedBoundaries() {
+        double cos = Math.cos(0.04);
+        double sin = Math.sin(0.04);
+        return Arrays.asList(new Point(12, 9), new Point(12 + 70 * cos, 9 + 70 * sin),
+                new Point(12 + 70 * cos - 90 * sin, 9 + 70 * sin + 90 * cos), new Point(12 - 90 * sin, 9 + 90 * cos));
+    }
+
+    // Noise over a gradient, so the binarization has something to do
+    private BufferedImage createPage() {
+        BufferedImage image = new BufferedImage(97, 113, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(3);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int value = Math.min(x + y + random.nextInt(64), 255);
+                image.setRGB(x, y, value << 16 | (value * 3 & 0xFF) << 8 | (255 - value));
+            }
+        }
+        return image;
+    }
+}
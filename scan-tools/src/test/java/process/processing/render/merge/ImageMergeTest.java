@@ -0,0 +1,131 @@
+package process.processing.render.merge;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Test;
+
+import process.processing.render.ImpositionAlignments;
+import process.processing.render.ImpositionOrders;
+import structures.ImageRaster;
+import utils.ImageUtils;
+
+public class ImageMergeTest {
+    private static final int[] IMAGE_TYPES = { BufferedImage.TYPE_BYTE_BINARY, BufferedImage.TYPE_BYTE_GRAY,
+            BufferedImage.TYPE_INT_RGB };
+
+    @Test
+    public void testMergeImages() {
+        for (int imageType : IMAGE_TYPES) {
+            // Heights differ by an odd number and the widths are not multiples of 8
+            BufferedImage image1 = createImage(13, 10, imageType);
+            BufferedImage image2 = createImage(21, 17, imageType);
+
+            checkMerge(image1, image2, imageType);
+            checkMerge(image2, image1, imageType);
+        }
+    }
+
+    @Test
+    public void testMergeWithEmptyPlace() {
+        for (int imageType : IMAGE_TYPES) {
+            BufferedImage image = createImage(11, 7, imageType);
+
+            checkMerge(null, image, imageType);
+            checkMerge(image, null, imageType);
+        }
+    }
+
+    @Test
+    public void testMergeDifferentTypes() {
+        BufferedImage image1 = createImage(9, 12, BufferedImage.TYPE_BYTE_GRAY);
+        BufferedImage image2 = createImage(5, 4, BufferedImage.TYPE_BYTE_BINARY);
+
+        checkMerge(image1, image2, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Test
+    public void testMergeGrid() {
+        Imposition imposition = new Imposition();
+        imposition.setRows(2);
+        imposition.setGutter(3);
+        imposition.setOrder(ImpositionOrders.Columns);
+        imposition.setHorizontalAlignment(ImpositionAlignments.End);
+        imposition.setVerticalAlignment(ImpositionAlignments.Start);
+        ImageMerge merge = new ImageMerge();
+        merge.setImposition(imposition);
+
+        for (int imageType : IMAGE_TYPES) {
+            BufferedImage[] images = { createImage(10, 6, imageType), createImage(7, 9, imageType),
+                    createImage(5, 4, imageType), null };
+            BufferedImage merged = merge.mergeImages(images);
+
+            // Columns are 10 and 5 pixels wide, rows are 6 and 9 pixels high, the last place is empty
+            assertEquals(imageType, merged.getType());
+            assertEquals(10 + 3 + 5, merged.getWidth());
+            assertEquals(6 + 3 + 9, merged.getHeight());
+            Point[] places = { new Point(0, 0), new Point(3, 9), new Point(13, 0) };
+
+            ImageRaster raster = new ImageRaster(merged);
+            for (int y = 0; y < merged.getHeight(); y++) {
+                for (int x = 0; x < merged.getWidth(); x++) {
+                    int expected = 0xFFFFFFFF;
+                    for (int i = 0; i < places.length; i++) {
+                        int pageX = x - places[i].x;
+                        int pageY = y - places[i].y;
+                        if (pageX >= 0 && pageX < images[i].getWidth() && pageY >= 0
+                                && pageY < images[i].getHeight()) {
+                            expected = new ImageRaster(images[i]).getRGB(pageX, pageY);
+                        }
+                    }
+                    assertEquals("Type " + imageType + ", pixel " + x + ", " + y, expected, raster.getRGB(x, y));
+                }
+            }
+        }
+    }
+
+    // Pages are in the middle of their places, the rest is white
+    private void checkMerge(BufferedImage image1, BufferedImage image2, int imageType) {
+        BufferedImage merged = new ImageMerge().mergeImages(image1, image2);
+
+        int width1 = image1 == null ? image2.getWidth() : image1.getWidth();
+        int width2 = image2 == null ? image1.getWidth() : image2.getWidth();
+        int height = Math.max(image1 == null ? 0 : image1.getHeight(), image2 == null ? 0 : image2.getHeight());
+        assertEquals(imageType, merged.getType());
+        assertEquals(width1 + width2, merged.getWidth());
+        assertEquals(height, merged.getHeight());
+
+        ImageRaster raster = new ImageRaster(merged);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < merged.getWidth(); x++) {
+                BufferedImage page = x < width1 ? image1 : image2;
+                int expected = 0xFFFFFFFF;
+                if (page != null) {
+                    int pageX = x < width1 ? x : x - width1;
+                    int pageY = y - (height - page.getHeight()) / 2;
+                    if (pageY >= 0 && pageY < page.getHeight()) {
+                        expected = new ImageRaster(page).getRGB(pageX, pageY);
+                    }
+                }
+                assertEquals("Type " + imageType + ", pixel " + x + ", " + y, expected, raster.getRGB(x, y));
+            }
+        }
+    }
+
+    private BufferedImage createImage(int width, int height, int imageType) {
+        BufferedImage image = new BufferedImage(width, height, imageType);
+        Random random = new Random(width * height);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int value = random.nextInt(256);
+                row[x] = 0xFF000000 | value * 0x010101;
+            }
+            ImageUtils.setRGBRow(image, y, row);
+        }
+        return image;
+    }
+}
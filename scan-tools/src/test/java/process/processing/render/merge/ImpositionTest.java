@@ -0,0 +1,72 @@
+package process.processing.render.merge;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.util.List;
+
+import org.junit.Test;
+
+import process.processing.render.ImpositionOrders;
+
+public class ImpositionTest {
+    @Test
+    public void testPlanSheetsWithEmptyPlace() {
+        Imposition imposition = new Imposition();
+        imposition.setEmptyPlaces(1);
+
+        checkSheets(imposition.planSheets(4), new int[][] { { -1, 0 }, { 1, 2 }, { 3, -1 } });
+    }
+
+    @Test
+    public void testPlanSheetsGrid() {
+        Imposition imposition = new Imposition();
+        imposition.setRows(2);
+
+        checkSheets(imposition.planSheets(6), new int[][] { { 0, 1, 2, 3 }, { 4, 5, -1, -1 } });
+    }
+
+    // Sheets of 8 pages folded in the middle: [8, 1], [2, 7], [6, 3], [4, 5], 2 spreads on a sheet
+    @Test
+    public void testPlanSheetsBooklet() {
+        Imposition imposition = new Imposition();
+        imposition.setRows(2);
+        imposition.setOrder(ImpositionOrders.Booklet);
+
+        checkSheets(imposition.planSheets(8), new int[][] { { 7, 0, 1, 6 }, { 5, 2, 3, 4 } });
+        // Booklet is padded by the empty pages at the end
+        checkSheets(imposition.planSheets(6), new int[][] { { -1, 0, 1, -1 }, { 5, 2, 3, 4 } });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBookletWithOddColumns() {
+        Imposition imposition = new Imposition();
+        imposition.setColumns(3);
+        imposition.setOrder(ImpositionOrders.Booklet);
+
+        imposition.planSheets(4);
+    }
+
+    @Test
+    public void testCells() {
+        Imposition imposition = new Imposition();
+        imposition.setColumns(3);
+        imposition.setGutter(2);
+
+        // Empty column is as wide as the widest page
+        Dimension[] sizes = { new Dimension(10, 5), null, new Dimension(7, 8) };
+        assertEquals(new Dimension(10 + 2 + 10 + 2 + 7, 8), imposition.getSheetSize(sizes));
+        assertArrayEquals(new Rectangle[] { new Rectangle(0, 0, 10, 8), new Rectangle(12, 0, 10, 8),
+                new Rectangle(24, 0, 7, 8) }, imposition.getCells(sizes));
+        assertEquals(new Rectangle(0, 1, 10, 5), imposition.getPagePlace(new Rectangle(0, 0, 10, 8), sizes[0]));
+    }
+
+    private void checkSheets(List<int[]> sheets, int[][] expected) {
+        assertEquals(expected.length, sheets.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], sheets.get(i));
+        }
+    }
+}
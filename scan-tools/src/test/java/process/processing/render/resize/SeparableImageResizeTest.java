@@ -0,0 +1,116 @@
+package process.processing.render.resize;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Test;
+
+import structures.ImageRaster;
+import utils.ImageUtils;
+
+public class SeparableImageResizeTest {
+
+    @Test
+    public void testAreaAverage() {
+        // Checkerboard of black and white pixels is gray after downscale by 2
+        BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x + y) % 2 == 0 ? Color.WHITE.getRGB() : Color.BLACK.getRGB());
+            }
+        }
+
+        BufferedImage result = createResize(SeparableImageResize.Kernels.Box, 600, 300).processImage(image);
+
+        assertEquals(20, result.getWidth());
+        assertEquals(15, result.getHeight());
+        for (int y = 0; y < result.getHeight(); y++) {
+            for (int x = 0; x < result.getWidth(); x++) {
+                assertEquals(128, result.getRGB(x, y) & 0xFF, 1);
+            }
+        }
+    }
+
+    @Test
+    public void testConstantColor() {
+        Color color = new Color(200, 100, 30);
+        BufferedImage image = ImageUtils.createFilledBufferedImage(37, 23, color);
+        for (SeparableImageResize.Kernels kernel : SeparableImageResize.Kernels.values()) {
+            for (int targetDPI : new int[] { 170, 400, 900 }) {
+                BufferedImage result = createResize(kernel, 600, targetDPI).processImage(image);
+                for (int y = 0; y < result.getHeight(); y++) {
+                    for (int x = 0; x < result.getWidth(); x++) {
+                        assertEquals(kernel + " " + targetDPI, color.getRGB(), result.getRGB(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNewSize() {
+        ImageResize resize = new ImageResize();
+        resize.setSourceDPI(600);
+        resize.setTargetDPI(400);
+        SeparableImageResize separableResize = createResize(SeparableImageResize.Kernels.Lanczos3, 600, 400);
+        for (int size = 1; size < 50; size++) {
+            assertEquals(resize.getNewSize(size), separableResize.getNewSize(size));
+        }
+    }
+
+    // Region is resized from the source region given for it and has the same pixels as the whole resized image
+    @Test
+    public void testRegion() {
+        BufferedImage image = createNoiseImage(61, 47);
+        Random random = new Random(7);
+        for (SeparableImageResize.Kernels kernel : SeparableImageResize.Kernels.values()) {
+            for (int targetDPI : new int[] { 170, 400, 900 }) {
+                SeparableImageResize resize = createResize(kernel, 600, targetDPI);
+                BufferedImage expected = resize.processImage(image);
+                for (int i = 0; i < 10; i++) {
+                    int x = random.nextInt(expected.getWidth());
+                    int y = random.nextInt(expected.getHeight());
+                    Rectangle region = new Rectangle(x, y, 1 + random.nextInt(expected.getWidth() - x),
+                            1 + random.nextInt(expected.getHeight() - y));
+                    Rectangle sourceRegion = resize.getSourceRegion(region, image.getWidth(), image.getHeight());
+                    BufferedImage part = image.getSubimage(sourceRegion.x, sourceRegion.y, sourceRegion.width,
+                            sourceRegion.height);
+                    BufferedImage actual = resize.processRegion(part, sourceRegion.x, sourceRegion.y,
+                            image.getWidth(), image.getHeight(), region);
+
+                    ImageRaster expectedRaster = new ImageRaster(expected);
+                    for (int regionY = 0; regionY < region.height; regionY++) {
+                        for (int regionX = 0; regionX < region.width; regionX++) {
+                            assertEquals(kernel + " " + targetDPI + " " + region,
+                                    expectedRaster.getRGB(region.x + regionX, region.y + regionY),
+                                    actual.getRGB(regionX, regionY));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private SeparableImageResize createResize(SeparableImageResize.Kernels kernel, int sourceDPI, int targetDPI) {
+        SeparableImageResize resize = new SeparableImageResize();
+        resize.setKernel(kernel);
+        resize.setSourceDPI(sourceDPI);
+        resize.setTargetDPI(targetDPI);
+        return resize;
+    }
+
+    private BufferedImage createNoiseImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(3);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+}
@@ -1,38 +1,50 @@
 package processing.cleaning;
 
 import java.awt.image.BufferedImage;
+import java.util.Arrays;
 import java.util.List;
 
+import executors.TileExecutor;
+import kernels.PixelKernels;
 import processing.cleaning.preset.Condition;
 import processing.cleaning.preset.Preset;
 import processing.cleaning.preset.Replacement;
 
 public class AbsoluteImageCleaner {
+    private TileExecutor executor = TileExecutor.getDefault();
+
+    public void setExecutor(TileExecutor executor) {
+        this.executor = executor;
+    }
 
     public void clean(BufferedImage image, Preset preset) {
-        for (int x = 0; x < image.getWidth(); x++) {
-            for (int y = 0; y < image.getHeight(); y++) {
-                int actualRGB = image.getRGB(x, y);
-                int actualRed = (actualRGB >> 16) & 0xFF;
-                int actualGreen = (actualRGB >> 8) & 0xFF;
-                int actualBlue = actualRGB & 0xFF;
-
-                List<Replacement> operations = preset.getReplacements();
-                for (Replacement operation : operations) {
-                    Condition condition = operation.getCondition();
-                    if (isMatches(condition, actualRed, actualGreen, actualBlue)) {
-                        image.setRGB(x, y, operation.getReplacement().getRGB());
+        int width = image.getWidth();
+        List<Replacement> operations = preset.getReplacements();
+
+        PixelKernels kernels = PixelKernels.getDefault();
+
+        executor.forEachBand(image.getHeight(), (startY, endY) -> {
+            int[] row = new int[width];
+            // Number of the last matched replacement of every pixel, counted from 1
+            int[] matches = new int[width];
+            for (int y = startY; y < endY; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+
+                // All conditions are checked against the original color, the last matched replacement wins
+                Arrays.fill(matches, 0);
+                for (int i = 0; i < operations.size(); i++) {
+                    Condition condition = operations.get(i).getCondition();
+                    kernels.matchRange(row, width, condition.getRed().getMin(), condition.getRed().getMax(),
+                            condition.getGreen().getMin(), condition.getGreen().getMax(),
+                            condition.getBlue().getMin(), condition.getBlue().getMax(), matches, i + 1);
+                }
+
+                for (int x = 0; x < width; x++) {
+                    if (matches[x] != 0) {
+                        image.setRGB(x, y, operations.get(matches[x] - 1).getReplacement().getRGB());
                     }
                 }
             }
-        }
-    }
-
-    private boolean isMatches(Condition condition, int actualRed, int actualGreen, int actualBlue) {
-        boolean result = actualRed >= condition.getRed().getMin() && actualRed <= condition.getRed().getMax();
-        result &= actualGreen >= condition.getGreen().getMin() && actualGreen <= condition.getGreen().getMax();
-        result &= actualBlue >= condition.getBlue().getMin() && actualBlue <= condition.getBlue().getMax();
-
-        return result;
+        });
     }
 }
@@ -4,17 +4,35 @@ import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.util.List;
 
+import executors.TileExecutor;
+
 public class RelativeImageCleaner {
+    private TileExecutor executor = TileExecutor.getDefault();
+
+    public void setExecutor(TileExecutor executor) {
+        this.executor = executor;
+    }
 
     public void clean(BufferedImage image, List<ColorPredicate> predicates, Color match, Color notMatch) {
-        for (int x = 0; x < image.getWidth(); x++) {
-            for (int y = 0; y < image.getHeight(); y++) {
-                int actualRGB = image.getRGB(x, y);
-                for (ColorPredicate predicate : predicates) {
-                    Color replacement = predicate.test(actualRGB) ? match : notMatch;
-                    image.setRGB(x, y, replacement.getRGB());
+        // Every pixel is replaced by the result of the last predicate
+        if (predicates.isEmpty()) {
+            return;
+        }
+
+        ColorPredicate predicate = predicates.get(predicates.size() - 1);
+        int matchRGB = match.getRGB();
+        int notMatchRGB = notMatch.getRGB();
+        int width = image.getWidth();
+
+        executor.forEachBand(image.getHeight(), (startY, endY) -> {
+            int[] row = new int[width];
+            for (int y = startY; y < endY; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++) {
+                    row[x] = predicate.test(row[x]) ? matchRGB : notMatchRGB;
                 }
+                image.setRGB(0, y, width, 1, row, 0, width);
             }
-        }
+        });
     }
 }